@@ -0,0 +1,35 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler, so every result reports the
+ * allocation rate next to throughput and latency.
+ */
+public final class BenchmarkRunner {
+    /**
+     * Hidden constructor to simulate static class.
+     */
+    private BenchmarkRunner() { }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args JMH command line options, such as a benchmark name
+     *             pattern or "-p size=1000" to run one data set size.
+     * @throws CommandLineOptionException if the options are malformed.
+     * @throws RunnerException            if a benchmark failed.
+     */
+    public static void main(final String... args)
+            throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
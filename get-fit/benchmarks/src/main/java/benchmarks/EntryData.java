@@ -0,0 +1,103 @@
+package benchmarks;
+
+import core.EntryManager;
+import core.LogEntry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import workload.WorkloadGenerator;
+import workload.WorkloadMix;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The entries a benchmark runs on, generated once per trial by a
+ * WorkloadGenerator with its default seed, so every run and every
+ * benchmark sees the same data.
+ */
+@State(Scope.Benchmark)
+public class EntryData {
+    /**
+     * Number of entries.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+    /**
+     * Mix of exercise categories, the name of a WorkloadMix.
+     */
+    @Param({"typical", "balanced", "strength", "cardio"})
+    private String mix;
+
+    /**
+     * The entries, in an EntryManager.
+     */
+    private EntryManager entryManager;
+    /**
+     * The entries, in the order they were added.
+     */
+    private List<LogEntry> entries;
+    /**
+     * The entries represented by hash maps.
+     */
+    private List<HashMap<String, String>> hashes;
+    /**
+     * A date interval covering every entry, in the format of the REST API.
+     */
+    private String dateInterval;
+
+    /**
+     * Generates the entries.
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        WorkloadGenerator generator = new WorkloadGenerator(
+            WorkloadGenerator.DEFAULT_SEED,
+            WorkloadMix.valueOf(this.mix.toUpperCase()),
+            WorkloadGenerator.DEFAULT_YEARS, LocalDate.now());
+        this.entryManager = new EntryManager();
+        this.entries = new ArrayList<>(this.size);
+        this.hashes = new ArrayList<>(this.size);
+
+        for (int i = 0; i < this.size; i++) {
+            LogEntry entry = generator.next();
+            this.entryManager.addEntry(entry);
+            this.entries.add(entry);
+            this.hashes.add(entry.toHash());
+        }
+        this.dateInterval = generator.getFirstDate() + "-"
+            + generator.getLastDate();
+    }
+
+    /**
+     * @return the entries, in an EntryManager.
+     */
+    public EntryManager getEntryManager() {
+        return this.entryManager;
+    }
+
+    /**
+     * @return the entries, in the order they were added.
+     */
+    public List<LogEntry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * @return the entries represented by hash maps.
+     */
+    public List<HashMap<String, String>> getHashes() {
+        return this.hashes;
+    }
+
+    /**
+     * @return a date interval covering every entry.
+     */
+    public String getDateInterval() {
+        return this.dateInterval;
+    }
+}
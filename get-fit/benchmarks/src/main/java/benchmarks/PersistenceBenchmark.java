@@ -0,0 +1,84 @@
+package benchmarks;
+
+import core.EntryManager;
+import localpersistence.EntrySaverJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks saving and loading every entry with EntrySaverJson, as the
+ * server does on every write and at startup.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+    /**
+     * The file saved to and loaded from.
+     */
+    private Path saveFile;
+
+    /**
+     * Saves the entries once, so there is a file to load.
+     *
+     * @param data the entries.
+     * @throws IOException if the file could not be written.
+     */
+    @Setup(Level.Trial)
+    public void createFile(final EntryData data) throws IOException {
+        this.saveFile = Files.createTempFile("getfit-benchmark", ".json");
+        EntrySaverJson.save(data.getEntryManager(), this.saveFile.toString());
+    }
+
+    /**
+     * Deletes the file.
+     *
+     * @throws IOException if the file could not be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(this.saveFile);
+    }
+
+    /**
+     * Saves every entry.
+     *
+     * @param data the entries.
+     * @throws IOException if the file could not be written.
+     */
+    @Benchmark
+    public void save(final EntryData data) throws IOException {
+        EntrySaverJson.save(data.getEntryManager(), this.saveFile.toString());
+    }
+
+    /**
+     * Loads every entry into a new EntryManager.
+     *
+     * @return the loaded entries.
+     * @throws IOException if the file could not be read.
+     */
+    @Benchmark
+    public EntryManager load() throws IOException {
+        EntryManager entryManager = new EntryManager();
+        EntrySaverJson.load(entryManager, this.saveFile.toString());
+        return entryManager;
+    }
+}
@@ -0,0 +1,171 @@
+package benchmarks;
+
+import core.LogEntry;
+import core.LogEntryJson;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks converting every entry to and from the representations the
+ * REST API sends: hash maps, org.json objects, and the JSON written and
+ * read directly by LogEntryJson.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    /**
+     * Every entry as a JSON object of the version 1 API.
+     */
+    private List<String> json;
+    /**
+     * Every entry as a JSON object of the typed version 2 API.
+     */
+    private List<String> typedJson;
+
+    /**
+     * Writes the JSON to read.
+     *
+     * @param data the entries.
+     */
+    @Setup(Level.Trial)
+    public void writeJson(final EntryData data) {
+        this.json = new ArrayList<>(data.getEntries().size());
+        this.typedJson = new ArrayList<>(data.getEntries().size());
+        for (LogEntry entry : data.getEntries()) {
+            this.json.add(LogEntryJson.toJson(entry));
+            this.typedJson.add(LogEntryJson.toTypedJson(entry));
+        }
+    }
+
+    /**
+     * @param data      the entries.
+     * @param blackhole consumes the hash maps.
+     */
+    @Benchmark
+    public void toHash(final EntryData data, final Blackhole blackhole) {
+        for (LogEntry entry : data.getEntries()) {
+            blackhole.consume(entry.toHash());
+        }
+    }
+
+    /**
+     * @param data      the entries represented by hash maps.
+     * @param blackhole consumes the entries.
+     */
+    @Benchmark
+    public void fromHash(final EntryData data, final Blackhole blackhole) {
+        LocalDate today = LocalDate.now();
+        for (HashMap<String, String> hash : data.getHashes()) {
+            blackhole.consume(LogEntry.fromHash(hash, today));
+        }
+    }
+
+    /**
+     * Writes a list response through hash maps and org.json.
+     *
+     * @param data the entries.
+     * @return the response.
+     */
+    @Benchmark
+    public String writeListWithJsonObject(final EntryData data) {
+        JSONArray entries = new JSONArray();
+        for (LogEntry entry : data.getEntries()) {
+            entries.put(entry.toHash());
+        }
+        JSONObject response = new JSONObject();
+        response.put("entries", entries);
+        return response.toString();
+    }
+
+    /**
+     * Writes a list response with LogEntryJson.
+     *
+     * @param data the entries.
+     * @return the response.
+     * @throws IOException never, the response is built in memory.
+     */
+    @Benchmark
+    public String writeList(final EntryData data) throws IOException {
+        StringBuilder response = new StringBuilder("{\"entries\":");
+        LogEntryJson.writeArray(data.getEntries().iterator(), response);
+        return response.append('}').toString();
+    }
+
+    /**
+     * Writes a typed list response with LogEntryJson.
+     *
+     * @param data the entries.
+     * @return the response.
+     * @throws IOException never, the response is built in memory.
+     */
+    @Benchmark
+    public String writeTypedList(final EntryData data) throws IOException {
+        StringBuilder response = new StringBuilder("{\"entries\":");
+        LogEntryJson.writeTypedArray(data.getEntries().iterator(), response);
+        return response.append('}').toString();
+    }
+
+    /**
+     * Parses entries through org.json and hash maps.
+     *
+     * @param blackhole consumes the entries.
+     */
+    @Benchmark
+    public void parseWithJsonObject(final Blackhole blackhole) {
+        LocalDate today = LocalDate.now();
+        for (String entry : this.json) {
+            JSONObject object = new JSONObject(entry);
+            HashMap<String, String> hash = new HashMap<>();
+            object.keySet().forEach(key ->
+                hash.put(key, object.getString(key)));
+            blackhole.consume(LogEntry.fromHash(hash, today));
+        }
+    }
+
+    /**
+     * Parses entries with LogEntryJson.
+     *
+     * @param blackhole consumes the entries.
+     */
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        for (String entry : this.json) {
+            blackhole.consume(LogEntryJson.parse(entry));
+        }
+    }
+
+    /**
+     * Parses typed entries with LogEntryJson.
+     *
+     * @param blackhole consumes the entries.
+     */
+    @Benchmark
+    public void parseTyped(final Blackhole blackhole) {
+        for (String entry : this.typedJson) {
+            blackhole.consume(LogEntryJson.parseTyped(entry));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import core.EntryManager;
+import core.ExerciseCategory;
+import core.LogEntry;
+import core.SortConfiguration;
+import core.StrengthSubCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks listing entries with EntryManager.SortedIteratorBuilder,
+ * the work behind every list request.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SortedIteratorBenchmark {
+    /**
+     * Lists every entry sorted by date.
+     *
+     * @param data      the entries.
+     * @param blackhole consumes the listed entries.
+     */
+    @Benchmark
+    public void sortByDate(final EntryData data, final Blackhole blackhole) {
+        drain(new EntryManager.SortedIteratorBuilder(
+            data.getEntryManager(), SortConfiguration.DATE)
+            .iterator(false), blackhole);
+    }
+
+    /**
+     * Lists every entry sorted by duration, reversed.
+     *
+     * @param data      the entries.
+     * @param blackhole consumes the listed entries.
+     */
+    @Benchmark
+    public void sortByDurationReversed(final EntryData data,
+                                       final Blackhole blackhole) {
+        drain(new EntryManager.SortedIteratorBuilder(
+            data.getEntryManager(), SortConfiguration.DURATION)
+            .iterator(true), blackhole);
+    }
+
+    /**
+     * Lists every entry sorted by title.
+     *
+     * @param data      the entries.
+     * @param blackhole consumes the listed entries.
+     */
+    @Benchmark
+    public void sortByTitle(final EntryData data, final Blackhole blackhole) {
+        drain(new EntryManager.SortedIteratorBuilder(
+            data.getEntryManager(), SortConfiguration.TITLE)
+            .iterator(false), blackhole);
+    }
+
+    /**
+     * Lists the strength entries of one subcategory from the last year,
+     * sorted by date, the way the start page filters.
+     *
+     * @param data      the entries.
+     * @param blackhole consumes the listed entries.
+     */
+    @Benchmark
+    public void filterCategoryAndDate(final EntryData data,
+                                      final Blackhole blackhole) {
+        LocalDate today = LocalDate.now();
+        drain(new EntryManager.SortedIteratorBuilder(
+            data.getEntryManager(), SortConfiguration.DATE)
+            .filterExerciseCategory(ExerciseCategory.STRENGTH)
+            .filterSubCategory(StrengthSubCategory.PUSH)
+            .filterTimeInterval(today.minusYears(1), today)
+            .iterator(false), blackhole);
+    }
+
+    /**
+     * Consumes every listed entry.
+     *
+     * @param iterator  the listed entries.
+     * @param blackhole consumes them.
+     */
+    private static void drain(final Iterator<LogEntry> iterator,
+                              final Blackhole blackhole) {
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
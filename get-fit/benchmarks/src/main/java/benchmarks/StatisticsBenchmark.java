@@ -0,0 +1,83 @@
+package benchmarks;
+
+import math.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the math.Statistics methods behind the statistics page,
+ * over every entry.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StatisticsBenchmark {
+    /**
+     * @param data the entries.
+     * @return the count of entries.
+     */
+    @Benchmark
+    public int count(final EntryData data) {
+        return Statistics.getCount(data.getEntryManager(), null,
+            data.getDateInterval());
+    }
+
+    /**
+     * @param data the entries.
+     * @return the total duration.
+     */
+    @Benchmark
+    public double totalDuration(final EntryData data) {
+        return Statistics.getTotalDuration(data.getEntryManager(), null,
+            data.getDateInterval());
+    }
+
+    /**
+     * @param data the entries.
+     * @return the average duration.
+     */
+    @Benchmark
+    public double averageDuration(final EntryData data) {
+        return Statistics.getAverageDuration(data.getEntryManager(), null,
+            data.getDateInterval());
+    }
+
+    /**
+     * @param data the entries.
+     * @return the average speed of running.
+     */
+    @Benchmark
+    public double averageSpeed(final EntryData data) {
+        return Statistics.getAverageSpeed(data.getEntryManager(), "RUNNING",
+            data.getDateInterval());
+    }
+
+    /**
+     * @param data the entries.
+     * @return the average feeling.
+     */
+    @Benchmark
+    public double averageFeeling(final EntryData data) {
+        return Statistics.getAverageFeeling(data.getEntryManager(), null,
+            data.getDateInterval());
+    }
+
+    /**
+     * @param data the entries.
+     * @return the maximum heart rate.
+     */
+    @Benchmark
+    public double maximumHeartRate(final EntryData data) {
+        return Statistics.getMaximumHr(data.getEntryManager(), null,
+            data.getDateInterval());
+    }
+}
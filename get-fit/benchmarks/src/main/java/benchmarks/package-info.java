@@ -0,0 +1,4 @@
+/**
+ * Package for JMH benchmarks of the hot paths of get-fit.
+ */
+package benchmarks;
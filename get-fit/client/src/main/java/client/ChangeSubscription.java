@@ -0,0 +1,182 @@
+package client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * An open subscription to the server's change feed. Reads the
+ * server-sent event stream line by line and passes every change to a
+ * listener, on the threads of the LogClient that opened it.
+ */
+public final class ChangeSubscription
+        implements Flow.Subscriber<String>, AutoCloseable {
+    /**
+     * Receives the changes.
+     */
+    private final Consumer<EntryChange> listener;
+    /**
+     * Completes when the stream ends.
+     */
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    /**
+     * Name of the event being read.
+     */
+    private String eventName = "message";
+    /**
+     * Data of the event being read.
+     */
+    private StringBuilder eventData = new StringBuilder();
+    /**
+     * Sequence number of the last change received.
+     */
+    private volatile long lastSequence;
+    /**
+     * The stream, once it is open.
+     */
+    private Flow.Subscription subscription;
+    /**
+     * Whether the subscription was closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * Creates a subscription that is not yet connected.
+     *
+     * @param changeListener receives the changes.
+     * @param since          the last sequence number already seen.
+     */
+    ChangeSubscription(final Consumer<EntryChange> changeListener,
+                       final long since) {
+        this.listener = changeListener;
+        this.lastSequence = since;
+    }
+
+    /**
+     * Gives the sequence number to resume from after a disconnect.
+     *
+     * @return the sequence number of the last change received,
+     * or the one subscribed with if none has arrived.
+     */
+    public long getLastSequence() {
+        return this.lastSequence;
+    }
+
+    /**
+     * Gives a promise completing when the stream ends. It completes
+     * exceptionally if the connection failed or the server refused the
+     * subscription, with a ServerResponseException in the latter case.
+     *
+     * @return the promise.
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return this.done;
+    }
+
+    /**
+     * Stops receiving changes.
+     */
+    @Override
+    public void close() {
+        Flow.Subscription current;
+        synchronized (this) {
+            this.closed = true;
+            current = this.subscription;
+        }
+        if (current != null) {
+            current.cancel();
+        }
+        this.done.complete(null);
+    }
+
+    /**
+     * Starts reading the stream.
+     *
+     * @param newSubscription the stream.
+     */
+    @Override
+    public void onSubscribe(final Flow.Subscription newSubscription) {
+        boolean cancel;
+        synchronized (this) {
+            this.subscription = newSubscription;
+            cancel = this.closed;
+        }
+        if (cancel) {
+            newSubscription.cancel();
+        } else {
+            newSubscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Reads one line of the event stream.
+     *
+     * @param line the line, without its line terminator.
+     */
+    @Override
+    public void onNext(final String line) {
+        if (line.isEmpty()) {
+            dispatch();
+            return;
+        }
+        if (line.startsWith(":")) {
+            return;
+        }
+
+        int colon = line.indexOf(':');
+        String field = colon < 0 ? line : line.substring(0, colon);
+        String value = colon < 0 ? "" : line.substring(colon + 1);
+        if (value.startsWith(" ")) {
+            value = value.substring(1);
+        }
+
+        switch (field) {
+            case "event" -> this.eventName = value;
+            case "data" -> {
+                if (this.eventData.length() > 0) {
+                    this.eventData.append('\n');
+                }
+                this.eventData.append(value);
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Ends the subscription after a failure.
+     *
+     * @param throwable what went wrong.
+     */
+    @Override
+    public void onError(final Throwable throwable) {
+        this.done.completeExceptionally(throwable);
+    }
+
+    /**
+     * Ends the subscription when the server closes the stream.
+     */
+    @Override
+    public void onComplete() {
+        this.done.complete(null);
+    }
+
+    /**
+     * Passes the event that was read on to the listener.
+     */
+    private void dispatch() {
+        String data = this.eventData.toString();
+        String name = this.eventName;
+        this.eventName = "message";
+        this.eventData = new StringBuilder();
+        if (data.isEmpty()) {
+            return;
+        }
+
+        EntryChange change = EntryChange.fromEvent(name, data);
+        if (change != null) {
+            this.lastSequence = change.getSequence();
+            this.listener.accept(change);
+        }
+    }
+}
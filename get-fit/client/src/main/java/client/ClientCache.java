@@ -0,0 +1,311 @@
+package client;
+
+import localpersistence.EntrySaverJson;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The last known server data of a LogClient, kept on disk so the
+ * application can show it at startup before the server answers, and
+ * the writes that could not be sent while the server was unreachable.
+ * The entries are saved in the format of the local persistence module.
+ * A cache that can not be read is discarded.
+ */
+public final class ClientCache {
+    /**
+     * File the entries are saved to.
+     */
+    private static final String ENTRIES_FILE = "entries.json";
+    /**
+     * File the sync state, categories and queued writes are saved to.
+     */
+    private static final String STATE_FILE = "state.json";
+    /**
+     * Directory the cache is saved in.
+     */
+    private final Path directory;
+    /**
+     * The cached entries represented by hash maps, by id.
+     */
+    private HashMap<String, HashMap<String, String>> entries =
+        new HashMap<>();
+    /**
+     * The epoch of the server the entries were synced from.
+     */
+    private String epoch = "";
+    /**
+     * The version of the server the entries were synced to.
+     */
+    private long version = 0;
+    /**
+     * The cached exercise categories, or null if not cached.
+     */
+    private HashMap<String, List<String>> categories;
+    /**
+     * Writes waiting to be sent, oldest first.
+     */
+    private final ArrayDeque<PendingWrite> pending = new ArrayDeque<>();
+
+    /**
+     * Opens the cache saved in a directory.
+     *
+     * @param cacheDirectory the directory the cache is saved in.
+     * It is created on the first save.
+     */
+    public ClientCache(final Path cacheDirectory) {
+        this.directory = cacheDirectory;
+        try {
+            load();
+        } catch (IOException | IllegalStateException | JSONException e) {
+            this.entries = new HashMap<>();
+            this.epoch = "";
+            this.version = 0;
+            this.categories = null;
+            this.pending.clear();
+        }
+    }
+
+    /**
+     * @return a copy of the cached entries represented by hash maps, by id.
+     */
+    public synchronized HashMap<String, HashMap<String, String>>
+            getEntries() {
+        HashMap<String, HashMap<String, String>> copy = new HashMap<>();
+        this.entries.forEach((id, entry) ->
+            copy.put(id, new HashMap<>(entry)));
+        return copy;
+    }
+
+    /**
+     * @return the epoch of the server the entries were synced from.
+     */
+    public synchronized String getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * @return the version of the server the entries were synced to.
+     */
+    public synchronized long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return the cached exercise categories, or null if not cached.
+     */
+    public synchronized HashMap<String, List<String>> getCategories() {
+        return this.categories == null
+            ? null : new HashMap<>(this.categories);
+    }
+
+    /**
+     * @return the number of writes waiting to be sent.
+     */
+    public synchronized int pendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Saves synced entries.
+     *
+     * @param syncedEpoch   the epoch of the server.
+     * @param syncedVersion the version of the server.
+     * @param syncedEntries the entries represented by hash maps, by id.
+     * @throws IOException if the cache could not be written.
+     */
+    synchronized void saveEntries(
+            final String syncedEpoch, final long syncedVersion,
+            final HashMap<String, HashMap<String, String>> syncedEntries)
+            throws IOException {
+        this.entries = syncedEntries;
+        this.epoch = syncedEpoch;
+        this.version = syncedVersion;
+        Files.createDirectories(this.directory);
+        EntrySaverJson.saveHashMap(syncedEntries,
+            this.directory.resolve(ENTRIES_FILE).toString());
+        saveState();
+    }
+
+    /**
+     * Saves exercise categories.
+     *
+     * @param loaded the categories mapped to their subcategories.
+     * @throws IOException if the cache could not be written.
+     */
+    synchronized void saveCategories(
+            final HashMap<String, List<String>> loaded) throws IOException {
+        if (loaded.equals(this.categories)) {
+            return;
+        }
+        this.categories = new HashMap<>(loaded);
+        saveState();
+    }
+
+    /**
+     * Queues a write to be sent later.
+     *
+     * @param write the write.
+     * @throws IOException if the cache could not be written.
+     */
+    synchronized void queue(final PendingWrite write) throws IOException {
+        this.pending.addLast(write);
+        saveState();
+    }
+
+    /**
+     * @return the oldest write waiting to be sent, or null if there is none.
+     */
+    synchronized PendingWrite peekPending() {
+        return this.pending.peekFirst();
+    }
+
+    /**
+     * Removes a write that was sent.
+     *
+     * @param write the sent write.
+     * @throws IOException if the cache could not be written.
+     */
+    synchronized void removePending(final PendingWrite write)
+            throws IOException {
+        if (this.pending.remove(write)) {
+            saveState();
+        }
+    }
+
+    /**
+     * Reads the cache files.
+     *
+     * @throws IOException           if a file could not be read.
+     * @throws IllegalStateException if the entries file is malformed.
+     * @throws JSONException         if the state file is malformed.
+     */
+    private void load() throws IOException {
+        this.entries = EntrySaverJson.loadHashMap(
+            this.directory.resolve(ENTRIES_FILE).toString());
+        this.entries.forEach((id, entry) -> entry.put("id", id));
+
+        Path stateFile = this.directory.resolve(STATE_FILE);
+        if (!Files.exists(stateFile)) {
+            return;
+        }
+        JSONObject state = new JSONObject(
+            Files.readString(stateFile, StandardCharsets.UTF_8));
+        this.epoch = state.getString("epoch");
+        this.version = state.getLong("version");
+
+        if (state.has("categories")) {
+            JSONObject json = state.getJSONObject("categories");
+            this.categories = new HashMap<>();
+            for (String category : json.keySet()) {
+                List<String> subcategories = new ArrayList<>();
+                json.getJSONArray(category)
+                    .forEach(sub -> subcategories.add(sub.toString()));
+                this.categories.put(category, subcategories);
+            }
+        }
+
+        JSONArray writes = state.getJSONArray("pending");
+        for (int i = 0; i < writes.length(); i++) {
+            this.pending.addLast(
+                PendingWrite.fromJson(writes.getJSONObject(i)));
+        }
+    }
+
+    /**
+     * Writes the sync state, categories and queued writes.
+     *
+     * @throws IOException if the file could not be written.
+     */
+    private void saveState() throws IOException {
+        JSONObject state = new JSONObject();
+        state.put("epoch", this.epoch);
+        state.put("version", this.version);
+        if (this.categories != null) {
+            state.put("categories", new JSONObject(this.categories));
+        }
+        JSONArray writes = new JSONArray();
+        this.pending.forEach(write -> writes.put(write.toJson()));
+        state.put("pending", writes);
+
+        Files.createDirectories(this.directory);
+        Files.writeString(this.directory.resolve(STATE_FILE),
+            state.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A write that could not be sent while the server was unreachable.
+     *
+     * @param type  "add" or "remove".
+     * @param id    the id of the entry to remove, or null on add.
+     * @param entry the entry to add, or null on remove.
+     */
+    record PendingWrite(String type, String id,
+                        HashMap<String, String> entry) {
+        /**
+         * Type of a queued addition.
+         */
+        static final String ADD = "add";
+        /**
+         * Type of a queued removal.
+         */
+        static final String REMOVE = "remove";
+
+        /**
+         * @param entry the entry to add.
+         * @return a queued addition.
+         */
+        static PendingWrite add(final HashMap<String, String> entry) {
+            return new PendingWrite(ADD, null, new HashMap<>(entry));
+        }
+
+        /**
+         * @param id the id of the entry to remove.
+         * @return a queued removal.
+         */
+        static PendingWrite remove(final String id) {
+            return new PendingWrite(REMOVE, id, null);
+        }
+
+        /**
+         * @return the write as saved in the state file.
+         */
+        JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("type", this.type);
+            if (this.id != null) {
+                json.put("id", this.id);
+            }
+            if (this.entry != null) {
+                json.put("entry", new JSONObject(this.entry));
+            }
+            return json;
+        }
+
+        /**
+         * @param json a write as saved in the state file.
+         * @return the write.
+         */
+        static PendingWrite fromJson(final JSONObject json) {
+            HashMap<String, String> entry = null;
+            if (json.has("entry")) {
+                JSONObject entryJson = json.getJSONObject("entry");
+                entry = new HashMap<>();
+                for (String key : entryJson.keySet()) {
+                    entry.put(key, entryJson.getString(key));
+                }
+            }
+            return new PendingWrite(json.getString("type"),
+                json.has("id") ? json.getString("id") : null, entry);
+        }
+    }
+}
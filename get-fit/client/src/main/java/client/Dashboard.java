@@ -0,0 +1,19 @@
+package client;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Everything a statistics screen shows, as loaded in one request.
+ *
+ * @param statistics the statistics, like those of
+ *                   {@link LogClient#getStatistics}.
+ * @param chart      the chart data, like that of
+ *                   {@link LogClient#getChartData}.
+ * @param entries    the log entries of the category in the date interval,
+ *                   like those of {@link LogClient#getLogEntryList}, or
+ *                   none if they were not asked for.
+ */
+public record Dashboard(HashMap<String, String> statistics,
+                        HashMap<String, String> chart,
+                        List<HashMap<String, String>> entries) { }
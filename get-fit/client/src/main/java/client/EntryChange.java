@@ -0,0 +1,120 @@
+package client;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+
+/**
+ * An entry addition or removal received from the server's change feed.
+ */
+public final class EntryChange {
+    /**
+     * What kind of change an event describes.
+     */
+    public enum Type {
+        /**
+         * An entry was added.
+         */
+        ADD,
+        /**
+         * An entry was removed.
+         */
+        REMOVE,
+        /**
+         * Changes were missed, everything must be fetched again.
+         */
+        RESET
+    }
+
+    /**
+     * What kind of change this is.
+     */
+    private final Type type;
+    /**
+     * The server's sequence number of the change.
+     */
+    private final long sequence;
+    /**
+     * The id of the changed entry, or null on RESET.
+     */
+    private final String id;
+    /**
+     * The added entry, or null unless this is an ADD.
+     */
+    private final HashMap<String, String> entry;
+
+    /**
+     * Describes a change.
+     *
+     * @param changeType     what kind of change this is.
+     * @param changeSequence the server's sequence number of the change.
+     * @param changeId       the id of the changed entry.
+     * @param changeEntry    the added entry.
+     */
+    EntryChange(final Type changeType, final long changeSequence,
+                final String changeId,
+                final HashMap<String, String> changeEntry) {
+        this.type = changeType;
+        this.sequence = changeSequence;
+        this.id = changeId;
+        this.entry = changeEntry;
+    }
+
+    /**
+     * Parses a server-sent event of the change feed.
+     *
+     * @param name the event name.
+     * @param data the event data.
+     * @return the change, or null if the event is not a change.
+     */
+    static EntryChange fromEvent(final String name, final String data) {
+        Type changeType;
+        try {
+            changeType = Type.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        JSONObject json = new JSONObject(data);
+        HashMap<String, String> changeEntry = null;
+        if (json.has("entry")) {
+            JSONObject entryJson = json.getJSONObject("entry");
+            changeEntry = new HashMap<>();
+            for (String key : entryJson.keySet()) {
+                changeEntry.put(key, entryJson.getString(key));
+            }
+        }
+
+        return new EntryChange(changeType, json.getLong("seq"),
+            json.has("id") ? json.getString("id") : null, changeEntry);
+    }
+
+    /**
+     * @return what kind of change this is.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * @return the server's sequence number of the change.
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return the id of the changed entry, or null on RESET.
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * @return the added entry represented by a hash map,
+     * or null unless this is an ADD.
+     */
+    public HashMap<String, String> getEntry() {
+        return this.entry;
+    }
+}
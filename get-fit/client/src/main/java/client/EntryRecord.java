@@ -0,0 +1,93 @@
+package client;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+
+/**
+ * A log entry as sent by the typed version 2 API, with numbers as
+ * numbers and absent optional fields as null.
+ *
+ * @param id                  the id, or null if not yet added.
+ * @param title               the title.
+ * @param date                the date, as yyyy-mm-dd.
+ * @param duration            the duration in seconds.
+ * @param feeling             the feeling.
+ * @param exerciseCategory    the exercise category.
+ * @param exerciseSubCategory the exercise subcategory, or null.
+ * @param distance            the distance, or null.
+ * @param maxHeartRate        the maximum heart rate, or null.
+ * @param comment             the comment, or null.
+ */
+public record EntryRecord(String id, String title, String date,
+                          long duration, int feeling,
+                          String exerciseCategory,
+                          String exerciseSubCategory, Double distance,
+                          Integer maxHeartRate, String comment) {
+    /**
+     * Parses a typed JSON object of an entry.
+     *
+     * @param json the JSON object.
+     * @return the entry.
+     */
+    static EntryRecord fromJson(final JSONObject json) {
+        return new EntryRecord(
+            json.has("id") ? json.getString("id") : null,
+            json.getString("title"),
+            json.getString("date"),
+            json.getLong("duration"),
+            json.getInt("feeling"),
+            json.getString("exerciseCategory"),
+            json.isNull("exerciseSubCategory")
+                ? null : json.getString("exerciseSubCategory"),
+            json.isNull("distance") ? null : json.getDouble("distance"),
+            json.isNull("maxHeartRate") ? null : json.getInt("maxHeartRate"),
+            json.isNull("comment") ? null : json.getString("comment"));
+    }
+
+    /**
+     * @return the entry as a typed JSON object, without the id.
+     */
+    JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("title", this.title);
+        json.put("date", this.date);
+        json.put("duration", this.duration);
+        json.put("feeling", this.feeling);
+        json.put("exerciseCategory", this.exerciseCategory);
+        json.put("exerciseSubCategory",
+            this.exerciseSubCategory == null
+                ? JSONObject.NULL : this.exerciseSubCategory);
+        json.put("distance",
+            this.distance == null ? JSONObject.NULL : this.distance);
+        json.put("maxHeartRate",
+            this.maxHeartRate == null ? JSONObject.NULL : this.maxHeartRate);
+        json.put("comment",
+            this.comment == null ? JSONObject.NULL : this.comment);
+        return json;
+    }
+
+    /**
+     * Represents the entry the way the version 1 API does, with every
+     * field a string and absent optional fields as "null".
+     *
+     * @return the entry represented by a hash map.
+     */
+    public HashMap<String, String> toHash() {
+        HashMap<String, String> hash = new HashMap<>();
+        if (this.id != null) {
+            hash.put("id", this.id);
+        }
+        hash.put("title", this.title);
+        hash.put("date", this.date);
+        hash.put("duration", Long.toString(this.duration));
+        hash.put("feeling", Integer.toString(this.feeling));
+        hash.put("exerciseCategory", this.exerciseCategory);
+        hash.put("exerciseSubCategory", String.valueOf(
+            this.exerciseSubCategory));
+        hash.put("distance", String.valueOf(this.distance));
+        hash.put("maxHeartRate", String.valueOf(this.maxHeartRate));
+        hash.put("comment", String.valueOf(this.comment));
+        return hash;
+    }
+}
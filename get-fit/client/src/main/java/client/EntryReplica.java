@@ -0,0 +1,130 @@
+package client;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Local copy of every log entry on the server, kept current by applying
+ * the entries added and removed since the version it was last synced to.
+ * Syncing thereby costs in proportion to the changes, not the history.
+ */
+public final class EntryReplica {
+    /**
+     * The entries represented by hash maps, by id.
+     */
+    private final HashMap<String, HashMap<String, String>> entries =
+        new HashMap<>();
+    /**
+     * The epoch of the server the entries were synced from.
+     */
+    private String epoch = "";
+    /**
+     * The version of the server the entries were synced to.
+     */
+    private long version = 0;
+
+    /**
+     * @return the endpoint giving the changes after the synced version.
+     */
+    synchronized String sinceEndpoint() {
+        return "/api/v1/entries/since/" + this.version
+            + "?epoch=" + this.epoch;
+    }
+
+    /**
+     * Applies a response of the since endpoint. A response for a version
+     * older than the synced one, from a sync that was overtaken, is
+     * ignored.
+     *
+     * @param response the JSON string to apply.
+     */
+    synchronized void apply(final String response) {
+        JSONObject delta = new JSONObject(response);
+        String deltaEpoch = delta.getString("epoch");
+        long deltaVersion = delta.getLong("version");
+        if (deltaEpoch.equals(this.epoch) && deltaVersion <= this.version
+                && !delta.getBoolean("reset")) {
+            return;
+        }
+
+        if (delta.getBoolean("reset")) {
+            this.entries.clear();
+        }
+        JSONArray removed = delta.getJSONArray("removed");
+        for (int i = 0; i < removed.length(); i++) {
+            this.entries.remove(removed.getString(i));
+        }
+        JSONArray added = delta.getJSONArray("added");
+        for (int i = 0; i < added.length(); i++) {
+            JSONObject entry = added.getJSONObject(i);
+            HashMap<String, String> entryHash = new HashMap<>();
+            entry.keySet().forEach(key ->
+                entryHash.put(key, entry.getString(key)));
+            this.entries.put(entryHash.get("id"), entryHash);
+        }
+
+        this.epoch = deltaEpoch;
+        this.version = deltaVersion;
+    }
+
+    /**
+     * Replaces the entries with the ones saved in a cache.
+     *
+     * @param cache the cache.
+     */
+    synchronized void restore(final ClientCache cache) {
+        this.entries.clear();
+        this.entries.putAll(cache.getEntries());
+        this.epoch = cache.getEpoch();
+        this.version = cache.getVersion();
+    }
+
+    /**
+     * Saves the entries to a cache.
+     *
+     * @param cache the cache.
+     * @throws IOException if the cache could not be written.
+     */
+    synchronized void saveTo(final ClientCache cache) throws IOException {
+        cache.saveEntries(this.epoch, this.version, this.getEntries());
+    }
+
+    /**
+     * Removes an entry whose removal is queued, so it is not shown
+     * until the removal reaches the server.
+     *
+     * @param id the id of the entry.
+     */
+    synchronized void forget(final String id) {
+        this.entries.remove(id);
+    }
+
+    /**
+     * @return the epoch of the server the entries were synced from,
+     * or an empty string if never synced.
+     */
+    public synchronized String getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * @return the version of the server the entries were synced to.
+     */
+    public synchronized long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return a copy of the entries represented by hash maps, by id.
+     */
+    public synchronized HashMap<String, HashMap<String, String>>
+            getEntries() {
+        HashMap<String, HashMap<String, String>> copy = new HashMap<>();
+        this.entries.forEach((id, entry) ->
+            copy.put(id, new HashMap<>(entry)));
+        return copy;
+    }
+}
@@ -8,6 +8,7 @@ public final class HttpResponses {
      */
     static final Map<Integer, String> RESPONSES = Map.of(
             200, "OK",
+            304, "Not Modified",
             400, "Bad Request",
             404, "Not Found",
             500, "Internal Server Error"
@@ -3,26 +3,65 @@ package client;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * Representation of a connection to a get-fit server.
+ * Owns one HTTP client whose connections are kept alive and reused
+ * between requests, and should be closed when no longer needed.
+ * Every request has a blocking method and a non-blocking variant
+ * returning a CompletableFuture, which parses the response on the
+ * threads of this client rather than the caller.
  */
-public class LogClient {
+public class LogClient implements AutoCloseable {
+    /**
+     * Default time allowed for establishing a connection.
+     */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT =
+        Duration.ofSeconds(5);
+    /**
+     * Default time allowed for a request to complete.
+     */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT =
+        Duration.ofSeconds(30);
+    /**
+     * Default amount of threads handling responses.
+     */
+    public static final int DEFAULT_THREADS = 4;
     /**
      * OK response value.
      */
     private static final int OK_CODE = 200;
+    /**
+     * Not modified response value.
+     */
+    private static final int NOT_MODIFIED_CODE = 304;
+    /**
+     * How many responses to keep for conditional requests.
+     */
+    private static final int MAX_CACHED_RESPONSES = 64;
     /**
      * URL to remote server.
      */
@@ -31,16 +70,133 @@ public class LogClient {
      * Port to the remote server.
      */
     private final int port;
+    /**
+     * Time allowed for a request to complete.
+     */
+    private final Duration requestTimeout;
+    /**
+     * Threads handling responses for the HTTP client.
+     */
+    private final ExecutorService executor;
+    /**
+     * The HTTP client shared by all requests.
+     */
+    private final HttpClient httpClient;
+    /**
+     * Last response body and entity tag per endpoint,
+     * least recently used first.
+     */
+    private final Map<String, CachedResponse> responseCache =
+        new LinkedHashMap<>(MAX_CACHED_RESPONSES, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<String, CachedResponse> eldest) {
+                return size() > MAX_CACHED_RESPONSES;
+            }
+        };
+    /**
+     * Local copy of the entries on the server.
+     */
+    private final EntryReplica replica = new EntryReplica();
+    /**
+     * On-disk copy of the last known server data, or null if not used.
+     */
+    private volatile ClientCache cache;
+    /**
+     * The replay of queued writes in progress, or null if there is none.
+     */
+    private CompletableFuture<Integer> replay;
+    /**
+     * The exercise categories, which are constant on the server,
+     * or null until first requested.
+     */
+    private CompletableFuture<HashMap<String, List<String>>> categories;
 
     /**
-     * Constructs a LogClient from a builder.
+     * Constructs a LogClient with default timeouts and thread count.
      *
      * @param serverUrl  server base url.
      * @param serverPort server port.
      */
     public LogClient(final String serverUrl, final int serverPort) {
+        this(serverUrl, serverPort, DEFAULT_CONNECT_TIMEOUT,
+            DEFAULT_REQUEST_TIMEOUT, DEFAULT_THREADS);
+    }
+
+    /**
+     * Constructs a LogClient.
+     *
+     * @param serverUrl      server base url.
+     * @param serverPort     server port.
+     * @param connectTimeout time allowed for establishing a connection.
+     * @param timeout        time allowed for a request to complete.
+     * @param threads        amount of threads handling responses.
+     * @throws IllegalArgumentException
+     * if a timeout is null or threads is not positive.
+     */
+    public LogClient(final String serverUrl, final int serverPort,
+                     final Duration connectTimeout, final Duration timeout,
+                     final int threads) throws IllegalArgumentException {
+        if (connectTimeout == null || timeout == null || threads < 1) {
+            throw new IllegalArgumentException(
+                "Timeouts cannot be null and threads must be positive");
+        }
+
         this.url = serverUrl;
         this.port = serverPort;
+        this.requestTimeout = timeout;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "log-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(connectTimeout)
+            .executor(this.executor)
+            .build();
+    }
+
+    /**
+     * Releases the threads of this LogClient. Requests that are
+     * already sent are allowed to finish, new requests will fail.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * Keeps the last known entries and exercise categories on disk, and
+     * restores them from there at once. Writes that can not reach the
+     * server are then queued in the cache instead of failing, to be sent
+     * by {@link #replayPendingAsync()}.
+     *
+     * @param directory the directory the cache is saved in.
+     */
+    public void useCache(final Path directory) {
+        ClientCache opened = new ClientCache(directory);
+        this.replica.restore(opened);
+        this.cache = opened;
+    }
+
+    /**
+     * @return the on-disk cache, or null if it is not used.
+     */
+    public ClientCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Gives the cached exercise categories, to show before
+     * the server answers.
+     *
+     * @return the categories mapped to their subcategories,
+     * or null if none are cached.
+     */
+    public HashMap<String, List<String>> getCachedCategories() {
+        ClientCache current = this.cache;
+        return current == null ? null : current.getCategories();
     }
 
     /**
@@ -58,16 +214,20 @@ public class LogClient {
     public HashMap<String, String> getLogEntry(final String id)
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
-        HttpResponse<String> response = this.get("/api/v1/entries/" + id);
-        String jsonString = response.body();
-
-        JSONObject jsonObject = new JSONObject(jsonString);
-        HashMap<String, String> responseHash = new HashMap<>();
-
-        jsonObject.keySet().forEach(x ->
-            responseHash.put(x, jsonObject.getString(x)));
+        return await(this.getLogEntryAsync(id));
+    }
 
-        return responseHash;
+    /**
+     * Gets a LogEntry from the server without blocking.
+     *
+     * @param id The id of the LogEntry to retrieve.
+     * @return A promise of the LogEntry represented by a hash map.
+     * @see #getLogEntry(String)
+     */
+    public CompletableFuture<HashMap<String, String>> getLogEntryAsync(
+            final String id) {
+        return this.getAsync("/api/v1/entries/" + id)
+            .thenApplyAsync(LogClient::getResponseHashMap, this.executor);
     }
 
     /**
@@ -88,6 +248,105 @@ public class LogClient {
             final SortArgWrapper builder)
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
+        return await(this.getLogEntryListAsync(builder));
+    }
+
+    /**
+     * Get a list of log entries from the server without blocking.
+     *
+     * @param builder The query string builder to generate a query string
+     *                for filtering and sorting.
+     * @return A promise of the log entries represented as hash maps.
+     * @see #getLogEntryList(SortArgWrapper)
+     */
+    public CompletableFuture<List<HashMap<String, String>>>
+            getLogEntryListAsync(final SortArgWrapper builder) {
+        return this.getAsync("/api/v1/entries/list" + listQuery(builder))
+            .thenApplyAsync(LogClient::getResponseList, this.executor);
+    }
+
+    /**
+     * Gets a LogEntry from the server through the typed API.
+     *
+     * @param id The id of the LogEntry to retrieve.
+     * @return The LogEntry.
+     * @throws URISyntaxException      If the id ruins the URI syntax.
+     * @throws InterruptedException
+     * If the request was interrupted before retrieving the http response.
+     * @throws ExecutionException      If the request completed exceptionally.
+     * @throws ServerResponseException
+     * If there was an error with the server response.
+     */
+    public EntryRecord getEntry(final String id)
+            throws URISyntaxException, InterruptedException,
+            ExecutionException, ServerResponseException {
+        return await(this.getEntryAsync(id));
+    }
+
+    /**
+     * Gets a LogEntry from the server through the typed API without
+     * blocking.
+     *
+     * @param id The id of the LogEntry to retrieve.
+     * @return A promise of the LogEntry.
+     * @see #getEntry(String)
+     */
+    public CompletableFuture<EntryRecord> getEntryAsync(final String id) {
+        return this.getAsync("/api/v2/entries/" + id)
+            .thenApplyAsync(response ->
+                EntryRecord.fromJson(new JSONObject(response)), this.executor);
+    }
+
+    /**
+     * Get a list of log entries from the server through the typed API.
+     *
+     * @param builder The query string builder to generate a query string
+     *                for filtering and sorting.
+     * @return A list of log entries from the server.
+     * @throws URISyntaxException
+     * If the query entries ruin the query string syntax.
+     * @throws InterruptedException
+     * If the request was interrupted before retrieving the http response.
+     * @throws ExecutionException      If the request completed exceptionally.
+     * @throws ServerResponseException
+     * If there was an error with the server response.
+     */
+    public List<EntryRecord> getEntries(final SortArgWrapper builder)
+            throws URISyntaxException, InterruptedException,
+            ExecutionException, ServerResponseException {
+        return await(this.getEntriesAsync(builder));
+    }
+
+    /**
+     * Get a list of log entries from the server through the typed API
+     * without blocking.
+     *
+     * @param builder The query string builder to generate a query string
+     *                for filtering and sorting.
+     * @return A promise of the log entries.
+     * @see #getEntries(SortArgWrapper)
+     */
+    public CompletableFuture<List<EntryRecord>> getEntriesAsync(
+            final SortArgWrapper builder) {
+        return this.getAsync("/api/v2/entries/list" + listQuery(builder))
+            .thenApplyAsync(response -> {
+                JSONArray array = new JSONObject(response)
+                    .getJSONArray("entries");
+                List<EntryRecord> entries = new ArrayList<>(array.length());
+                for (int i = 0; i < array.length(); i++) {
+                    entries.add(EntryRecord.fromJson(array.getJSONObject(i)));
+                }
+                return entries;
+            }, this.executor);
+    }
+
+    /**
+     * Builds the query string of a list request.
+     *
+     * @param builder The query string builder.
+     * @return The query string, starting with "?".
+     */
+    private static String listQuery(final SortArgWrapper builder) {
         String queryString = "?";
         List<String> queries = new ArrayList<>();
 
@@ -108,27 +367,7 @@ public class LogClient {
 
         queryString += String.join("&", queries);
 
-        HttpResponse<String> response =
-            this.get("/api/v1/entries/list" + queryString);
-
-        JSONObject jsonObject = new JSONObject(response.body());
-
-        List<HashMap<String, String>> responseList =
-            new ArrayList<>();
-
-        JSONArray array = jsonObject.getJSONArray("entries");
-
-        array.forEach(x -> {
-            JSONObject entry = (JSONObject) x;
-            HashMap<String, String> entryHash = new HashMap<>();
-
-            entry.keySet().forEach(y -> entryHash.put(y, entry.getString(y)));
-
-            responseList.add(entryHash);
-        });
-
-        return responseList;
-
+        return queryString;
     }
 
     /**
@@ -149,6 +388,19 @@ public class LogClient {
             final SortArgWrapper builder)
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
+        return await(this.getStatisticsAsync(builder));
+    }
+
+    /**
+     * Gets statistics data from the server without blocking.
+     *
+     * @param builder The query string builder to generate a query string
+     *                for filtering and sorting.
+     * @return A promise of a hashmap with the data content.
+     * @see #getStatistics(SortArgWrapper)
+     */
+    public CompletableFuture<HashMap<String, String>> getStatisticsAsync(
+            final SortArgWrapper builder) {
         String queryString = "?";
         List<String> queries = new ArrayList<>();
 
@@ -160,10 +412,8 @@ public class LogClient {
 
         queryString += String.join("&", queries);
 
-        HttpResponse<String> response =
-            this.get("/api/v1/entries/stats" + queryString);
-
-        return getResponseHashMap(response);
+        return this.getAsync("/api/v1/entries/stats" + queryString)
+            .thenApplyAsync(LogClient::getResponseHashMap, this.executor);
     }
 
     /**
@@ -183,6 +433,18 @@ public class LogClient {
             final SortArgWrapper builder)
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
+        return await(this.getChartDataAsync(builder));
+    }
+
+    /**
+     * Gets data to build a statistical chart without blocking.
+     *
+     * @param builder a listBuilder instance.
+     * @return A promise of the chart data.
+     * @see #getChartData(SortArgWrapper)
+     */
+    public CompletableFuture<HashMap<String, String>> getChartDataAsync(
+            final SortArgWrapper builder) {
         String queryString = "?";
 
         List<String> queries = new ArrayList<>();
@@ -191,22 +453,98 @@ public class LogClient {
 
         queryString += String.join("&", queries);
 
-        HttpResponse<String> response =
-            this.get("/api/v1/entries/chart" + queryString);
+        return this.getAsync("/api/v1/entries/chart" + queryString)
+            .thenApplyAsync(LogClient::getResponseHashMap, this.executor);
+    }
 
-        return getResponseHashMap(response);
+    /**
+     * Gets the statistics, the chart data and the log entries of a screen
+     * in one request, computed by the server in one pass over its entries.
+     * The statistics and entries are filtered by the category of the
+     * builder, the chart counts every category, and the entries are
+     * sorted as the builder says.
+     *
+     * @param builder The query string builder to generate a query string
+     *                for filtering and sorting. The date is required.
+     * @return The statistics, chart data and log entries.
+     * @throws URISyntaxException      If the query entries ruin
+     *                                 the query string syntax.
+     * @throws InterruptedException    If the request was interrupted
+     *                                 before retrieving the http response.
+     * @throws ExecutionException      If the request completed exceptionally.
+     * @throws ServerResponseException
+     * If there was an error with the server response.
+     */
+    public Dashboard getDashboard(final SortArgWrapper builder)
+            throws URISyntaxException, InterruptedException,
+            ExecutionException, ServerResponseException {
+        return await(this.getDashboardAsync(builder));
     }
 
-    private HashMap<String, String> getResponseHashMap(
-            final HttpResponse<String> response) {
-        JSONObject jsonObject = new JSONObject(response.body());
+    /**
+     * Gets the statistics and the chart data of a screen, and the log
+     * entries only if asked for, in one request. A screen not showing the
+     * entries saves downloading them.
+     *
+     * @param builder     The query string builder to generate a query
+     *                    string for filtering and sorting. The date is
+     *                    required.
+     * @param withEntries Whether to get the log entries as well.
+     * @return The statistics, chart data and log entries, which are
+     * empty if not asked for.
+     * @throws URISyntaxException      If the query entries ruin
+     *                                 the query string syntax.
+     * @throws InterruptedException    If the request was interrupted
+     *                                 before retrieving the http response.
+     * @throws ExecutionException      If the request completed exceptionally.
+     * @throws ServerResponseException
+     * If there was an error with the server response.
+     */
+    public Dashboard getDashboard(final SortArgWrapper builder,
+                                  final boolean withEntries)
+            throws URISyntaxException, InterruptedException,
+            ExecutionException, ServerResponseException {
+        return await(this.getDashboardAsync(builder, withEntries));
+    }
 
-        HashMap<String, String> responseHash =
-            new HashMap<>();
-        jsonObject.keySet().forEach(x ->
-            responseHash.put(x, jsonObject.getString(x)));
+    /**
+     * Gets the statistics, the chart data and the log entries of a screen
+     * in one request without blocking.
+     *
+     * @param builder The query string builder to generate a query string
+     *                for filtering and sorting. The date is required.
+     * @return A promise of the statistics, chart data and log entries.
+     * @see #getDashboard(SortArgWrapper)
+     */
+    public CompletableFuture<Dashboard> getDashboardAsync(
+            final SortArgWrapper builder) {
+        return this.getDashboardAsync(builder, true);
+    }
 
-        return responseHash;
+    /**
+     * Gets the statistics and the chart data of a screen, and the log
+     * entries only if asked for, in one request without blocking.
+     *
+     * @param builder     The query string builder to generate a query
+     *                    string for filtering and sorting. The date is
+     *                    required.
+     * @param withEntries Whether to get the log entries as well.
+     * @return A promise of the statistics, chart data and log entries.
+     * @see #getDashboard(SortArgWrapper, boolean)
+     */
+    public CompletableFuture<Dashboard> getDashboardAsync(
+            final SortArgWrapper builder, final boolean withEntries) {
+        String query = listQuery(builder) + (withEntries ? "" : "&e=false");
+        return this.getAsync("/api/v1/entries/dashboard" + query)
+            .thenApplyAsync(response -> {
+                JSONObject json = new JSONObject(response);
+                return new Dashboard(
+                    toHashMap(json.getJSONObject("statistics")),
+                    toHashMap(json.getJSONObject("chart")),
+                    json.has("entries")
+                        ? toHashMapList(json.getJSONArray("entries"))
+                        : List.of());
+            }, this.executor);
     }
 
     /**
@@ -220,16 +558,72 @@ public class LogClient {
      * @throws ExecutionException      If the request completed exceptionally.
      * @throws ServerResponseException
      * If there was an error with the server response.
-     * @return the entry id.
+     * @return the entry id, or null if the server was unreachable and
+     * the entry was queued.
      */
     public String addLogEntry(final HashMap<String, String> entry)
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
+        return await(this.addLogEntryAsync(entry));
+    }
+
+    /**
+     * Adds a log entry on the server without blocking. While the server
+     * is unreachable the entry is queued, to be sent by
+     * {@link #replayPendingAsync()}.
+     *
+     * @param entry HashMap representing the log entry to add.
+     * @return A promise of the entry id, or of null if the server was
+     * unreachable and the entry was queued.
+     * @see #addLogEntry(HashMap)
+     */
+    public CompletableFuture<String> addLogEntryAsync(
+            final HashMap<String, String> entry) {
         JSONObject payload = new JSONObject(entry);
-        HttpResponse<String> response = this.post(
-            "/api/v1/entries/add", payload.toString());
 
-        return new JSONObject(response.body()).getString("id");
+        return this.queueIfOffline(
+            this.postAsync("/api/v1/entries/add", payload.toString())
+                .thenApplyAsync(response ->
+                    new JSONObject(response).getString("id"), this.executor),
+            ClientCache.PendingWrite.add(entry));
+    }
+
+    /**
+     * Adds a log entry on the server through the typed API.
+     *
+     * @param entry The log entry to add. Its id is ignored.
+     * @return the entry id, or null if the server was unreachable and
+     * the entry was queued.
+     * @throws URISyntaxException      If the query entries ruin
+     *                                 the query string syntax.
+     * @throws InterruptedException    If the request was interrupted
+     *                                 before retrieving the http response.
+     * @throws ExecutionException      If the request completed exceptionally.
+     * @throws ServerResponseException
+     * If there was an error with the server response.
+     */
+    public String addEntry(final EntryRecord entry)
+            throws URISyntaxException, InterruptedException,
+            ExecutionException, ServerResponseException {
+        return await(this.addEntryAsync(entry));
+    }
+
+    /**
+     * Adds a log entry on the server through the typed API without
+     * blocking. While the server is unreachable the entry is queued like
+     * one added with {@link #addLogEntryAsync(HashMap)}.
+     *
+     * @param entry The log entry to add. Its id is ignored.
+     * @return A promise of the entry id, or of null if the server was
+     * unreachable and the entry was queued.
+     * @see #addEntry(EntryRecord)
+     */
+    public CompletableFuture<String> addEntryAsync(final EntryRecord entry) {
+        return this.queueIfOffline(
+            this.postAsync("/api/v2/entries/add", entry.toJson().toString())
+                .thenApplyAsync(response ->
+                    new JSONObject(response).getString("id"), this.executor),
+            ClientCache.PendingWrite.add(entry.toHash()));
     }
 
     /**
@@ -248,27 +642,53 @@ public class LogClient {
     public HashMap<String, List<String>> getExerciseCategories()
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
-        HttpResponse<String> response =
-            this.get("/api/v1/entries/filters");
-
-        JSONObject jsonObject = new JSONObject(response.body())
-            .getJSONObject("categories");
-        HashMap<String, List<String>> categories = new HashMap<>();
-
-        jsonObject.keySet().forEach(x -> {
-            JSONArray array = jsonObject.getJSONArray(x);
-            List<String> list = new ArrayList<>();
-
-            array.forEach(y -> list.add(y.toString()));
+        return await(this.getExerciseCategoriesAsync());
+    }
 
-            categories.put(x, list);
-        });
+    /**
+     * Retrieves the exercise categories from the server without blocking.
+     * They are constant, so they are only fetched once for the lifetime
+     * of this client, or again if fetching them failed.
+     *
+     * @return A promise of the exercise categories represented as a hash map.
+     * @see #getExerciseCategories()
+     */
+    public CompletableFuture<HashMap<String, List<String>>>
+            getExerciseCategoriesAsync() {
+        CompletableFuture<HashMap<String, List<String>>> loaded;
+        synchronized (this) {
+            if (this.categories == null
+                    || this.categories.isCompletedExceptionally()) {
+                this.categories = this.fetchExerciseCategories();
+            }
+            loaded = this.categories;
+        }
+        return loaded.thenApply(HashMap::new);
+    }
 
-        return categories;
+    /**
+     * Fetches the exercise categories from the server,
+     * saving them to the cache if one is used.
+     *
+     * @return A promise of the exercise categories represented as a hash map.
+     */
+    private CompletableFuture<HashMap<String, List<String>>>
+            fetchExerciseCategories() {
+        return this.getAsync("/api/v1/entries/filters")
+            .thenApplyAsync(response -> {
+                HashMap<String, List<String>> categories =
+                    getCategories(response);
+                ClientCache current = this.cache;
+                if (current != null) {
+                    saveQuietly(() -> current.saveCategories(categories));
+                }
+                return categories;
+            }, this.executor);
     }
 
     /**
-     * Deletes a log entry on the server.
+     * Deletes a log entry on the server. Returns without error if the
+     * server was unreachable and the deletion was queued.
      *
      * @param id The id of the log entry to delete.
      * @throws URISyntaxException      If the query entries ruin
@@ -282,55 +702,386 @@ public class LogClient {
     public void deleteLogEntry(final String id)
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
-        this.post("/api/v1/entries/remove/" + id, "");
+        await(this.deleteLogEntryAsync(id));
     }
 
     /**
-     * Elementary asynchronous get request.
+     * Deletes a log entry on the server without blocking. While the
+     * server is unreachable the deletion is queued, to be sent by
+     * {@link #replayPendingAsync()}.
      *
-     * @param endpoint Where to send the request to.
-     * @return The Http response promise.
-     * @throws URISyntaxException If the URI syntax is incorrect.
+     * @param id The id of the log entry to delete.
+     * @return A promise that completes, with null, when the entry is
+     * deleted, or when the server was unreachable and the deletion was
+     * queued.
+     * @see #deleteLogEntry(String)
      */
-    private CompletableFuture<HttpResponse<String>> getAsync(
-            final String endpoint)
-            throws URISyntaxException {
-        HttpClient client = HttpClient.newBuilder()
-            .build();
-
-        HttpRequest request = HttpRequest.newBuilder()
-            .GET()
-            .uri(new URI(this.url + ":" + this.port + endpoint))
-            .build();
+    public CompletableFuture<Void> deleteLogEntryAsync(final String id) {
+        return this.queueIfOffline(
+            this.postAsync("/api/v1/entries/remove/" + id, "")
+                .thenApply(response -> null),
+            ClientCache.PendingWrite.remove(id));
+    }
 
-        return client.sendAsync(request, BodyHandlers.ofString());
+    /**
+     * Sends the writes queued while the server was unreachable, oldest
+     * first. Stops at the first write that still can not reach the
+     * server. Writes the server rejects are dropped.
+     *
+     * @return A promise of the number of writes that were sent.
+     */
+    public CompletableFuture<Integer> replayPendingAsync() {
+        ClientCache current = this.cache;
+        if (current == null) {
+            return CompletableFuture.completedFuture(0);
+        }
+        synchronized (this) {
+            if (this.replay == null || this.replay.isDone()) {
+                this.replay = this.replayFrom(current, 0);
+            }
+            return this.replay;
+        }
     }
 
     /**
-     * Elementary synchronous get request.
+     * Brings the local copy of the entries up to date, fetching only the
+     * entries added and removed since it was last synced. Everything is
+     * fetched on the first sync, or when the server restarted since.
      *
-     * @param endpoint Where to send the request to.
-     * @return The Http response.
-     * @throws URISyntaxException      If the query entries ruin
-     *                                 the query string syntax.
-     * @throws InterruptedException    If the request was interrupted
-     *                                 before retrieving the http response.
+     * @return the entries represented by hash maps, by id.
+     * @throws URISyntaxException      If the URI syntax is incorrect.
+     * @throws InterruptedException
+     * If the request was interrupted before retrieving the http response.
      * @throws ExecutionException      If the request completed exceptionally.
      * @throws ServerResponseException
      * If there was an error with the server response.
      */
-    private HttpResponse<String> get(final String endpoint)
+    public HashMap<String, HashMap<String, String>> syncEntries()
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
-        HttpResponse<String> response = this.getAsync(endpoint).get();
+        return await(this.syncEntriesAsync());
+    }
 
-        if (response.statusCode() != OK_CODE) {
-            throw new ServerResponseException(
-                HttpResponses.getResponseText(response.statusCode()),
-                response.statusCode());
+    /**
+     * Brings the local copy of the entries up to date without blocking.
+     *
+     * @return A promise of the entries represented by hash maps, by id.
+     * @see #syncEntries()
+     */
+    public CompletableFuture<HashMap<String, HashMap<String, String>>>
+            syncEntriesAsync() {
+        return this.getAsync(this.replica.sinceEndpoint())
+            .thenApplyAsync(response -> {
+                this.replica.apply(response);
+                ClientCache current = this.cache;
+                if (current != null) {
+                    saveQuietly(() -> this.replica.saveTo(current));
+                }
+                return this.replica.getEntries();
+            }, this.executor);
+    }
+
+    /**
+     * @return the local copy of the entries, as of the last sync.
+     */
+    public EntryReplica getReplica() {
+        return this.replica;
+    }
+
+    /**
+     * Subscribes to the server's feed of entry additions and removals.
+     * Changes after the given sequence number are replayed first, and a
+     * RESET change arrives instead if they can no longer be replayed.
+     * The listener runs on the threads of this client.
+     *
+     * @param since    the last sequence number already seen,
+     *                 or a negative number to only receive new changes.
+     * @param listener receives the changes.
+     * @return the subscription, to be closed when no longer needed.
+     */
+    public ChangeSubscription subscribeChanges(final long since,
+            final Consumer<EntryChange> listener) {
+        ChangeSubscription subscription =
+            new ChangeSubscription(listener, since);
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                .GET()
+                .header("Accept", "text/event-stream")
+                .uri(new URI(this.url + ":" + this.port
+                    + "/api/v1/entries/changes?since=" + since))
+                .build();
+        } catch (URISyntaxException e) {
+            subscription.onError(e);
+            return subscription;
+        }
+
+        HttpResponse.BodyHandler<Void> handler = info ->
+            info.statusCode() == OK_CODE
+                ? BodySubscribers.fromLineSubscriber(subscription)
+                : BodySubscribers.replacing(null);
+
+        this.httpClient.sendAsync(request, handler)
+            .whenComplete((response, exception) -> {
+                if (exception != null) {
+                    subscription.onError(exception);
+                } else if (response.statusCode() != OK_CODE) {
+                    subscription.onError(new ServerResponseException(
+                        HttpResponses.getResponseText(response.statusCode()),
+                        response.statusCode()));
+                }
+            });
+
+        return subscription;
+    }
+
+    /**
+     * Sends queued writes one at a time.
+     *
+     * @param current the cache holding the queued writes.
+     * @param sent    the number of writes sent so far.
+     * @return A promise of the number of writes that were sent.
+     */
+    private CompletableFuture<Integer> replayFrom(final ClientCache current,
+                                                  final int sent) {
+        ClientCache.PendingWrite write = current.peekPending();
+        if (write == null) {
+            return CompletableFuture.completedFuture(sent);
+        }
+
+        CompletableFuture<String> request =
+            ClientCache.PendingWrite.ADD.equals(write.type())
+                ? this.postAsync("/api/v1/entries/add",
+                    new JSONObject(write.entry()).toString())
+                : this.postAsync("/api/v1/entries/remove/" + write.id(), "");
+
+        return request
+            .handle((response, exception) ->
+                exception == null || !isUnreachable(exception))
+            .thenComposeAsync(delivered -> {
+                if (!delivered) {
+                    return CompletableFuture.completedFuture(sent);
+                }
+                saveQuietly(() -> current.removePending(write));
+                return this.replayFrom(current, sent + 1);
+            }, this.executor);
+    }
+
+    /**
+     * Queues a write in the cache if its request could not reach the
+     * server, completing the request with null instead of failing.
+     * Without a cache the request is left as it is.
+     *
+     * @param request the request of the write.
+     * @param write   the write to queue.
+     * @param <T>     the type of the request result.
+     * @return The promise of the request result, null if queued.
+     */
+    private <T> CompletableFuture<T> queueIfOffline(
+            final CompletableFuture<T> request,
+            final ClientCache.PendingWrite write) {
+        ClientCache current = this.cache;
+        if (current == null) {
+            return request;
+        }
+
+        return request.handle((result, exception) -> {
+            if (exception == null) {
+                return result;
+            }
+            if (!isUnreachable(exception)) {
+                throw exception instanceof CompletionException
+                    ? (CompletionException) exception
+                    : new CompletionException(exception);
+            }
+            try {
+                current.queue(write);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            if (write.id() != null) {
+                this.replica.forget(write.id());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks whether a request failed without reaching the server,
+     * so sending it again can not apply it twice.
+     *
+     * @param exception what the request failed with.
+     * @return true if no connection could be made.
+     */
+    private static boolean isUnreachable(final Throwable exception) {
+        Throwable cause = exception instanceof CompletionException
+            && exception.getCause() != null
+            ? exception.getCause() : exception;
+        return cause instanceof ConnectException
+            || cause instanceof HttpConnectTimeoutException;
+    }
+
+    /**
+     * Writes to the cache, ignoring failures. A cache that can not be
+     * written only costs the next startup its head start.
+     *
+     * @param save the write.
+     */
+    private static void saveQuietly(final CacheWrite save) {
+        try {
+            save.run();
+        } catch (IOException ignored) { }
+    }
+
+    /**
+     * A write to the cache.
+     */
+    @FunctionalInterface
+    private interface CacheWrite {
+        /**
+         * Writes to the cache.
+         *
+         * @throws IOException if the cache could not be written.
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Parses a flat JSON object of strings.
+     *
+     * @param response The JSON string to parse.
+     * @return The object represented by a hash map.
+     */
+    private static HashMap<String, String> getResponseHashMap(
+            final String response) {
+        return toHashMap(new JSONObject(response));
+    }
+
+    /**
+     * Converts a JSON object of strings.
+     *
+     * @param jsonObject The JSON object.
+     * @return The keys and values of the object.
+     */
+    private static HashMap<String, String> toHashMap(
+            final JSONObject jsonObject) {
+        HashMap<String, String> responseHash =
+            new HashMap<>();
+        jsonObject.keySet().forEach(x ->
+            responseHash.put(x, jsonObject.getString(x)));
+
+        return responseHash;
+    }
+
+    /**
+     * Parses a list response.
+     *
+     * @param response The JSON string to parse.
+     * @return The log entries represented by hash maps.
+     */
+    private static List<HashMap<String, String>> getResponseList(
+            final String response) {
+        return toHashMapList(
+            new JSONObject(response).getJSONArray("entries"));
+    }
+
+    /**
+     * Converts a JSON array of log entries.
+     *
+     * @param array The JSON array.
+     * @return The log entries represented by hash maps.
+     */
+    private static List<HashMap<String, String>> toHashMapList(
+            final JSONArray array) {
+        List<HashMap<String, String>> responseList =
+            new ArrayList<>();
+
+        array.forEach(x -> {
+            JSONObject entry = (JSONObject) x;
+            HashMap<String, String> entryHash = new HashMap<>();
+
+            entry.keySet().forEach(y -> entryHash.put(y, entry.getString(y)));
+
+            responseList.add(entryHash);
+        });
+
+        return responseList;
+    }
+
+    /**
+     * Parses a filters response.
+     *
+     * @param response The JSON string to parse.
+     * @return The subcategories of each category.
+     */
+    private static HashMap<String, List<String>> getCategories(
+            final String response) {
+        JSONObject jsonObject = new JSONObject(response)
+            .getJSONObject("categories");
+        HashMap<String, List<String>> categories = new HashMap<>();
+
+        jsonObject.keySet().forEach(x -> {
+            JSONArray array = jsonObject.getJSONArray(x);
+            List<String> list = new ArrayList<>();
+
+            array.forEach(y -> list.add(y.toString()));
+
+            categories.put(x, list);
+        });
+
+        return categories;
+    }
+
+    /**
+     * Elementary asynchronous get request. Sends the entity tag of the
+     * last response from the endpoint, if there is one, and reuses the
+     * last response body when the server reports it as not modified.
+     *
+     * @param endpoint Where to send the request to.
+     * @return The promise of the response body. Completes exceptionally
+     * with a ServerResponseException if there was an error with the server
+     * response, or a URISyntaxException if the URI syntax is incorrect.
+     */
+    private CompletableFuture<String> getAsync(final String endpoint) {
+        CachedResponse cached;
+        synchronized (this.responseCache) {
+            cached = this.responseCache.get(endpoint);
+        }
+
+        HttpRequest.Builder request;
+        try {
+            request = HttpRequest.newBuilder()
+                .GET()
+                .timeout(this.requestTimeout)
+                .uri(new URI(this.url + ":" + this.port + endpoint));
+        } catch (URISyntaxException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (cached != null) {
+            request.header("If-None-Match", cached.etag);
         }
 
-        return response;
+        return this.httpClient.sendAsync(
+                request.build(), BodyHandlers.ofString())
+            .thenApply(response -> {
+                if (response.statusCode() == NOT_MODIFIED_CODE
+                        && cached != null) {
+                    return cached.body;
+                }
+
+                checkResponse(response);
+
+                response.headers().firstValue("ETag").ifPresent(etag -> {
+                    synchronized (this.responseCache) {
+                        this.responseCache.put(endpoint,
+                            new CachedResponse(etag, response.body()));
+                    }
+                });
+
+                return response.body();
+            });
     }
 
     /**
@@ -338,50 +1089,103 @@ public class LogClient {
      *
      * @param endpoint Where to send the requests to.
      * @param payload  Where to send to the server.
-     * @return The Http response promise.
-     * @throws URISyntaxException If the URI syntax is incorrect.
+     * @return The promise of the response body. Completes exceptionally
+     * with a ServerResponseException if there was an error with the server
+     * response, or a URISyntaxException if the URI syntax is incorrect.
      */
-    private CompletableFuture<HttpResponse<String>> postAsync(
+    private CompletableFuture<String> postAsync(
             final String endpoint,
-            final String payload)
-            throws URISyntaxException {
-        HttpClient client = HttpClient.newBuilder()
-            .build();
+            final String payload) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .timeout(this.requestTimeout)
+                .uri(new URI(this.url + ":" + this.port + endpoint))
+                .build();
+        } catch (URISyntaxException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        HttpRequest request = HttpRequest.newBuilder()
-            .POST(HttpRequest.BodyPublishers.ofString(payload))
-            .uri(new URI(this.url + ":" + this.port + endpoint))
-            .build();
+        return this.httpClient.sendAsync(request, BodyHandlers.ofString())
+            .thenApply(response -> {
+                checkResponse(response);
+                return response.body();
+            });
+    }
 
-        return client.sendAsync(request, BodyHandlers.ofString());
+    /**
+     * Checks the status of a response.
+     *
+     * @param response The response to check.
+     * @throws CompletionException
+     * Wrapping a ServerResponseException if the status is not OK.
+     */
+    private static void checkResponse(final HttpResponse<String> response)
+            throws CompletionException {
+        if (response.statusCode() != OK_CODE) {
+            throw new CompletionException(new ServerResponseException(
+                HttpResponses.getResponseText(response.statusCode()),
+                response.statusCode()));
+        }
     }
 
-    /***
-     * Elementary synchronous post request.
-     * @param endpoint Where to send the request to.
-     * @param payload What to send to the server.
-     * @throws URISyntaxException If the URI syntax is incorrect.
-     * @throws InterruptedException
-     * If the underlying asynchronous request was interrupted before retrieval.
-     * @throws ExecutionException
-     * If the underlying asynchronous request completed exceptionally.
+    /**
+     * Waits for an asynchronous request, unwrapping the exceptions
+     * the synchronous methods declare.
+     *
+     * @param future The request promise to wait for.
+     * @param <T>    The result type.
+     * @return The result of the request.
+     * @throws URISyntaxException      If the URI syntax is incorrect.
+     * @throws InterruptedException    If the request was interrupted
+     *                                 before retrieving the http response.
+     * @throws ExecutionException      If the request completed exceptionally.
      * @throws ServerResponseException
      * If there was an error with the server response.
-     * @return the entry id.
      */
-    private HttpResponse<String> post(
-            final String endpoint,
-            final String payload)
+    private static <T> T await(final CompletableFuture<T> future)
             throws URISyntaxException, InterruptedException,
             ExecutionException, ServerResponseException {
-        HttpResponse<String> response = this.postAsync(endpoint, payload).get();
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ServerResponseException) {
+                throw (ServerResponseException) cause;
+            } else if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
 
-        if (response.statusCode() != OK_CODE) {
-            throw new ServerResponseException(
-                    HttpResponses.getResponseText(response.statusCode()),
-                    response.statusCode());
+    /**
+     * A response body together with the entity tag it was sent with.
+     */
+    private static final class CachedResponse {
+        /**
+         * The entity tag of the response.
+         */
+        private final String etag;
+        /**
+         * The body of the response.
+         */
+        private final String body;
+
+        /**
+         * Wraps a response for later reuse.
+         *
+         * @param responseEtag the entity tag of the response.
+         * @param responseBody the body of the response.
+         */
+        private CachedResponse(final String responseEtag,
+                               final String responseBody) {
+            this.etag = responseEtag;
+            this.body = responseBody;
         }
-        return response;
     }
 
     /**
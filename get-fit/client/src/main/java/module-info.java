@@ -2,6 +2,7 @@ module client {
 
     requires java.net.http;
     requires org.json;
+    requires localpersistence;
 
     exports client;
 }
@@ -7,18 +7,32 @@ import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestClient {
@@ -93,6 +107,43 @@ public class TestClient {
         }
     }
 
+    @Test
+    public void testTypedEntries() {
+        String body =
+                "{\"id\": \"0\",\"title\": \"Example title\",\"date\": \"2021-10-25\",\"duration\": 3600,\"feeling\": 7,\"exerciseCategory\": \"STRENGTH\",\"exerciseSubCategory\": \"PULL\",\"distance\": 3.5,\"maxHeartRate\": null,\"comment\": null}";
+        stubFor(get(urlEqualTo("/api/v2/entries/0"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(body)));
+        stubFor(get(urlEqualTo("/api/v2/entries/list?r=false"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"entries\": [" + body + "]}")));
+        stubFor(post(urlEqualTo("/api/v2/entries/add"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": \"1\"}")));
+        try {
+            EntryRecord entry = logClient.getEntry("0");
+            assertEquals(3600, entry.duration());
+            assertEquals(7, entry.feeling());
+            assertEquals(3.5, entry.distance());
+            assertNull(entry.maxHeartRate());
+            assertNull(entry.comment());
+            assertEquals("null", entry.toHash().get("comment"));
+
+            assertEquals(List.of(entry),
+                    logClient.getEntries(new SortArgWrapper()));
+            assertEquals("1", logClient.addEntry(entry));
+            WireMock.verify(postRequestedFor(
+                    urlEqualTo("/api/v2/entries/add"))
+                    .withRequestBody(containing("\"duration\":3600")));
+        } catch (URISyntaxException | InterruptedException | ExecutionException | ServerResponseException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
     @Test
     public void testGetExerciseCategory() {
         String body =
@@ -103,7 +154,11 @@ public class TestClient {
                         .withHeader("Content-Type", "application/json")
                         .withBody(body)));
         try {
-            logClient.getExerciseCategories();
+            HashMap<String, List<String>> categories =
+                    logClient.getExerciseCategories();
+            assertEquals(categories, logClient.getExerciseCategories());
+            WireMock.verify(1, getRequestedFor(
+                    urlEqualTo("/api/v1/entries/filters")));
         } catch (URISyntaxException | InterruptedException | ExecutionException | ServerResponseException e) {
             e.printStackTrace();
             fail();
@@ -175,6 +230,171 @@ public class TestClient {
     }
 
 
+    @Test
+    public void testAsyncRequests() {
+        String url = "/api/v1/entries/chart?d=2021-01-01-2021-09-09";
+        stubFor(get(urlEqualTo(url))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"running\": \"3\"}")));
+        stubFor(get(urlEqualTo("/api/v1/entries/1"))
+                .willReturn(aResponse().withStatus(404)));
+
+        SortArgWrapper builder = new SortArgWrapper()
+                .date("2021-01-01-2021-09-09");
+
+        CompletableFuture<String> running = logClient
+                .getChartDataAsync(builder)
+                .thenApply(chart -> chart.get("running"));
+        assertEquals("3", running.join());
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> logClient.getLogEntryAsync("1").get());
+        assertTrue(exception.getCause() instanceof ServerResponseException);
+        assertEquals(404,
+                ((ServerResponseException) exception.getCause()).getCode());
+        assertThrows(ServerResponseException.class,
+                () -> logClient.getLogEntry("1"));
+    }
+
+    @Test
+    public void testSubscribeChanges() {
+        String events = "id:4\nevent:add\n"
+                + "data:{\"seq\":4,\"id\":\"3\",\"entry\":{\"id\":\"3\",\"title\":\"Run\"}}\n\n"
+                + ":keep-alive\n\n"
+                + "id:5\nevent:remove\ndata:{\"seq\":5,\"id\":\"2\"}\n\n";
+        stubFor(get(urlEqualTo("/api/v1/entries/changes?since=3"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "text/event-stream")
+                        .withBody(events)));
+
+        List<EntryChange> changes = new CopyOnWriteArrayList<>();
+        ChangeSubscription subscription =
+                logClient.subscribeChanges(3, changes::add);
+        subscription.getCompletion().join();
+
+        assertEquals(2, changes.size());
+        assertEquals(EntryChange.Type.ADD, changes.get(0).getType());
+        assertEquals("3", changes.get(0).getId());
+        assertEquals("Run", changes.get(0).getEntry().get("title"));
+        assertEquals(EntryChange.Type.REMOVE, changes.get(1).getType());
+        assertEquals("2", changes.get(1).getId());
+        assertEquals(5, subscription.getLastSequence());
+
+        stubFor(get(urlEqualTo("/api/v1/entries/changes?since=-1"))
+                .willReturn(aResponse().withStatus(404)));
+        CompletableFuture<Void> refused =
+                logClient.subscribeChanges(-1, changes::add).getCompletion();
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                refused::get);
+        assertTrue(exception.getCause() instanceof ServerResponseException);
+    }
+
+    @Test
+    public void testSyncEntries() {
+        stubFor(get(urlEqualTo("/api/v1/entries/since/0?epoch="))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"epoch\":\"e1\",\"version\":5,"
+                                + "\"reset\":true,\"removed\":[],\"added\":["
+                                + "{\"id\":\"1\",\"title\":\"Run\"},"
+                                + "{\"id\":\"2\",\"title\":\"Swim\"}]}")));
+        stubFor(get(urlEqualTo("/api/v1/entries/since/5?epoch=e1"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"epoch\":\"e1\",\"version\":7,"
+                                + "\"reset\":false,\"removed\":[\"1\"],"
+                                + "\"added\":[{\"id\":\"3\",\"title\":\"Lift\"}]}")));
+
+        try {
+            HashMap<String, HashMap<String, String>> entries =
+                    logClient.syncEntries();
+            assertEquals(2, entries.size());
+            assertEquals("Swim", entries.get("2").get("title"));
+
+            entries = logClient.syncEntries();
+            assertEquals(2, entries.size());
+            assertFalse(entries.containsKey("1"));
+            assertEquals("Lift", entries.get("3").get("title"));
+            assertEquals(7, logClient.getReplica().getVersion());
+            assertEquals("e1", logClient.getReplica().getEpoch());
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void testCacheQueuesWritesWhileOffline(@TempDir Path cacheDir) {
+        stubFor(get(urlEqualTo("/api/v1/entries/filters"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"categories\": {\"running\": [\"short\"]}}")));
+        stubFor(post(urlEqualTo("/api/v1/entries/add"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":\"7\"}")));
+        HashMap<String, String> entry = new HashMap<>();
+        entry.put("title", "Offline run");
+
+        try {
+            logClient.useCache(cacheDir);
+            HashMap<String, List<String>> categories =
+                    logClient.getExerciseCategories();
+
+            LogClient offline = new LogClient("http://localhost", 1);
+            offline.useCache(cacheDir);
+            assertEquals(categories, offline.getCachedCategories());
+            assertNull(offline.addLogEntry(entry));
+            assertEquals(1, offline.getCache().pendingCount());
+            offline.close();
+
+            LogClient online =
+                    new LogClient("http://localhost", mockServer.port());
+            online.useCache(cacheDir);
+            assertEquals(1, online.replayPendingAsync().get());
+            assertEquals(0, online.getCache().pendingCount());
+            online.close();
+            WireMock.verify(1, postRequestedFor(
+                    urlEqualTo("/api/v1/entries/add")));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testNotModifiedReusesResponse() {
+        String body =
+                "{\"swimming\": \"2\",\"running\": \"3\",\"strength\": \"0\",\"cycling\": \"2\"}";
+        String url = "/api/v1/entries/chart?d=2021-01-01-2021-09-09";
+        stubFor(get(urlEqualTo(url))
+                .withHeader("If-None-Match", absent())
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("ETag", "\"abc-1\"")
+                        .withBody(body)));
+        stubFor(get(urlEqualTo(url))
+                .withHeader("If-None-Match", equalTo("\"abc-1\""))
+                .willReturn(aResponse().withStatus(304)
+                        .withHeader("ETag", "\"abc-1\"")));
+
+        SortArgWrapper builder = new SortArgWrapper()
+                .date("2021-01-01-2021-09-09");
+
+        try {
+            HashMap<String, String> first = logClient.getChartData(builder);
+            HashMap<String, String> second = logClient.getChartData(builder);
+            assertEquals(first, second);
+            assertEquals("3", second.get("running"));
+            mockServer.verify(1, getRequestedFor(urlEqualTo(url))
+                    .withHeader("If-None-Match", equalTo("\"abc-1\"")));
+        } catch (URISyntaxException | InterruptedException |
+                ExecutionException | ServerResponseException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
     @Test
     public void testDeleteLogEntry() {
         stubFor(post(urlEqualTo("/api/v1/entries/remove/0"))
@@ -216,6 +436,7 @@ public class TestClient {
 
     @AfterEach
     public void stopWireMockServer() {
+        logClient.close();
         mockServer.stop();
     }
 
@@ -7,6 +7,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -14,6 +17,11 @@ import java.util.stream.Stream;
  * Provides management for EntryLogs.
  */
 public final class EntryManager implements Iterable<LogEntry> {
+    /**
+     * Maximum amount of removals remembered for giving changes.
+     */
+    private static final int MAX_TOMBSTONES = 4096;
+
     /**
      * Hashmap of LogEntries.
      */
@@ -24,6 +32,37 @@ public final class EntryManager implements Iterable<LogEntry> {
      */
     private int idHashPosition = 0;
 
+    /**
+     * Modification counter, incremented on every add and remove.
+     */
+    private long version = 0;
+
+    /**
+     * Identifies the history of versions of this EntryManager,
+     * as versions restart when the entries are loaded anew.
+     */
+    private final String epoch = UUID.randomUUID().toString();
+
+    /**
+     * The version each entry was added at, by id.
+     */
+    private final HashMap<String, Long> entryVersions = new HashMap<>();
+
+    /**
+     * Ids of the entries, by the version they were added at.
+     */
+    private final TreeMap<Long, String> additions = new TreeMap<>();
+
+    /**
+     * Ids of removed entries, by the version they were removed at.
+     */
+    private final TreeMap<Long, String> tombstones = new TreeMap<>();
+
+    /**
+     * The oldest version changes can be given since.
+     */
+    private long horizon = 0;
+
     /**
      * An entry manager instance is a wrapper for a list of logEntries.
      * Functions as the API interface for the core-module.
@@ -41,11 +80,32 @@ public final class EntryManager implements Iterable<LogEntry> {
     public static void fromHash(
             final HashMap<String, HashMap<String, String>> map,
             final EntryManager entryManager) {
+        LocalDate today = LocalDate.now();
         for (Entry<String, HashMap<String, String>> entryEntry
                 : map.entrySet()) {
             entryManager.updateHashPosition(
                     Integer.parseInt(entryEntry.getKey()));
-            LogEntry entry = LogEntry.fromHash(entryEntry.getValue());
+            LogEntry entry = LogEntry.fromHash(entryEntry.getValue(), today);
+            entryManager.addEntry(entryEntry.getKey(), entry);
+        }
+    }
+
+    /**
+     * Updates a provided EntryManager with the LogEntries represented
+     * in the HashMap, without validating them. Only for maps from a
+     * trusted source, such as entries this application saved itself.
+     *
+     * @param map          The map representing the LogEntries to add.
+     * @param entryManager The EntryManager to update.
+     */
+    public static void fromTrustedHash(
+            final HashMap<String, HashMap<String, String>> map,
+            final EntryManager entryManager) {
+        for (Entry<String, HashMap<String, String>> entryEntry
+                : map.entrySet()) {
+            entryManager.updateHashPosition(
+                    Integer.parseInt(entryEntry.getKey()));
+            LogEntry entry = LogEntry.fromTrustedHash(entryEntry.getValue());
             entryManager.addEntry(entryEntry.getKey(), entry);
         }
     }
@@ -87,6 +147,9 @@ public final class EntryManager implements Iterable<LogEntry> {
 
         entry.setId(id);
         this.entryMap.put(id, entry);
+        this.version++;
+        this.entryVersions.put(id, this.version);
+        this.additions.put(this.version, id);
         updateHashPosition(Integer.parseInt(id));
     }
 
@@ -134,7 +197,63 @@ public final class EntryManager implements Iterable<LogEntry> {
             throw new IllegalArgumentException("Arguments cannot be null");
         }
 
-        return entryMap.remove(id) != null;
+        if (entryMap.remove(id) != null) {
+            this.version++;
+            this.additions.remove(this.entryVersions.remove(id));
+            this.tombstones.put(this.version, id);
+            if (this.tombstones.size() > MAX_TOMBSTONES) {
+                this.horizon = this.tombstones.pollFirstEntry().getKey();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the modification counter of this EntryManager. It changes
+     * exactly when an entry is added or removed, so anything derived from
+     * the entries can be considered current as long as the version is equal.
+     *
+     * @return the current version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return the identifier of the history of versions of this
+     * EntryManager.
+     */
+    public String getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Gives the entries added and the ids of the entries removed after a
+     * version. If the changes can not be given, because the version is
+     * from another epoch, is ahead, or is older than the removals
+     * remembered, every entry is given as added and the delta is marked
+     * as a reset.
+     *
+     * @param sinceEpoch the epoch the version is from.
+     * @param since      the version to give the changes after.
+     * @return the changes.
+     */
+    public Delta changesSince(final String sinceEpoch, final long since) {
+        if (!this.epoch.equals(sinceEpoch)
+                || since < this.horizon || since > this.version) {
+            return new Delta(this.epoch, this.version, true,
+                    List.copyOf(this.entryMap.values()), List.of());
+        }
+
+        List<LogEntry> added = this.additions.tailMap(since, false)
+                .values()
+                .stream()
+                .map(this.entryMap::get)
+                .collect(Collectors.toList());
+        List<String> removed =
+                List.copyOf(this.tombstones.tailMap(since, false).values());
+        return new Delta(this.epoch, this.version, false, added, removed);
     }
 
     /**
@@ -170,6 +289,20 @@ public final class EntryManager implements Iterable<LogEntry> {
         return this.entryMap.values().iterator();
     }
 
+    /**
+     * Changes to an EntryManager after a version. Removals are to be
+     * applied before additions, as a removed id may have been added again.
+     *
+     * @param epoch   the epoch of the EntryManager.
+     * @param version the version of the EntryManager after the changes.
+     * @param reset   whether the changes are every entry, replacing all
+     *                entries known from before.
+     * @param added   the entries added.
+     * @param removed the ids of the entries removed.
+     */
+    public record Delta(String epoch, long version, boolean reset,
+                        List<LogEntry> added, List<String> removed) { }
+
     /**
      * Builder for LogEntry iterator.
      */
@@ -180,6 +313,16 @@ public final class EntryManager implements Iterable<LogEntry> {
          */
         private Stream<LogEntry> logEntryStream;
 
+        /**
+         * The order of the entries, applied when they are listed.
+         */
+        private final Comparator<LogEntry> comparator;
+
+        /**
+         * Flight Recorder event of the query.
+         */
+        private final QueryEvent event;
+
         /**
          * Builder for a sorted iterator of this EntryManager's LogEntries.
          *
@@ -196,7 +339,7 @@ public final class EntryManager implements Iterable<LogEntry> {
                         "Sort configuration cannot be null.");
             }
 
-            Comparator<LogEntry> comparator = switch (sortConfiguration) {
+            this.comparator = switch (sortConfiguration) {
                 case DATE -> Comparator.comparing(LogEntry::getDate);
                 case DURATION -> Comparator.comparing(LogEntry::getDuration);
                 case TITLE -> Comparator.comparing(LogEntry::getTitle);
@@ -204,8 +347,9 @@ public final class EntryManager implements Iterable<LogEntry> {
 
             this.logEntryStream = entryManager.entryMap
                     .values()
-                    .stream()
-                    .sorted(comparator);
+                    .stream();
+            this.event = new QueryEvent(
+                    sortConfiguration, entryManager.entryMap.size());
         }
 
         /**
@@ -221,6 +365,7 @@ public final class EntryManager implements Iterable<LogEntry> {
             if (category == null) {
                 throw new IllegalArgumentException("Category cannot be null.");
             }
+            this.event.addFilter("category", category);
 
             this.logEntryStream = this.logEntryStream
                     .filter((entry) -> entry
@@ -243,6 +388,7 @@ public final class EntryManager implements Iterable<LogEntry> {
                 throw new IllegalArgumentException(
                         "Subcategory cannot be null.");
             }
+            this.event.addFilter("subcategory", subcategory);
 
             this.logEntryStream = this.logEntryStream.filter(
                 (entry) -> {
@@ -271,6 +417,8 @@ public final class EntryManager implements Iterable<LogEntry> {
             if (firstDate == null || lastDate == null) {
                 throw new IllegalArgumentException("Dates cannot be null.");
             }
+            this.event.addFilter("from", firstDate);
+            this.event.addFilter("to", lastDate);
 
             this.logEntryStream = this.logEntryStream.filter(
                 (entry) -> {
@@ -293,14 +441,46 @@ public final class EntryManager implements Iterable<LogEntry> {
          * @return an iterator of LogEntries.
          */
         public Iterator<LogEntry> iterator(final boolean reverse) {
+            return list(reverse).iterator();
+        }
+
+        /**
+         * Builds the sorted list, for callers that need its size.
+         *
+         * @param reverse reverses order if set to true.
+         * @return a list of LogEntries.
+         */
+        public List<LogEntry> list(final boolean reverse) {
+            this.event.begin();
             List<LogEntry> entryList = this.logEntryStream
+                    .sorted(this.comparator)
                     .collect(Collectors.toList());
 
             if (reverse) {
                 Collections.reverse(entryList);
             }
+            this.event.finish(reverse, entryList.size());
 
-            return entryList.iterator();
+            return entryList;
+        }
+
+        /**
+         * Passes the filtered entries to an action in an arbitrary order,
+         * without sorting or collecting them, for callers that only
+         * aggregate them.
+         *
+         * @param action the action to pass each entry to.
+         * @return the amount of entries passed.
+         */
+        public int forEach(final Consumer<? super LogEntry> action) {
+            this.event.begin();
+            int count = this.logEntryStream.mapToInt(entry -> {
+                action.accept(entry);
+                return 1;
+            }).sum();
+            this.event.finish(false, count);
+
+            return count;
         }
     }
 }
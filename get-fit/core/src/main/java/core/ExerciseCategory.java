@@ -1,5 +1,7 @@
 package core;
 
+import java.util.Set;
+
 public enum ExerciseCategory {
     /**
      * Represents strength exercise.
@@ -23,6 +25,11 @@ public enum ExerciseCategory {
      */
     private final Subcategory[] subcategories;
 
+    /**
+     * The subcategories, for membership checks without copying the array.
+     */
+    private final Set<Subcategory> subcategorySet;
+
     /**
      * Populates the subcategories array.
      *
@@ -30,6 +37,17 @@ public enum ExerciseCategory {
      */
     ExerciseCategory(final Subcategory[] subcategoriesArray) {
         this.subcategories = subcategoriesArray;
+        this.subcategorySet = Set.of(subcategoriesArray);
+    }
+
+    /**
+     * Checks whether a subcategory belongs to this category.
+     *
+     * @param subcategory the subcategory to check.
+     * @return true if the subcategory is one of this category's.
+     */
+    public boolean hasSubcategory(final Subcategory subcategory) {
+        return this.subcategorySet.contains(subcategory);
     }
 
     /**
@@ -2,8 +2,9 @@ package core;
 
 import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * A logEntry instance represents a single workout-entry internally.
@@ -28,6 +29,11 @@ public final class LogEntry {
      * The min heart rate of a human being.
      */
     public static final int MINHEARTRATEHUMAN = 20;
+    /**
+     * Every subcategory by its name, built once.
+     */
+    private static final Map<String, Subcategory> SUBCATEGORIES =
+            subcategoriesByName();
     /**
      * Title of LogEntry.
      */
@@ -120,10 +126,15 @@ public final class LogEntry {
      * <b>maxHeartRate</b> must either be null or be between 40 and 480 <br>
      * <br>
      *
+     * A valid builder gets the shared {@link Validity#OK},
+     * so validating allocates nothing unless the builder is invalid.
+     *
      * @param builder the builder to validate.
+     * @param today   the latest date allowed.
      * @return true if builder is valid, otherwise false.
      */
-    private static Validity validate(final EntryBuilder builder) {
+    private static Validity validate(final EntryBuilder builder,
+                                     final LocalDate today) {
 
         /* Required fields. */
         if (builder.ctitle == null || builder.ctitle.length() < 1) {
@@ -132,7 +143,7 @@ public final class LogEntry {
                     "Title cannot be empty or null");
         }
 
-        if (builder.cdate == null || builder.cdate.isAfter(LocalDate.now())) {
+        if (builder.cdate == null || builder.cdate.isAfter(today)) {
 
             return new Validity(false,
                     "Date cannot be after now or null");
@@ -149,7 +160,7 @@ public final class LogEntry {
                 || builder.cfeeling < LogEntry.MINFEELING) {
 
             return new Validity(false,
-                    String.format("Feeling must be between %i and %i",
+                    String.format("Feeling must be between %d and %d",
                             LogEntry.MAXFEELING,
                             LogEntry.MINFEELING));
         }
@@ -168,8 +179,8 @@ public final class LogEntry {
         }
 
         if (builder.cexerciseSubCategory != null
-                && (Arrays.stream(builder.cexerciseCategory.getSubcategories())
-                .noneMatch(builder.cexerciseSubCategory::equals))) {
+                && !builder.cexerciseCategory.hasSubcategory(
+                        builder.cexerciseSubCategory)) {
 
             return new Validity(false,
                     "Subcategory must be part of exercise category");
@@ -192,7 +203,7 @@ public final class LogEntry {
                             LogEntry.MINHEARTRATEHUMAN));
         }
 
-        return new Validity(true, "ok");
+        return Validity.OK;
     }
 
     /**
@@ -202,22 +213,27 @@ public final class LogEntry {
      * @return The actual subcategory or null if no match.
      */
     public static Subcategory stringToSubcategory(final String category) {
-        Subcategory subCategory = null;
+        if (category == null) {
+            return null;
+        }
+        return SUBCATEGORIES.get(category);
+    }
 
-        outerLoop:
+    /**
+     * Maps the subcategories of every exercise category by their name.
+     * A name shared by several categories maps to the same subcategory,
+     * the one of the first category.
+     *
+     * @return an immutable map of the subcategories by name.
+     */
+    private static Map<String, Subcategory> subcategoriesByName() {
+        Map<String, Subcategory> subcategories = new HashMap<>();
         for (ExerciseCategory exCategory : ExerciseCategory.values()) {
             for (Subcategory sub : exCategory.getSubcategories()) {
-                try {
-                    subCategory = sub.getValueOf(category);
-                    if (subCategory != null) {
-                        break outerLoop;
-                    }
-                } catch (Exception e) {
-                    // NEQ
-                }
+                subcategories.putIfAbsent(sub.toString(), sub);
             }
         }
-        return subCategory;
+        return Map.copyOf(subcategories);
     }
 
     /**
@@ -226,39 +242,71 @@ public final class LogEntry {
      * @return the parsed logEntry.
      */
     public static LogEntry fromHash(final HashMap<String, String> map) {
-        String title = map.get("title");
-        LocalDate date = LocalDate.parse(map.get("date"));
+        return fromHash(map, LocalDate.now());
+    }
+
+    /**
+     * Parses a hashMap to create a logEntry, with the current date given,
+     * so a batch of entries can share it.
+     * @param map   the map.
+     * @param today the latest date allowed.
+     * @return the parsed logEntry.
+     */
+    public static LogEntry fromHash(final HashMap<String, String> map,
+                                    final LocalDate today) {
+        return builderFrom(map::get).build(today);
+    }
+
+    /**
+     * Parses a hashMap to create a logEntry without validating it.
+     * Only for maps from a trusted source, such as entries this
+     * application saved itself, which were validated when created.
+     * @param map the map.
+     * @return the parsed logEntry.
+     */
+    public static LogEntry fromTrustedHash(final HashMap<String, String> map) {
+        return builderFrom(map::get).buildTrusted();
+    }
+
+    /**
+     * Parses the string represented fields of a logEntry into a builder,
+     * in the format of {@link #toHash()}.
+     * @param field gives the value of a field by its name.
+     * @return the builder.
+     */
+    static EntryBuilder builderFrom(final Function<String, String> field) {
+        String title = field.apply("title");
+        LocalDate date = LocalDate.parse(field.apply("date"));
         String comment = null;
         Double distance = null;
         Integer maxHeartRate = null;
 
-        int feeling = Integer.parseInt(map.get("feeling"));
+        int feeling = Integer.parseInt(field.apply("feeling"));
 
-        if (!map.get("distance").equals("null")) {
-            distance = Double.parseDouble(map.get("distance"));
+        if (!field.apply("distance").equals("null")) {
+            distance = Double.parseDouble(field.apply("distance"));
         }
-        if (!map.get("maxHeartRate").equals("null")) {
-            maxHeartRate = Integer.parseInt(map.get("maxHeartRate"));
+        if (!field.apply("maxHeartRate").equals("null")) {
+            maxHeartRate = Integer.parseInt(field.apply("maxHeartRate"));
         }
-        if (!map.get("comment").equals("null")) {
-            comment = map.get("comment");
+        if (!field.apply("comment").equals("null")) {
+            comment = field.apply("comment");
         }
 
         Duration duration =
-                Duration.ofSeconds(Long.parseLong(map.get("duration")));
+                Duration.ofSeconds(Long.parseLong(field.apply("duration")));
 
         ExerciseCategory category =
-                ExerciseCategory.valueOf(map.get("exerciseCategory"));
+                ExerciseCategory.valueOf(field.apply("exerciseCategory"));
 
         Subcategory subCategory =
-                stringToSubcategory(map.get("exerciseSubCategory"));
+                stringToSubcategory(field.apply("exerciseSubCategory"));
 
         return new EntryBuilder(title, date, duration, category, feeling)
                     .comment(comment)
                     .distance(distance)
                     .exerciseSubCategory(subCategory)
-                    .maxHeartRate(maxHeartRate)
-                    .build();
+                    .maxHeartRate(maxHeartRate);
     }
 
     /**
@@ -287,6 +335,8 @@ public final class LogEntry {
 
     /**
      * Represents this LogEntry as a hashmap with values converted to strings.
+     * To write the LogEntry as JSON, {@link LogEntryJson} writes the same
+     * fields without building the map.
      *
      * @return The hashMap representing this LogEntry.
      */
@@ -550,7 +600,21 @@ public final class LogEntry {
          * @see #validate
          */
         public LogEntry build() throws IllegalArgumentException {
-            Validity valid = validate(this);
+            return build(LocalDate.now());
+        }
+
+        /**
+         * Constructs the LogEntry object, with the current date given,
+         * so a batch of entries can share it.
+         *
+         * @param today the latest date allowed.
+         * @return the LogEntry.
+         * @throws IllegalArgumentException if any of the arguments are invalid.
+         * @see #validate
+         */
+        public LogEntry build(final LocalDate today)
+                throws IllegalArgumentException {
+            Validity valid = validate(this, today);
 
             if (valid.invalid()) {
                 throw new IllegalArgumentException(valid.reason());
@@ -558,5 +622,16 @@ public final class LogEntry {
                 return new LogEntry(this);
             }
         }
+
+        /**
+         * Constructs the LogEntry object without validating it. Only for
+         * entries from a trusted source, such as entries this application
+         * saved itself, which were validated when created.
+         *
+         * @return the LogEntry.
+         */
+        public LogEntry buildTrusted() {
+            return new LogEntry(this);
+        }
     }
 }
@@ -0,0 +1,780 @@
+package core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+
+/**
+ * Writes LogEntries as JSON and reads them back, streaming the fields
+ * straight to and from text instead of through the hash maps of
+ * {@link LogEntry#toHash()}. The plain JSON is the one of the hash maps:
+ * every value is a string, and an absent optional field is "null".
+ * The typed JSON has numbers as JSON numbers and absent optional fields
+ * as JSON null, or left out.
+ */
+public final class LogEntryJson {
+    /**
+     * The fields of a LogEntry, in the order they are written.
+     */
+    private static final String[] FIELDS = {
+        "date", "duration", "distance", "exerciseSubCategory", "comment",
+        "id", "feeling", "title", "exerciseCategory", "maxHeartRate"};
+    /**
+     * The fields of a LogEntry, in the order they are written as typed JSON.
+     */
+    private static final String[] TYPED_FIELDS = {
+        "id", "title", "date", "duration", "feeling", "exerciseCategory",
+        "exerciseSubCategory", "distance", "maxHeartRate", "comment"};
+    /**
+     * Characters below this are escaped in strings.
+     */
+    private static final char FIRST_PRINTABLE = 0x20;
+    /**
+     * Radix of a unicode escape.
+     */
+    private static final int HEX = 16;
+    /**
+     * Digits of a unicode escape.
+     */
+    private static final int ESCAPE_DIGITS = 4;
+    /**
+     * How deep the arrays and objects of an ignored field may nest.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Hidden constructor to simulate static class.
+     */
+    private LogEntryJson() { }
+
+    /**
+     * Gives a LogEntry as a JSON string.
+     *
+     * @param entry the LogEntry.
+     * @return the JSON object of the entry.
+     */
+    public static String toJson(final LogEntry entry) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            write(entry, builder);
+        } catch (IOException e) {
+            // A StringBuilder does not throw.
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes a LogEntry as a JSON object. The id is left out if not set.
+     *
+     * @param entry the LogEntry.
+     * @param out   where to write the JSON.
+     * @throws IOException if out could not be written.
+     */
+    public static void write(final LogEntry entry, final Appendable out)
+            throws IOException {
+        out.append('{');
+        for (int i = 0; i < FIELDS.length; i++) {
+            String value = field(entry, FIELDS[i], "null");
+            if (value == null) {
+                continue;
+            }
+            if (i > 0) {
+                out.append(',');
+            }
+            quote(FIELDS[i], out);
+            out.append(':');
+            quote(value, out);
+        }
+        out.append('}');
+    }
+
+    /**
+     * Gives a LogEntry as a typed JSON string.
+     *
+     * @param entry the LogEntry.
+     * @return the typed JSON object of the entry.
+     */
+    public static String toTypedJson(final LogEntry entry) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            writeTyped(entry, builder);
+        } catch (IOException e) {
+            // A StringBuilder does not throw.
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes a LogEntry as a typed JSON object. The id is left out if
+     * not set.
+     *
+     * @param entry the LogEntry.
+     * @param out   where to write the JSON.
+     * @throws IOException if out could not be written.
+     */
+    public static void writeTyped(final LogEntry entry, final Appendable out)
+            throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (String name : TYPED_FIELDS) {
+            String value = field(entry, name, null);
+            if (value == null && name.equals("id")) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            quote(name, out);
+            out.append(':');
+            if (value == null) {
+                out.append("null");
+            } else if (isNumber(name)) {
+                out.append(value);
+            } else {
+                quote(value, out);
+            }
+            first = false;
+        }
+        out.append('}');
+    }
+
+    /**
+     * Writes LogEntries as a JSON array of typed JSON objects.
+     *
+     * @param entries the LogEntries, in the order to write them.
+     * @param out     where to write the JSON.
+     * @throws IOException if out could not be written.
+     */
+    public static void writeTypedArray(final Iterator<LogEntry> entries,
+                                       final Appendable out)
+            throws IOException {
+        out.append('[');
+        boolean first = true;
+        while (entries.hasNext()) {
+            if (!first) {
+                out.append(',');
+            }
+            writeTyped(entries.next(), out);
+            first = false;
+        }
+        out.append(']');
+    }
+
+    /**
+     * Writes LogEntries as a JSON array.
+     *
+     * @param entries the LogEntries, in the order to write them.
+     * @param out     where to write the JSON.
+     * @throws IOException if out could not be written.
+     */
+    public static void writeArray(final Iterator<LogEntry> entries,
+                                  final Appendable out) throws IOException {
+        out.append('[');
+        boolean first = true;
+        while (entries.hasNext()) {
+            if (!first) {
+                out.append(',');
+            }
+            write(entries.next(), out);
+            first = false;
+        }
+        out.append(']');
+    }
+
+    /**
+     * Writes every LogEntry of an EntryManager as a JSON object of the
+     * entries by id, the format entries are saved in.
+     *
+     * @param entryManager the EntryManager.
+     * @param out          where to write the JSON.
+     * @throws IOException if out could not be written.
+     */
+    public static void writeAll(final EntryManager entryManager,
+                                final Appendable out) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (LogEntry entry : entryManager) {
+            if (!first) {
+                out.append(',');
+            }
+            quote(entry.getId(), out);
+            out.append(':');
+            write(entry, out);
+            first = false;
+        }
+        out.append('}');
+    }
+
+    /**
+     * Writes a string as a JSON string, quoted and escaped.
+     *
+     * @param value the string.
+     * @param out   where to write the JSON.
+     * @throws IOException if out could not be written.
+     */
+    public static void quote(final String value, final Appendable out)
+            throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= FIRST_PRINTABLE) {
+                continue;
+            }
+            out.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                default -> out.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        out.append(value, start, value.length());
+        out.append('"');
+    }
+
+    /**
+     * Parses and validates a LogEntry from a JSON string.
+     *
+     * @param json the JSON object of the entry.
+     * @return the LogEntry, without an id.
+     * @throws IllegalArgumentException if the JSON is malformed,
+     *                                  or the entry is invalid.
+     */
+    public static LogEntry parse(final String json)
+            throws IllegalArgumentException {
+        try {
+            return read(new StringReader(json));
+        } catch (IOException e) {
+            // A StringReader does not throw.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads and validates a LogEntry from a JSON object. Fields other
+     * than those of a LogEntry are ignored.
+     *
+     * @param in where to read the JSON from.
+     * @return the LogEntry, without an id.
+     * @throws IOException              if in could not be read.
+     * @throws IllegalArgumentException if the JSON is malformed,
+     *                                  or the entry is invalid.
+     */
+    public static LogEntry read(final Reader in)
+            throws IOException, IllegalArgumentException {
+        Cursor cursor = new Cursor(in);
+        String[] values = readFields(cursor, false);
+        cursor.end();
+        return builder(values, false).build(LocalDate.now());
+    }
+
+    /**
+     * Parses and validates a LogEntry from a typed JSON string.
+     *
+     * @param json the typed JSON object of the entry.
+     * @return the LogEntry, without an id.
+     * @throws IllegalArgumentException if the JSON is malformed,
+     *                                  or the entry is invalid.
+     */
+    public static LogEntry parseTyped(final String json)
+            throws IllegalArgumentException {
+        try {
+            return readTyped(new StringReader(json));
+        } catch (IOException e) {
+            // A StringReader does not throw.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads and validates a LogEntry from a typed JSON object. Fields
+     * other than those of a LogEntry are ignored, and optional fields
+     * may be left out.
+     *
+     * @param in where to read the JSON from.
+     * @return the LogEntry, without an id.
+     * @throws IOException              if in could not be read.
+     * @throws IllegalArgumentException if the JSON is malformed,
+     *                                  or the entry is invalid.
+     */
+    public static LogEntry readTyped(final Reader in)
+            throws IOException, IllegalArgumentException {
+        Cursor cursor = new Cursor(in);
+        String[] values = readFields(cursor, true);
+        cursor.end();
+        return builder(values, true).build(LocalDate.now());
+    }
+
+    /**
+     * Reads LogEntries saved by {@link #writeAll} into an EntryManager.
+     * The entries were validated before they were saved, so they are not
+     * validated again.
+     *
+     * @param in           where to read the JSON from.
+     * @param entryManager the EntryManager to add the entries to.
+     * @throws IOException              if in could not be read.
+     * @throws IllegalArgumentException if the JSON is malformed.
+     */
+    public static void readAll(final Reader in,
+                               final EntryManager entryManager)
+            throws IOException, IllegalArgumentException {
+        Cursor cursor = new Cursor(in);
+        cursor.expect('{');
+        if (!cursor.skip('}')) {
+            do {
+                String id = cursor.string();
+                cursor.expect(':');
+                LogEntry entry =
+                    builder(readFields(cursor, false), false).buildTrusted();
+                try {
+                    entryManager.updateHashPosition(Integer.parseInt(id));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Malformed id " + id);
+                }
+                entryManager.addEntry(id, entry);
+            } while (cursor.skip(','));
+            cursor.expect('}');
+        }
+        cursor.end();
+    }
+
+    /**
+     * Gives a field of a LogEntry as a string.
+     *
+     * @param entry  the LogEntry.
+     * @param name   the name of the field.
+     * @param absent what to give for an absent optional field.
+     * @return the field, absent if it is, or null for an unset id.
+     */
+    private static String field(final LogEntry entry, final String name,
+                                final String absent) {
+        return switch (name) {
+            case "date" -> entry.getDate().toString();
+            case "duration" -> Long.toString(entry.getDuration().toSeconds());
+            case "distance" -> entry.getDistance() == null
+                ? absent : Double.toString(entry.getDistance());
+            case "exerciseSubCategory" -> entry.getExerciseSubCategory() == null
+                ? absent : entry.getExerciseSubCategory().toString();
+            case "comment" -> entry.getComment() == null
+                ? absent : entry.getComment();
+            case "id" -> entry.getId();
+            case "feeling" -> Integer.toString(entry.getFeeling());
+            case "title" -> entry.getTitle();
+            case "exerciseCategory" -> entry.getExerciseCategory().toString();
+            default -> entry.getMaxHeartRate() == null
+                ? absent : Integer.toString(entry.getMaxHeartRate());
+        };
+    }
+
+    /**
+     * @param name the name of a field.
+     * @return true if the field is a number in typed JSON.
+     */
+    private static boolean isNumber(final String name) {
+        return switch (name) {
+            case "duration", "feeling", "distance", "maxHeartRate" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * @param name the name of a field.
+     * @return true if the field may be absent.
+     */
+    private static boolean isOptional(final String name) {
+        return switch (name) {
+            case "comment", "distance", "maxHeartRate",
+                "exerciseSubCategory" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Reads the fields of a JSON object of a LogEntry. Values of fields
+     * other than those of a LogEntry are skipped, whatever their type.
+     *
+     * @param cursor where to read the JSON from.
+     * @param typed  whether the JSON is typed.
+     * @return the fields by their index in {@link #FIELDS},
+     * null for fields that are absent.
+     * @throws IOException              if the JSON could not be read.
+     * @throws IllegalArgumentException if the JSON is malformed.
+     */
+    private static String[] readFields(final Cursor cursor,
+                                       final boolean typed)
+            throws IOException, IllegalArgumentException {
+        String[] values = new String[FIELDS.length];
+        cursor.expect('{');
+        if (cursor.skip('}')) {
+            return values;
+        }
+        do {
+            String name = cursor.string();
+            cursor.expect(':');
+            int field = -1;
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (FIELDS[i].equals(name)) {
+                    field = i;
+                    break;
+                }
+            }
+            if (field < 0) {
+                cursor.skipValue(0);
+            } else {
+                values[field] = typed
+                    ? cursor.scalar(isNumber(name)) : cursor.string();
+            }
+        } while (cursor.skip(','));
+        cursor.expect('}');
+        return values;
+    }
+
+    /**
+     * Parses read fields into a builder.
+     *
+     * @param values the fields by their index in {@link #FIELDS}.
+     * @param typed  whether the fields were read from typed JSON, where
+     *               optional fields may be absent.
+     * @return the builder.
+     * @throws IllegalArgumentException if a field is missing or malformed.
+     */
+    private static LogEntry.EntryBuilder builder(final String[] values,
+                                                 final boolean typed)
+            throws IllegalArgumentException {
+        try {
+            return LogEntry.builderFrom(name -> {
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (FIELDS[i].equals(name) && values[i] != null) {
+                        return values[i];
+                    }
+                }
+                if (typed && isOptional(name)) {
+                    return "null";
+                }
+                throw new IllegalArgumentException("Missing field " + name);
+            });
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Malformed entry", e);
+        }
+    }
+
+    /**
+     * Reads JSON tokens one character at a time.
+     */
+    private static final class Cursor {
+        /**
+         * Where the JSON is read from.
+         */
+        private final Reader in;
+        /**
+         * The next character, or -1 at the end.
+         */
+        private int next;
+
+        /**
+         * Starts reading.
+         *
+         * @param reader where to read the JSON from.
+         * @throws IOException if reader could not be read.
+         */
+        private Cursor(final Reader reader) throws IOException {
+            this.in = reader;
+            this.next = reader.read();
+        }
+
+        /**
+         * Skips whitespace, then a character if it is the next one.
+         *
+         * @param c the character.
+         * @return true if the character was skipped.
+         * @throws IOException if the JSON could not be read.
+         */
+        private boolean skip(final char c) throws IOException {
+            whitespace();
+            if (this.next != c) {
+                return false;
+            }
+            this.next = this.in.read();
+            return true;
+        }
+
+        /**
+         * Skips whitespace.
+         *
+         * @throws IOException if the JSON could not be read.
+         */
+        private void whitespace() throws IOException {
+            while (Character.isWhitespace(this.next)) {
+                this.next = this.in.read();
+            }
+        }
+
+        /**
+         * Skips whitespace, then a character that must be the next one.
+         *
+         * @param c the character.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if it is not the next one.
+         */
+        private void expect(final char c)
+                throws IOException, IllegalArgumentException {
+            if (!skip(c)) {
+                throw new IllegalArgumentException(
+                    "Malformed JSON, expected " + c);
+            }
+        }
+
+        /**
+         * Checks that only whitespace is left.
+         *
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if anything else is left.
+         */
+        private void end() throws IOException, IllegalArgumentException {
+            whitespace();
+            if (this.next != -1) {
+                throw new IllegalArgumentException(
+                    "Malformed JSON, trailing content");
+            }
+        }
+
+        /**
+         * Reads a JSON string.
+         *
+         * @return the unescaped string.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if it is not a string.
+         */
+        private String string() throws IOException, IllegalArgumentException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (this.next != '"') {
+                if (this.next == -1) {
+                    throw new IllegalArgumentException(
+                        "Malformed JSON, unterminated string");
+                }
+                if (this.next == '\\') {
+                    value.append(escaped());
+                } else {
+                    value.append((char) this.next);
+                }
+                this.next = this.in.read();
+            }
+            this.next = this.in.read();
+            return value.toString();
+        }
+
+        /**
+         * Reads a JSON string, number or null.
+         *
+         * @param number whether the value must be a number, rather than
+         *               a string.
+         * @return the unescaped string or the number as written,
+         * or null for JSON null.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if it is not of the type.
+         */
+        private String scalar(final boolean number)
+                throws IOException, IllegalArgumentException {
+            whitespace();
+            if (this.next == 'n') {
+                literal("null");
+                return null;
+            }
+            if (this.next == '"' && !number) {
+                return string();
+            }
+            if (!number || !(this.next == '-' || isDigit())) {
+                throw new IllegalArgumentException(
+                    "Malformed JSON, expected a "
+                    + (number ? "number" : "string"));
+            }
+            return number();
+        }
+
+        /**
+         * Reads a JSON number, following the JSON grammar: an optional
+         * minus, an integer part without leading zeros, then optionally
+         * a fraction and an exponent.
+         *
+         * @return the number as written.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if the number is malformed.
+         */
+        private String number() throws IOException, IllegalArgumentException {
+            StringBuilder value = new StringBuilder();
+            if (this.next == '-') {
+                take(value);
+            }
+            if (this.next == '0') {
+                take(value);
+            } else {
+                digits(value);
+            }
+            if (this.next == '.') {
+                take(value);
+                digits(value);
+            }
+            if (this.next == 'e' || this.next == 'E') {
+                take(value);
+                if (this.next == '+' || this.next == '-') {
+                    take(value);
+                }
+                digits(value);
+            }
+            return value.toString();
+        }
+
+        /**
+         * Reads one or more digits.
+         *
+         * @param value where to add the digits.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if there is no digit.
+         */
+        private void digits(final StringBuilder value)
+                throws IOException, IllegalArgumentException {
+            if (!isDigit()) {
+                throw new IllegalArgumentException(
+                    "Malformed JSON, expected a digit");
+            }
+            while (isDigit()) {
+                take(value);
+            }
+        }
+
+        /**
+         * @return true if the next character is an ASCII digit.
+         */
+        private boolean isDigit() {
+            return this.next >= '0' && this.next <= '9';
+        }
+
+        /**
+         * Adds the next character to a value, and reads the one after.
+         *
+         * @param value where to add the character.
+         * @throws IOException if the JSON could not be read.
+         */
+        private void take(final StringBuilder value) throws IOException {
+            value.append((char) this.next);
+            this.next = this.in.read();
+        }
+
+        /**
+         * Reads a word that must be next, such as true, false or null.
+         *
+         * @param word the word.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if the word is not next.
+         */
+        private void literal(final String word)
+                throws IOException, IllegalArgumentException {
+            for (char c : word.toCharArray()) {
+                if (this.next != c) {
+                    throw new IllegalArgumentException(
+                        "Malformed JSON, expected " + word);
+                }
+                this.next = this.in.read();
+            }
+        }
+
+        /**
+         * Skips a JSON value of any type, checking that it is well formed.
+         *
+         * @param depth how deep the value is nested in skipped values.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if the value is malformed, or
+         *                                  nested too deep.
+         */
+        private void skipValue(final int depth)
+                throws IOException, IllegalArgumentException {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalArgumentException(
+                    "Malformed JSON, nested too deep");
+            }
+            whitespace();
+            switch (this.next) {
+                case '"' -> string();
+                case 't' -> literal("true");
+                case 'f' -> literal("false");
+                case 'n' -> literal("null");
+                case '{' -> {
+                    expect('{');
+                    if (!skip('}')) {
+                        do {
+                            string();
+                            expect(':');
+                            skipValue(depth + 1);
+                        } while (skip(','));
+                        expect('}');
+                    }
+                }
+                case '[' -> {
+                    expect('[');
+                    if (!skip(']')) {
+                        do {
+                            skipValue(depth + 1);
+                        } while (skip(','));
+                        expect(']');
+                    }
+                }
+                default -> {
+                    if (this.next != '-' && !isDigit()) {
+                        throw new IllegalArgumentException(
+                            "Malformed JSON, expected a value");
+                    }
+                    number();
+                }
+            }
+        }
+
+        /**
+         * Reads the escape sequence starting at the next character,
+         * up to its last character.
+         *
+         * @return the escaped character.
+         * @throws IOException              if the JSON could not be read.
+         * @throws IllegalArgumentException if the escape is malformed.
+         */
+        private char escaped() throws IOException, IllegalArgumentException {
+            int c = this.in.read();
+            return switch (c) {
+                case '"', '\\', '/' -> (char) c;
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'u' -> {
+                    int code = 0;
+                    for (int i = 0; i < ESCAPE_DIGITS; i++) {
+                        int digit = Character.digit(this.in.read(), HEX);
+                        if (digit < 0) {
+                            throw new IllegalArgumentException(
+                                "Malformed JSON, bad unicode escape");
+                        }
+                        code = code * HEX + digit;
+                    }
+                    yield (char) code;
+                }
+                default -> throw new IllegalArgumentException(
+                    "Malformed JSON, bad escape");
+            };
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for building a sorted iterator of entries,
+ * telling which query was run and how many entries it went through.
+ * Costs close to nothing unless a recording enables it.
+ * Only those taking a millisecond or more are recorded by default.
+ */
+@Name("getfit.Query")
+@Label("Entry Query")
+@Category({"Get-Fit", "Query"})
+@Description("Sorting and filtering of entries")
+@StackTrace(false)
+@Threshold("1 ms")
+final class QueryEvent extends jdk.jfr.Event {
+    /**
+     * What the entries are sorted by.
+     */
+    @Label("Sort Key")
+    private String sortKey;
+
+    /**
+     * Whether the order is reversed.
+     */
+    @Label("Reversed")
+    private boolean reversed;
+
+    /**
+     * The filters applied, separated by commas.
+     */
+    @Label("Filters")
+    private String filters = "";
+
+    /**
+     * Entries before filtering.
+     */
+    @Label("Input Entries")
+    private int inputEntries;
+
+    /**
+     * Entries after filtering.
+     */
+    @Label("Output Entries")
+    private int outputEntries;
+
+    /**
+     * Creates the event of a query.
+     *
+     * @param sortConfiguration what the entries are sorted by.
+     * @param entries           entries before filtering.
+     */
+    QueryEvent(final SortConfiguration sortConfiguration, final int entries) {
+        if (isEnabled()) {
+            this.sortKey = sortConfiguration.name();
+            this.inputEntries = entries;
+        }
+    }
+
+    /**
+     * Adds a filter to the event, if it is enabled.
+     *
+     * @param name  what is filtered by.
+     * @param value the value filtered to.
+     */
+    void addFilter(final String name, final Object value) {
+        if (isEnabled()) {
+            this.filters = (this.filters.isEmpty() ? "" : this.filters + ",")
+                + name + "=" + value;
+        }
+    }
+
+    /**
+     * Ends the event, and commits it if it is enabled and took long
+     * enough.
+     *
+     * @param reverse whether the order was reversed.
+     * @param entries entries after filtering.
+     */
+    void finish(final boolean reverse, final int entries) {
+        end();
+        if (shouldCommit()) {
+            this.reversed = reverse;
+            this.outputEntries = entries;
+            commit();
+        }
+    }
+}
@@ -4,6 +4,10 @@ package core;
  * Validity of a EntryBuilder.
  */
 public class Validity {
+    /**
+     * The validity of a valid builder, shared as it carries no details.
+     */
+    public static final Validity OK = new Validity(true, "ok");
     /**
      * Whether the builder is valid.
      */
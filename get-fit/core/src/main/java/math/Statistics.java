@@ -37,9 +37,12 @@ public final class Statistics {
             final EntryManager entryManager,
             final String category,
             final String date) {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
         List<LogEntry> entries =
                 listFilteredByDates(entryManager, category, date);
 
+        event.finish("count", category, date, entries.size());
         return entries.size();
     }
 
@@ -55,6 +58,8 @@ public final class Statistics {
             final EntryManager entryManager,
             final String category,
             final String date) {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
         List<LogEntry> entries = listFilteredByDates(
                 entryManager, category, date);
 
@@ -63,6 +68,7 @@ public final class Statistics {
             sum += logEntry.getDuration().toSeconds();
         }
 
+        event.finish("totalDuration", category, date, entries.size());
         return sum;
     }
 
@@ -78,11 +84,14 @@ public final class Statistics {
             final EntryManager entryManager,
             final String category,
             final String date) {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
         List<LogEntry> entries = listFilteredByDates(
                 entryManager, category, date);
 
         double sum = getTotalDuration(entryManager, category, date);
 
+        event.finish("averageDuration", category, date, entries.size());
         return sum / entries.size();
     }
 
@@ -102,6 +111,8 @@ public final class Statistics {
             return 0.0;
         }
 
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
         List<LogEntry> entries = listFilteredByDates(
                 entryManager,
                 category,
@@ -117,6 +128,7 @@ public final class Statistics {
             }
         }
 
+        event.finish("averageSpeed", category, date, entries.size());
         if (distance == 0.0) {
             return 0.0;
         }
@@ -136,6 +148,8 @@ public final class Statistics {
             final EntryManager entryManager,
             final String category,
             final String date) {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
         List<LogEntry> entries = listFilteredByDates(
                 entryManager, category, date);
 
@@ -145,6 +159,7 @@ public final class Statistics {
             sum += logEntry.getFeeling();
         }
 
+        event.finish("averageFeeling", category, date, entries.size());
         return sum / entryManager.entryCount();
     }
 
@@ -160,14 +175,78 @@ public final class Statistics {
             final EntryManager entryManager,
             final String category,
             final String date) {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
         List<LogEntry> entries = listFilteredByDates(
                 entryManager, category, date);
 
-        return entries.stream()
+        int maximum = entries.stream()
             .map(LogEntry::getMaxHeartRate)
             .filter(Objects::nonNull)
             .max(Integer::compare)
             .orElse(0);
+        event.finish("maximumHr", category, date, entries.size());
+        return maximum;
+    }
+
+    /**
+     * Returns every statistic of a date interval, and the entries of a
+     * category in it, from a single pass over its entries.
+     *
+     * @param entryManager the entryManager to summarize.
+     * @param category     the category to filter the statistics and
+     *                     entries by, can be null.
+     * @param date         the date interval to filter by.
+     * @param sort         the order of the entries.
+     * @param reverse      whether to reverse the order.
+     * @return the summary.
+     * @throws IllegalArgumentException if the date or category is invalid.
+     */
+    public static StatisticsSummary summarize(
+            final EntryManager entryManager,
+            final String category,
+            final String date,
+            final SortConfiguration sort,
+            final boolean reverse) throws IllegalArgumentException {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
+        StatisticsSummary summary = new StatisticsSummary(
+            category == null ? null : ExerciseCategory.valueOf(category),
+            entryManager.entryCount(), true);
+        List<LogEntry> entries =
+            builderFilteredByDates(entryManager, date, sort).list(reverse);
+        entries.forEach(summary::add);
+
+        event.finish("summary", category, date, summary.getCount());
+        return summary;
+    }
+
+    /**
+     * Returns every statistic of a date interval from a single pass over
+     * its entries, without the entries themselves. The entries are
+     * neither sorted nor collected.
+     *
+     * @param entryManager the entryManager to summarize.
+     * @param category     the category to filter the statistics by, can
+     *                     be null.
+     * @param date         the date interval to filter by.
+     * @return the summary, without entries.
+     * @throws IllegalArgumentException if the date or category is invalid.
+     */
+    public static StatisticsSummary summarize(
+            final EntryManager entryManager,
+            final String category,
+            final String date) throws IllegalArgumentException {
+        StatisticsEvent event = new StatisticsEvent();
+        event.begin();
+        StatisticsSummary summary = new StatisticsSummary(
+            category == null ? null : ExerciseCategory.valueOf(category),
+            entryManager.entryCount(), false);
+        builderFilteredByDates(entryManager, date, SortConfiguration.DATE)
+            .forEach(summary::add);
+
+        event.finish("summary", category, date, summary.getCount());
+        return summary;
     }
 
     /**
@@ -181,20 +260,8 @@ public final class Statistics {
             final EntryManager entryManager,
             final String category,
             final String date) {
-        if (date.equals("null")) {
-            throw new IllegalArgumentException();
-        }
-
-        SortConfiguration sortConfiguration =
-                SortConfiguration.DATE;
-
         EntryManager.SortedIteratorBuilder iteratorBuilder =
-                new EntryManager.SortedIteratorBuilder(
-                        entryManager, sortConfiguration);
-
-        iteratorBuilder.filterTimeInterval(
-            LocalDate.parse(date.substring(0, DATE_LENGTH)),
-            LocalDate.parse(date.substring(DATE_LENGTH + 1)));
+            builderFilteredByDates(entryManager, date, SortConfiguration.DATE);
 
         if (category != null) {
             iteratorBuilder.filterExerciseCategory(
@@ -209,4 +276,29 @@ public final class Statistics {
 
         return entries;
     }
+
+    /**
+     * Returns a builder of entries filtered by date.
+     * @param entryManager The EntryManager to filter from
+     * @param date The date interval to filter by in yyyy-mm-dd-yy-mm-dd format.
+     * @param sort The order of the entries.
+     * @return The builder, to be filtered further or listed.
+     */
+    private static EntryManager.SortedIteratorBuilder builderFilteredByDates(
+            final EntryManager entryManager,
+            final String date,
+            final SortConfiguration sort) {
+        if (date.equals("null")) {
+            throw new IllegalArgumentException();
+        }
+
+        EntryManager.SortedIteratorBuilder iteratorBuilder =
+                new EntryManager.SortedIteratorBuilder(entryManager, sort);
+
+        iteratorBuilder.filterTimeInterval(
+            LocalDate.parse(date.substring(0, DATE_LENGTH)),
+            LocalDate.parse(date.substring(DATE_LENGTH + 1)));
+
+        return iteratorBuilder;
+    }
 }
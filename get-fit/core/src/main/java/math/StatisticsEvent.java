@@ -0,0 +1,67 @@
+package math;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a statistics computation, telling which
+ * statistic was computed over which entries. Costs close to nothing
+ * unless a recording enables it.
+ * Only those taking a millisecond or more are recorded by default.
+ */
+@Name("getfit.Statistics")
+@Label("Statistics")
+@Category({"Get-Fit", "Statistics"})
+@Description("Computation of a statistic over the entries")
+@StackTrace(false)
+@Threshold("1 ms")
+final class StatisticsEvent extends jdk.jfr.Event {
+    /**
+     * The statistic computed.
+     */
+    @Label("Statistic")
+    private String statistic;
+
+    /**
+     * The category filtered by, or null.
+     */
+    @Label("Category")
+    private String category;
+
+    /**
+     * The date interval filtered by.
+     */
+    @Label("Date Interval")
+    private String dateInterval;
+
+    /**
+     * Entries the statistic was computed over.
+     */
+    @Label("Entries")
+    private int entries;
+
+    /**
+     * Ends the event, and commits it if it is enabled and took long
+     * enough.
+     *
+     * @param name     the statistic computed.
+     * @param filter   the category filtered by, or null.
+     * @param date     the date interval filtered by.
+     * @param computed entries the statistic was computed over.
+     */
+    void finish(final String name, final String filter, final String date,
+                final int computed) {
+        end();
+        if (shouldCommit()) {
+            this.statistic = name;
+            this.category = filter;
+            this.dateInterval = date;
+            this.entries = computed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package math;
+
+import core.ExerciseCategory;
+import core.LogEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every statistic of a date interval, gathered in one pass over its
+ * entries: the statistics and entries of a category, and the entry count
+ * of every category. The statistics are those of the methods of
+ * Statistics, and are computed the same way.
+ */
+public final class StatisticsSummary {
+    /**
+     * The category summarized, or null for every category.
+     */
+    private final ExerciseCategory category;
+    /**
+     * Entries in the EntryManager, in any interval.
+     */
+    private final int entryTotal;
+    /**
+     * Entries of the category in the interval, in order, or null if the
+     * entries are not kept.
+     */
+    private final List<LogEntry> entries;
+    /**
+     * Count of entries of the category in the interval.
+     */
+    private int count = 0;
+    /**
+     * Entries in the interval per category.
+     */
+    private final Map<ExerciseCategory, Integer> categoryCounts =
+        new EnumMap<>(ExerciseCategory.class);
+    /**
+     * Total duration of the entries of the category, in seconds.
+     */
+    private double totalDuration = 0;
+    /**
+     * Total duration of the entries of the category with a distance,
+     * in whole minutes.
+     */
+    private double timedMinutes = 0;
+    /**
+     * Total distance of the entries of the category.
+     */
+    private double distance = 0;
+    /**
+     * Total feeling of the entries of the category.
+     */
+    private double feeling = 0;
+    /**
+     * Highest heart rate of the entries of the category.
+     */
+    private int maximumHr = 0;
+
+    /**
+     * Creates an empty summary.
+     *
+     * @param summarized the category summarized, or null for every
+     *                   category.
+     * @param total      entries in the EntryManager, in any interval.
+     * @param keep       whether to keep the entries of the category.
+     */
+    StatisticsSummary(final ExerciseCategory summarized, final int total,
+                      final boolean keep) {
+        this.category = summarized;
+        this.entryTotal = total;
+        this.entries = keep ? new ArrayList<>() : null;
+        for (ExerciseCategory each : ExerciseCategory.values()) {
+            this.categoryCounts.put(each, 0);
+        }
+    }
+
+    /**
+     * Adds an entry of the interval.
+     *
+     * @param entry the entry.
+     */
+    void add(final LogEntry entry) {
+        this.categoryCounts.merge(entry.getExerciseCategory(), 1,
+            Integer::sum);
+        if (this.category != null
+                && this.category != entry.getExerciseCategory()) {
+            return;
+        }
+
+        this.count++;
+        if (this.entries != null) {
+            this.entries.add(entry);
+        }
+        this.totalDuration += entry.getDuration().toSeconds();
+        this.feeling += entry.getFeeling();
+        if (entry.getDistance() != null) {
+            this.distance += entry.getDistance();
+            this.timedMinutes += entry.getDuration().toMinutes();
+        }
+        if (entry.getMaxHeartRate() != null) {
+            this.maximumHr = Math.max(this.maximumHr, entry.getMaxHeartRate());
+        }
+    }
+
+    /**
+     * @return the entries of the category in the interval, in the order
+     * asked for, or an empty list if the summary was made without them.
+     */
+    public List<LogEntry> getEntries() {
+        if (this.entries == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    /**
+     * @return the count of entries of the category, like
+     * {@link Statistics#getCount}.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @param counted the category to count.
+     * @return the count of entries of any category in the interval, for
+     * the chart.
+     */
+    public int getCategoryCount(final ExerciseCategory counted) {
+        return this.categoryCounts.get(counted);
+    }
+
+    /**
+     * @return the total duration in seconds, like
+     * {@link Statistics#getTotalDuration}.
+     */
+    public double getTotalDuration() {
+        return this.totalDuration;
+    }
+
+    /**
+     * @return the average duration in seconds, like
+     * {@link Statistics#getAverageDuration}.
+     */
+    public double getAverageDuration() {
+        return this.totalDuration / this.count;
+    }
+
+    /**
+     * @return the average speed in min/km, like
+     * {@link Statistics#getAverageSpeed}.
+     */
+    public double getAverageSpeed() {
+        if (this.category == null || this.distance == 0.0) {
+            return 0.0;
+        }
+        return this.timedMinutes / this.distance;
+    }
+
+    /**
+     * @return the average feeling, like
+     * {@link Statistics#getAverageFeeling}.
+     */
+    public double getAverageFeeling() {
+        return this.feeling / this.entryTotal;
+    }
+
+    /**
+     * @return the maximum heart rate, like {@link Statistics#getMaximumHr}.
+     */
+    public double getMaximumHr() {
+        return this.maximumHr;
+    }
+}
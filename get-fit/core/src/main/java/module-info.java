@@ -1,4 +1,6 @@
 module core {
+    requires jdk.jfr;
+
     exports core; 
     exports math; 
 }
@@ -1,12 +1,19 @@
 package core;
 
 import core.LogEntry.EntryBuilder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Iterator;
+import java.util.List;
 
 public class TestEntryManager {
 
@@ -92,6 +99,57 @@ public class TestEntryManager {
         Assertions.assertEquals(1, manager.entryCount());
     }
 
+    @Test
+    public void testVersion() {
+        EntryManager manager = genValidManager();
+        EntryBuilder builder = genValidBuilder(
+                ExerciseCategory.STRENGTH,
+                StrengthSubCategory.PUSH);
+        long initial = manager.getVersion();
+        String id = manager.addEntry(builder.build());
+        long afterAdd = manager.getVersion();
+        Assertions.assertTrue(afterAdd > initial);
+        manager.getEntry(id);
+        manager.removeEntry("does not exist");
+        Assertions.assertEquals(afterAdd, manager.getVersion());
+        manager.removeEntry(id);
+        Assertions.assertTrue(manager.getVersion() > afterAdd);
+    }
+
+    @Test
+    public void testChangesSince() {
+        EntryManager manager = genValidManager();
+        EntryBuilder builder = genValidBuilder(
+                ExerciseCategory.STRENGTH,
+                StrengthSubCategory.PUSH);
+        String first = manager.addEntry(builder.build());
+        String second = manager.addEntry(builder.build());
+        String epoch = manager.getEpoch();
+        long synced = manager.getVersion();
+
+        String third = manager.addEntry(builder.build());
+        manager.removeEntry(first);
+        EntryManager.Delta delta = manager.changesSince(epoch, synced);
+        Assertions.assertFalse(delta.reset());
+        Assertions.assertEquals(manager.getVersion(), delta.version());
+        Assertions.assertEquals(1, delta.added().size());
+        Assertions.assertEquals(third, delta.added().get(0).getId());
+        Assertions.assertEquals(List.of(first), delta.removed());
+
+        EntryManager.Delta current =
+                manager.changesSince(epoch, manager.getVersion());
+        Assertions.assertTrue(current.added().isEmpty());
+        Assertions.assertTrue(current.removed().isEmpty());
+
+        EntryManager.Delta reset = manager.changesSince("other", synced);
+        Assertions.assertTrue(reset.reset());
+        Assertions.assertEquals(2, reset.added().size());
+        Assertions.assertTrue(reset.added().stream()
+                .anyMatch(entry -> entry.getId().equals(second)));
+        Assertions.assertTrue(manager.changesSince(
+                epoch, manager.getVersion() + 1).reset());
+    }
+
     @Test
     public void testIterator() {
         EntryManager manager = genValidManager();
@@ -174,4 +232,37 @@ public class TestEntryManager {
 
         Assertions.assertTrue(c1 > c3);
     }
+
+    @Test
+    public void testQueryEvent() throws IOException {
+        EntryManager manager = genValidManager();
+        manager.addEntry(genValidBuilder(ExerciseCategory.STRENGTH,
+                StrengthSubCategory.PUSH).build());
+        manager.addEntry(genValidBuilder(ExerciseCategory.RUNNING,
+                null).build());
+
+        Path file = Files.createTempFile("query", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("getfit.Query").withThreshold(Duration.ZERO);
+            recording.start();
+            new EntryManager.SortedIteratorBuilder(manager,
+                    SortConfiguration.TITLE)
+                    .filterExerciseCategory(ExerciseCategory.RUNNING)
+                    .iterator(true);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Assertions.assertEquals(1, events.size());
+            RecordedEvent event = events.get(0);
+            Assertions.assertEquals("TITLE", event.getString("sortKey"));
+            Assertions.assertTrue(event.getBoolean("reversed"));
+            Assertions.assertEquals("category=RUNNING",
+                    event.getString("filters"));
+            Assertions.assertEquals(2, event.getInt("inputEntries"));
+            Assertions.assertEquals(1, event.getInt("outputEntries"));
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -73,6 +73,9 @@ public class TestLogEntry {
             Assertions.assertEquals(subcategory,
                     LogEntry.stringToSubcategory(subcategory.toString()));
         }
+        Assertions.assertNull(LogEntry.stringToSubcategory("null"));
+        Assertions.assertNull(LogEntry.stringToSubcategory("push"));
+        Assertions.assertNull(LogEntry.stringToSubcategory(null));
     }
 
     @Test
@@ -117,6 +120,34 @@ public class TestLogEntry {
                 entry2.getExerciseSubCategory());
     }
 
+    @Test
+    public void testBatchAndTrustedBuild() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        EntryBuilder builder = new EntryBuilder("Test", LocalDate.now(),
+                Duration.ofSeconds(hour), ExerciseCategory.STRENGTH, 1);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> builder.build(yesterday));
+        Assertions.assertNotNull(builder.build(LocalDate.now()));
+        Assertions.assertNotNull(builder.buildTrusted());
+
+        HashMap<String, String> hash = genValid().build().toHash();
+        hash.put("feeling", "11");
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntry.fromHash(hash, LocalDate.now()));
+        Assertions.assertEquals(11,
+                LogEntry.fromTrustedHash(hash).getFeeling());
+    }
+
+    @Test
+    public void testHasSubcategory() {
+        Assertions.assertTrue(ExerciseCategory.STRENGTH
+                .hasSubcategory(StrengthSubCategory.PUSH));
+        Assertions.assertFalse(ExerciseCategory.STRENGTH
+                .hasSubcategory(CardioSubCategory.SHORT));
+        Assertions.assertTrue(ExerciseCategory.RUNNING
+                .hasSubcategory(CardioSubCategory.SHORT));
+    }
+
     @Test
     public void illegalId() {
         LogEntry entry = new EntryBuilder("Test", LocalDate.now().minusDays(1),
@@ -178,4 +209,86 @@ public class TestLogEntry {
         Assertions.assertThrows(IllegalArgumentException.class,
                 () -> genValid().maxHeartRate(700).build());
     }
+
+    @Test
+    public void testJsonRoundTrip() {
+        LogEntry entry = genValid().comment("A \"quoted\"\ncomment\\")
+                .build();
+        entry.setId("3");
+        String json = LogEntryJson.toJson(entry);
+        Assertions.assertTrue(json.startsWith("{\"date\":"));
+
+        LogEntry parsed = LogEntryJson.parse(json);
+        Assertions.assertNull(parsed.getId());
+        HashMap<String, String> expected = entry.toHash();
+        expected.remove("id");
+        HashMap<String, String> actual = parsed.toHash();
+        actual.remove("id");
+        Assertions.assertEquals(expected, actual);
+
+        LogEntry minimal = new EntryBuilder("Test",
+                LocalDate.now().minusDays(1), Duration.ofSeconds(hour),
+                ExerciseCategory.RUNNING, 2).build();
+        Assertions.assertTrue(LogEntryJson.toJson(minimal)
+                .contains("\"distance\":\"null\""));
+        Assertions.assertNull(LogEntryJson.parse(
+                LogEntryJson.toJson(minimal)).getDistance());
+    }
+
+    @Test
+    public void testJsonRejectsMalformed() {
+        String json = LogEntryJson.toJson(genValid().build());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntryJson.parse("Nonsense"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntryJson.parse("{\"title\":\"Test\"}"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntryJson.parse(json + "}"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntryJson.parse(json.replace("STRENGTH", "SLEEP")));
+    }
+
+    @Test
+    public void testJsonSkipsUnknownFields() {
+        String json = LogEntryJson.toJson(genValid().build());
+        String extended = json.substring(0, json.length() - 1)
+                + ",\"n\":-1.5e+3,\"b\":true,\"z\":null,"
+                + "\"o\":{\"a\":[1,{\"b\":false}],\"c\":\"d\"},\"e\":[]}";
+        Assertions.assertEquals(LogEntryJson.parse(json).toHash(),
+                LogEntryJson.parse(extended).toHash());
+
+        String typed = LogEntryJson.toTypedJson(genValid().build());
+        String typedExtended = typed.substring(0, typed.length() - 1)
+                + ",\"version\":2,\"tags\":[\"a\",{}]}";
+        Assertions.assertEquals(LogEntryJson.parseTyped(typed).toHash(),
+                LogEntryJson.parseTyped(typedExtended).toHash());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntryJson.parse(json.substring(0, json.length() - 1)
+                        + ",\"b\":tru}"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntryJson.parse(json.substring(0, json.length() - 1)
+                        + ",\"e\":[1,]}"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> LogEntryJson.parse(json.substring(0, json.length() - 1)
+                        + ",\"e\":" + "[".repeat(100) + "]".repeat(100)
+                        + "}"));
+    }
+
+    @Test
+    public void testTypedJsonNumberGrammar() {
+        String typed = LogEntryJson.toTypedJson(genValid().distance(5.5)
+                .build());
+        Assertions.assertEquals(5.5, LogEntryJson.parseTyped(typed)
+                .getDistance());
+        for (String malformed : new String[]{"05.5", "5.", ".5", "-", "5e",
+                "+5", "5..5", "5-5", "5.5e+"}) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> LogEntryJson.parseTyped(typed.replace(
+                            "\"distance\":5.5", "\"distance\":" + malformed)),
+                    malformed);
+        }
+        Assertions.assertEquals(55.0, LogEntryJson.parseTyped(typed.replace(
+                "\"distance\":5.5", "\"distance\":0.55E2")).getDistance());
+    }
 }
@@ -3,6 +3,7 @@ package math;
 import core.EntryManager;
 import core.ExerciseCategory;
 import core.LogEntry.EntryBuilder;
+import core.SortConfiguration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -185,4 +186,72 @@ public class TestStatistics {
         Assertions.assertEquals(200,
                 Statistics.getMaximumHr(manager, "RUNNING", date));
     }
+
+    @Test
+    public void testSummarize() {
+        EntryManager manager = genValidEntryManager();
+        EntryBuilder builder1 =
+                genValidEntryBuilder(Duration.ofSeconds(hour), 10.0,
+                        ExerciseCategory.RUNNING, 4);
+        EntryBuilder builder2 =
+                genValidEntryBuilder(Duration.ofSeconds(hour / 2), null,
+                        ExerciseCategory.RUNNING, 8);
+        EntryBuilder builder3 =
+                genValidEntryBuilder(Duration.ofSeconds(hour), 2.0,
+                        ExerciseCategory.SWIMMING, 6);
+
+        builder1.maxHeartRate(170);
+        manager.addEntry(builder1.build());
+        manager.addEntry(builder2.build());
+        manager.addEntry(builder3.build());
+
+        for (String category : new String[]{"RUNNING", "SWIMMING", null}) {
+            StatisticsSummary summary = Statistics.summarize(manager,
+                    category, date, SortConfiguration.DURATION, false);
+            Assertions.assertEquals(
+                    Statistics.getCount(manager, category, date),
+                    summary.getCount());
+            Assertions.assertEquals(
+                    Statistics.getTotalDuration(manager, category, date),
+                    summary.getTotalDuration());
+            Assertions.assertEquals(
+                    Statistics.getAverageDuration(manager, category, date),
+                    summary.getAverageDuration());
+            Assertions.assertEquals(
+                    Statistics.getAverageSpeed(manager, category, date),
+                    summary.getAverageSpeed());
+            Assertions.assertEquals(
+                    Statistics.getAverageFeeling(manager, category, date),
+                    summary.getAverageFeeling());
+            Assertions.assertEquals(
+                    Statistics.getMaximumHr(manager, category, date),
+                    summary.getMaximumHr());
+            Assertions.assertEquals(summary.getCount(),
+                    summary.getEntries().size());
+            for (ExerciseCategory counted : ExerciseCategory.values()) {
+                Assertions.assertEquals(
+                        Statistics.getCount(manager, counted.name(), date),
+                        summary.getCategoryCount(counted));
+            }
+
+            StatisticsSummary unsorted =
+                    Statistics.summarize(manager, category, date);
+            Assertions.assertEquals(summary.getCount(), unsorted.getCount());
+            Assertions.assertEquals(summary.getTotalDuration(),
+                    unsorted.getTotalDuration());
+            Assertions.assertEquals(summary.getAverageSpeed(),
+                    unsorted.getAverageSpeed());
+            Assertions.assertEquals(summary.getMaximumHr(),
+                    unsorted.getMaximumHr());
+            Assertions.assertTrue(unsorted.getEntries().isEmpty());
+        }
+
+        StatisticsSummary running = Statistics.summarize(manager,
+                "RUNNING", date, SortConfiguration.DURATION, false);
+        Assertions.assertTrue(running.getEntries().get(0).getDuration()
+                .compareTo(running.getEntries().get(1).getDuration()) <= 0);
+        Assertions.assertEquals(0, Statistics.summarize(manager, "RUNNING",
+                        LocalDate.now() + "-" + LocalDate.now(),
+                        SortConfiguration.DATE, false).getCount());
+    }
 }
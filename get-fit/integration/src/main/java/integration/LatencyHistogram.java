@@ -0,0 +1,146 @@
+package integration;
+
+/**
+ * Records latencies in log-linear buckets, the way HdrHistogram does:
+ * every power of two is split into the same number of buckets, so any
+ * percentile is given within 1% of the recorded value, in constant
+ * memory, however many values are recorded. Not thread safe; every
+ * thread records into its own histogram, and they are merged after.
+ */
+public final class LatencyHistogram {
+    /**
+     * Bits of the value kept exactly in each bucket.
+     */
+    private static final int PRECISION_BITS = 7;
+    /**
+     * Values below this are counted exactly.
+     */
+    private static final int EXACT = 1 << PRECISION_BITS;
+    /**
+     * Buckets per power of two above the exact values.
+     */
+    private static final int HALF = EXACT / 2;
+    /**
+     * Bits in a long.
+     */
+    private static final int LONG_BITS = 64;
+    /**
+     * Percent in a whole.
+     */
+    private static final double PERCENT = 100;
+
+    /**
+     * Count of values per bucket.
+     */
+    private final long[] counts =
+        new long[(LONG_BITS - PRECISION_BITS + 1) * HALF + EXACT];
+    /**
+     * Count of values.
+     */
+    private long count;
+    /**
+     * Sum of values.
+     */
+    private long sum;
+    /**
+     * Largest value.
+     */
+    private long max;
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, such as a latency in nanoseconds.
+     * @throws IllegalArgumentException if value is negative.
+     */
+    public void record(final long value) throws IllegalArgumentException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative");
+        }
+        this.counts[index(value)]++;
+        this.count++;
+        this.sum += value;
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Adds the values of another histogram to this one.
+     *
+     * @param other the other histogram.
+     */
+    public void add(final LatencyHistogram other) {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.sum += other.sum;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Gives the value at a percentile.
+     *
+     * @param percentile the percentile, from 0 to 100.
+     * @return the highest value within the precision of the value at the
+     * percentile, at most the largest value, or 0 if nothing is recorded.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        long rank = (long) Math.ceil(percentile / PERCENT * this.count);
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= Math.max(1, rank) && this.counts[i] > 0) {
+                return Math.min(this.max, highestValue(i));
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * @return the count of values.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the mean value, or 0 if nothing is recorded.
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * @return the largest value.
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * @param value a value.
+     * @return the bucket of the value.
+     */
+    private static int index(final long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        int shift = LONG_BITS - Long.numberOfLeadingZeros(value)
+            - PRECISION_BITS;
+        return (shift << (PRECISION_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * @param index a bucket.
+     * @return the highest value of the bucket.
+     */
+    private static long highestValue(final int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int shift = (index - HALF) >> (PRECISION_BITS - 1);
+        long lowest = (long) (index - (shift << (PRECISION_BITS - 1)))
+            << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
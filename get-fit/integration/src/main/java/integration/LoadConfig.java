@@ -0,0 +1,228 @@
+package integration;
+
+import workload.WorkloadGenerator;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Configures a load test: how many sessions run, for how long, and how
+ * often each session makes each request.
+ */
+public class LoadConfig {
+    /**
+     * Default amount of concurrent sessions.
+     */
+    public static final int DEFAULT_SESSIONS = 200;
+    /**
+     * Default duration of a load test.
+     */
+    public static final Duration DEFAULT_DURATION = Duration.ofSeconds(10);
+    /**
+     * Default weight of lists.
+     */
+    private static final int LIST_WEIGHT = 40;
+    /**
+     * Default weight of statistics.
+     */
+    private static final int STATS_WEIGHT = 20;
+    /**
+     * Default weight of chart data.
+     */
+    private static final int CHART_WEIGHT = 20;
+    /**
+     * Default weight of additions.
+     */
+    private static final int ADD_WEIGHT = 15;
+    /**
+     * Default weight of removals.
+     */
+    private static final int REMOVE_WEIGHT = 5;
+
+    /**
+     * Amount of concurrent sessions.
+     */
+    private int sessions = DEFAULT_SESSIONS;
+    /**
+     * How long the sessions run.
+     */
+    private Duration duration = DEFAULT_DURATION;
+    /**
+     * Seed of the requests and entries.
+     */
+    private long seed = WorkloadGenerator.DEFAULT_SEED;
+    /**
+     * How often each request is made, relative to the others.
+     */
+    private final Map<LoadOperation, Integer> weights =
+        new EnumMap<>(LoadOperation.class);
+
+    /**
+     * Creates a configuration of the default sessions, duration, seed and
+     * a read heavy mix of requests.
+     */
+    public LoadConfig() {
+        this.weights.put(LoadOperation.LIST, LIST_WEIGHT);
+        this.weights.put(LoadOperation.STATS, STATS_WEIGHT);
+        this.weights.put(LoadOperation.CHART, CHART_WEIGHT);
+        this.weights.put(LoadOperation.ADD, ADD_WEIGHT);
+        this.weights.put(LoadOperation.REMOVE, REMOVE_WEIGHT);
+    }
+
+    /**
+     * Creates a configuration from the system properties load.sessions,
+     * load.duration (such as PT10M), load.seed and load.mix (such as
+     * list=40,stats=20,chart=20,add=15,remove=5). Missing properties are
+     * left at their defaults, and operations missing from load.mix are
+     * not made.
+     *
+     * @return the configuration.
+     * @throws IllegalArgumentException if a property is malformed.
+     */
+    public static LoadConfig fromSystemProperties()
+            throws IllegalArgumentException {
+        LoadConfig config = new LoadConfig();
+        try {
+            String sessions = System.getProperty("load.sessions");
+            if (sessions != null) {
+                config.sessions(Integer.parseInt(sessions));
+            }
+            String duration = System.getProperty("load.duration");
+            if (duration != null) {
+                config.duration(Duration.parse(duration));
+            }
+            String seed = System.getProperty("load.seed");
+            if (seed != null) {
+                config.seed(Long.parseLong(seed));
+            }
+            String mix = System.getProperty("load.mix");
+            if (mix != null) {
+                for (LoadOperation operation : LoadOperation.values()) {
+                    config.weight(operation, 0);
+                }
+                for (String weight : mix.split(",")) {
+                    String[] split = weight.split("=");
+                    config.weight(
+                        LoadOperation.valueOf(split[0].trim().toUpperCase()),
+                        Integer.parseInt(split[1].trim()));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(
+                "Malformed load test property: " + e.getMessage());
+        }
+        return config;
+    }
+
+    /**
+     * @param count the amount of concurrent sessions.
+     * @return this configuration.
+     * @throws IllegalArgumentException if count is not positive.
+     */
+    public LoadConfig sessions(final int count)
+            throws IllegalArgumentException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Sessions must be positive");
+        }
+        this.sessions = count;
+        return this;
+    }
+
+    /**
+     * @param time how long the sessions run.
+     * @return this configuration.
+     * @throws IllegalArgumentException if time is null or not positive.
+     */
+    public LoadConfig duration(final Duration time)
+            throws IllegalArgumentException {
+        if (time == null || time.isNegative() || time.isZero()) {
+            throw new IllegalArgumentException(
+                "Duration cannot be null and must be positive");
+        }
+        this.duration = time;
+        return this;
+    }
+
+    /**
+     * @param value the seed of the requests and entries.
+     * @return this configuration.
+     */
+    public LoadConfig seed(final long value) {
+        this.seed = value;
+        return this;
+    }
+
+    /**
+     * Sets how often a request is made, relative to the others.
+     *
+     * @param operation the request.
+     * @param weight    its weight, 0 to never make it.
+     * @return this configuration.
+     * @throws IllegalArgumentException if operation is null or weight is
+     *                                  negative.
+     */
+    public LoadConfig weight(final LoadOperation operation, final int weight)
+            throws IllegalArgumentException {
+        if (operation == null || weight < 0) {
+            throw new IllegalArgumentException(
+                "Operation cannot be null and weight cannot be negative");
+        }
+        this.weights.put(operation, weight);
+        return this;
+    }
+
+    /**
+     * @return the amount of concurrent sessions.
+     */
+    public int getSessions() {
+        return this.sessions;
+    }
+
+    /**
+     * @return how long the sessions run.
+     */
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * @return the seed of the requests and entries.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * @param operation a request.
+     * @return how often it is made, relative to the others.
+     */
+    public int getWeight(final LoadOperation operation) {
+        return this.weights.get(operation);
+    }
+
+    /**
+     * Picks a request according to the weights.
+     *
+     * @param random the source of randomness.
+     * @return the request.
+     * @throws IllegalStateException if every weight is 0.
+     */
+    LoadOperation pick(final Random random) throws IllegalStateException {
+        int total = this.weights.values().stream()
+            .mapToInt(Integer::intValue).sum();
+        if (total == 0) {
+            throw new IllegalStateException("Every weight is 0");
+        }
+        int roll = random.nextInt(total);
+        for (Map.Entry<LoadOperation, Integer> weight
+                : this.weights.entrySet()) {
+            roll -= weight.getValue();
+            if (roll < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Every weight is 0");
+    }
+}
@@ -0,0 +1,460 @@
+package integration;
+
+import client.LogClient;
+import client.ServerResponseException;
+import workload.WorkloadGenerator;
+import workload.WorkloadMix;
+
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a running server with many concurrent LogClient sessions, each
+ * making a random mix of list, statistics, chart, add and remove
+ * requests until the configured duration is over. Every session adds
+ * generated entries and only removes its own, so afterwards every entry
+ * a session still holds must be on the server exactly as it was sent,
+ * and every entry it removed must be gone. Anything else, as well as an
+ * id given to two additions or an own entry vanishing, is reported as
+ * corruption. The entries still held are removed at the end.
+ *
+ * <p>Sessions run on virtual threads when the Java runtime has them, and
+ * on platform threads otherwise.
+ */
+public final class LoadHarness {
+    /**
+     * How many error messages are kept for the report.
+     */
+    private static final int ERROR_SAMPLES = 10;
+    /**
+     * Not found response value.
+     */
+    private static final int NOT_FOUND_CODE = 404;
+    /**
+     * The sortings lists are made with.
+     */
+    private static final String[] SORTINGS = {"date", "duration", "title"};
+    /**
+     * The categories lists and statistics are filtered by.
+     */
+    private static final String[] CATEGORIES =
+        {"STRENGTH", "RUNNING", "CYCLING", "SWIMMING"};
+    /**
+     * Creates an executor running every task on a virtual thread of its
+     * own, or null if the Java runtime has no virtual threads. Looked up
+     * reflectively, so the harness builds and runs on Java versions
+     * without them.
+     */
+    private static final Method VIRTUAL_EXECUTOR = virtualExecutor();
+
+    /**
+     * URL of the server.
+     */
+    private final String url;
+    /**
+     * Port of the server.
+     */
+    private final int port;
+    /**
+     * The configuration.
+     */
+    private final LoadConfig config;
+    /**
+     * The session each id was given to, to find ids given twice.
+     */
+    private final Map<String, Integer> owners = new ConcurrentHashMap<>();
+    /**
+     * Descriptions of the corruption found.
+     */
+    private final Queue<String> corruptions = new ConcurrentLinkedQueue<>();
+    /**
+     * Messages of the first failed requests.
+     */
+    private final Queue<String> errorSamples = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a harness.
+     *
+     * @param serverUrl  server base url.
+     * @param serverPort server port.
+     * @param loadConfig the configuration.
+     * @throws IllegalArgumentException if loadConfig is null.
+     */
+    public LoadHarness(final String serverUrl, final int serverPort,
+                       final LoadConfig loadConfig)
+            throws IllegalArgumentException {
+        if (loadConfig == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        this.url = serverUrl;
+        this.port = serverPort;
+        this.config = loadConfig;
+    }
+
+    /**
+     * Runs the sessions, then checks and removes the entries they hold.
+     *
+     * @return the report.
+     * @throws InterruptedException if interrupted while waiting for the
+     *                              sessions.
+     * @throws ExecutionException   if a session failed unexpectedly.
+     */
+    public LoadReport run() throws InterruptedException, ExecutionException {
+        ExecutorService executor = newSessionExecutor();
+        boolean virtual = VIRTUAL_EXECUTOR != null;
+        List<Session> sessions = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < this.config.getSessions(); i++) {
+            sessions.add(new Session(i, start));
+        }
+
+        List<Future<Void>> running = new ArrayList<>();
+        try {
+            for (Session session : sessions) {
+                running.add(executor.submit(session));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<Void> session : running) {
+                session.get();
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - began);
+
+            Map<LoadOperation, LatencyHistogram> latencies =
+                new EnumMap<>(LoadOperation.class);
+            Map<LoadOperation, Long> errors =
+                new EnumMap<>(LoadOperation.class);
+            for (LoadOperation operation : LoadOperation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                errors.put(operation, 0L);
+            }
+            for (Session session : sessions) {
+                session.latencies.forEach((operation, latency) ->
+                    latencies.get(operation).add(latency));
+                session.errors.forEach((operation, count) ->
+                    errors.merge(operation, count, Long::sum));
+            }
+
+            verify(sessions);
+            return new LoadReport(elapsed, sessions.size(), virtual,
+                latencies, errors, new ArrayList<>(this.errorSamples),
+                new ArrayList<>(this.corruptions));
+        } finally {
+            executor.shutdownNow();
+            sessions.forEach(session -> session.client.close());
+        }
+    }
+
+    /**
+     * Checks that the entries the sessions hold are on the server as they
+     * were sent, that the ones they removed are gone and that no id is
+     * listed twice, then removes the entries they hold.
+     *
+     * @param sessions the finished sessions.
+     */
+    private void verify(final List<Session> sessions) {
+        LogClient client = new LogClient(this.url, this.port);
+        try {
+            Map<String, HashMap<String, String>> listed = new HashMap<>();
+            for (HashMap<String, String> entry
+                    : client.getLogEntryList(new LogClient.SortArgWrapper())) {
+                if (listed.put(entry.get("id"), entry) != null) {
+                    this.corruptions.add("Id " + entry.get("id")
+                        + " is listed twice");
+                }
+            }
+            for (Session session : sessions) {
+                session.live.forEach((id, sent) -> {
+                    HashMap<String, String> stored = listed.get(id);
+                    if (stored == null) {
+                        this.corruptions.add("Entry " + id + " of session "
+                            + session.index + " is missing");
+                    } else if (!matches(sent, stored)) {
+                        this.corruptions.add("Entry " + id + " of session "
+                            + session.index + " is " + stored
+                            + " but was added as " + sent);
+                    }
+                });
+                session.removed.stream().filter(listed::containsKey)
+                    .forEach(id -> this.corruptions.add("Entry " + id
+                        + " of session " + session.index
+                        + " was removed but is listed"));
+            }
+            for (Session session : sessions) {
+                for (String id : session.live.keySet()) {
+                    client.deleteLogEntry(id);
+                }
+            }
+        } catch (URISyntaxException | ExecutionException
+                | ServerResponseException e) {
+            this.corruptions.add("Could not verify the entries: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * @param sent   an entry as it was added.
+     * @param stored the entry as the server gives it.
+     * @return whether every field sent is stored.
+     */
+    private static boolean matches(final Map<String, String> sent,
+                                   final Map<String, String> stored) {
+        return sent.entrySet().stream().allMatch(field ->
+            field.getValue().equals(stored.get(field.getKey())));
+    }
+
+    /**
+     * Records a failed request.
+     *
+     * @param message what failed.
+     */
+    private void error(final String message) {
+        if (this.errorSamples.size() < ERROR_SAMPLES) {
+            this.errorSamples.add(message);
+        }
+    }
+
+    /**
+     * @return the factory of virtual thread executors, or null if the
+     * Java runtime has none.
+     */
+    private static Method virtualExecutor() {
+        try {
+            return Executors.class.getMethod(
+                "newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates an executor running every session on a thread of its own,
+     * virtual if the Java runtime has them.
+     *
+     * @return the executor.
+     */
+    private static ExecutorService newSessionExecutor() {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    /**
+     * One client making requests until the duration is over.
+     */
+    private final class Session implements Callable<Void> {
+        /**
+         * Number of this session.
+         */
+        private final int index;
+        /**
+         * Opened when every session is ready, so they start together.
+         */
+        private final CountDownLatch start;
+        /**
+         * The client of this session.
+         */
+        private final LogClient client;
+        /**
+         * Source of randomness for the requests.
+         */
+        private final Random random;
+        /**
+         * Generates the entries added.
+         */
+        private final WorkloadGenerator generator;
+        /**
+         * Date interval of the statistics and chart requests.
+         */
+        private final String dates;
+        /**
+         * Entries added and not removed, by id, as they were sent.
+         */
+        private final Map<String, HashMap<String, String>> live =
+            new HashMap<>();
+        /**
+         * Ids of the entries removed.
+         */
+        private final Set<String> removed = new HashSet<>();
+        /**
+         * Latencies of the successful requests.
+         */
+        private final Map<LoadOperation, LatencyHistogram> latencies =
+            new EnumMap<>(LoadOperation.class);
+        /**
+         * Count of failed requests.
+         */
+        private final Map<LoadOperation, Long> errors =
+            new EnumMap<>(LoadOperation.class);
+
+        /**
+         * Creates a session.
+         *
+         * @param number the number of this session.
+         * @param gate   opened when every session is ready.
+         */
+        private Session(final int number, final CountDownLatch gate) {
+            this.index = number;
+            this.start = gate;
+            this.client = new LogClient(LoadHarness.this.url,
+                LoadHarness.this.port, LogClient.DEFAULT_CONNECT_TIMEOUT,
+                LogClient.DEFAULT_REQUEST_TIMEOUT, 1);
+            long seed = LoadHarness.this.config.getSeed() + number;
+            this.random = new Random(seed);
+            this.generator = new WorkloadGenerator(seed, WorkloadMix.TYPICAL,
+                WorkloadGenerator.DEFAULT_YEARS, LocalDate.now());
+            this.dates = this.generator.getFirstDate() + "-"
+                + this.generator.getLastDate();
+            for (LoadOperation operation : LoadOperation.values()) {
+                this.latencies.put(operation, new LatencyHistogram());
+                this.errors.put(operation, 0L);
+            }
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            this.start.await();
+            long deadline = System.nanoTime()
+                + LoadHarness.this.config.getDuration().toNanos();
+            while (System.nanoTime() < deadline) {
+                LoadOperation operation =
+                    LoadHarness.this.config.pick(this.random);
+                if (operation == LoadOperation.REMOVE && this.live.isEmpty()) {
+                    operation = LoadOperation.ADD;
+                }
+                long began = System.nanoTime();
+                try {
+                    request(operation);
+                    this.latencies.get(operation)
+                        .record(System.nanoTime() - began);
+                } catch (URISyntaxException | ExecutionException
+                        | ServerResponseException | RuntimeException e) {
+                    this.errors.merge(operation, 1L, Long::sum);
+                    error(operation + " in session " + this.index + ": " + e);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Makes a request.
+         *
+         * @param operation the request.
+         * @throws URISyntaxException      if the request is malformed.
+         * @throws InterruptedException    if interrupted while waiting.
+         * @throws ExecutionException      if the request failed.
+         * @throws ServerResponseException if the server refused it.
+         */
+        private void request(final LoadOperation operation)
+                throws URISyntaxException, InterruptedException,
+                ExecutionException, ServerResponseException {
+            switch (operation) {
+                case LIST -> {
+                    LogClient.SortArgWrapper list =
+                        new LogClient.SortArgWrapper().sort(
+                            SORTINGS[this.random.nextInt(SORTINGS.length)]);
+                    if (this.random.nextBoolean()) {
+                        list.category(category());
+                    }
+                    this.client.getLogEntryList(list);
+                }
+                case STATS -> {
+                    LogClient.SortArgWrapper stats =
+                        new LogClient.SortArgWrapper().date(this.dates);
+                    if (this.random.nextBoolean()) {
+                        stats.category(category());
+                    }
+                    this.client.getStatistics(stats);
+                }
+                case CHART -> this.client.getChartData(
+                    new LogClient.SortArgWrapper().date(this.dates));
+                case ADD -> add();
+                case REMOVE -> remove();
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        /**
+         * Adds a generated entry, and checks that its id is new.
+         *
+         * @throws URISyntaxException      if the request is malformed.
+         * @throws InterruptedException    if interrupted while waiting.
+         * @throws ExecutionException      if the request failed.
+         * @throws ServerResponseException if the server refused it.
+         */
+        private void add() throws URISyntaxException, InterruptedException,
+                ExecutionException, ServerResponseException {
+            HashMap<String, String> entry = this.generator.next().toHash();
+            entry.remove("id");
+            String id = this.client.addLogEntry(entry);
+            Integer owner = LoadHarness.this.owners.putIfAbsent(id,
+                this.index);
+            if (owner != null) {
+                LoadHarness.this.corruptions.add("Id " + id
+                    + " was given to sessions " + owner + " and "
+                    + this.index);
+            }
+            this.live.put(id, entry);
+        }
+
+        /**
+         * Removes an entry of this session, which must still exist.
+         *
+         * @throws URISyntaxException      if the request is malformed.
+         * @throws InterruptedException    if interrupted while waiting.
+         * @throws ExecutionException      if the request failed.
+         * @throws ServerResponseException if the server refused it.
+         */
+        private void remove() throws URISyntaxException,
+                InterruptedException, ExecutionException,
+                ServerResponseException {
+            List<String> ids = new ArrayList<>(this.live.keySet());
+            String id = ids.get(this.random.nextInt(ids.size()));
+            try {
+                this.client.deleteLogEntry(id);
+            } catch (ServerResponseException e) {
+                if (e.getCode() != NOT_FOUND_CODE) {
+                    throw e;
+                }
+                LoadHarness.this.corruptions.add("Entry " + id
+                    + " of session " + this.index + " vanished");
+            }
+            this.live.remove(id);
+            this.removed.add(id);
+        }
+
+        /**
+         * @return a random category.
+         */
+        private String category() {
+            return CATEGORIES[this.random.nextInt(CATEGORIES.length)];
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package integration;
+
+/**
+ * The requests a load test session makes.
+ */
+public enum LoadOperation {
+    /**
+     * Lists entries, with a random sorting and category.
+     */
+    LIST,
+    /**
+     * Gets statistics over every entry, for a random category.
+     */
+    STATS,
+    /**
+     * Gets chart data over every entry.
+     */
+    CHART,
+    /**
+     * Adds a generated entry.
+     */
+    ADD,
+    /**
+     * Removes an entry the session added.
+     */
+    REMOVE
+}
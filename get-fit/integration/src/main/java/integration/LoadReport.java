@@ -0,0 +1,184 @@
+package integration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a load test: latency, throughput and errors per request,
+ * and any corruption found in the entries the sessions wrote.
+ */
+public final class LoadReport {
+    /**
+     * The percentiles reported.
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000;
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1_000_000_000;
+
+    /**
+     * How long the sessions ran.
+     */
+    private final Duration elapsed;
+    /**
+     * Amount of concurrent sessions.
+     */
+    private final int sessions;
+    /**
+     * Whether the sessions ran on virtual threads.
+     */
+    private final boolean virtualThreads;
+    /**
+     * Latencies of the successful requests, in nanoseconds.
+     */
+    private final Map<LoadOperation, LatencyHistogram> latencies;
+    /**
+     * Count of failed requests.
+     */
+    private final Map<LoadOperation, Long> errors;
+    /**
+     * Messages of the first failed requests.
+     */
+    private final List<String> errorSamples;
+    /**
+     * Descriptions of the corruption found.
+     */
+    private final List<String> corruptions;
+
+    /**
+     * Creates a report.
+     *
+     * @param time          how long the sessions ran.
+     * @param count         amount of concurrent sessions.
+     * @param virtual       whether the sessions ran on virtual threads.
+     * @param latencyMap    latencies of the successful requests.
+     * @param errorMap      count of failed requests.
+     * @param errorMessages messages of the first failed requests.
+     * @param corrupt       descriptions of the corruption found.
+     */
+    LoadReport(final Duration time, final int count, final boolean virtual,
+               final Map<LoadOperation, LatencyHistogram> latencyMap,
+               final Map<LoadOperation, Long> errorMap,
+               final List<String> errorMessages,
+               final List<String> corrupt) {
+        this.elapsed = time;
+        this.sessions = count;
+        this.virtualThreads = virtual;
+        this.latencies = Map.copyOf(latencyMap);
+        this.errors = Map.copyOf(errorMap);
+        this.errorSamples = List.copyOf(errorMessages);
+        this.corruptions = List.copyOf(corrupt);
+    }
+
+    /**
+     * @return how long the sessions ran.
+     */
+    public Duration getElapsed() {
+        return this.elapsed;
+    }
+
+    /**
+     * @return whether the sessions ran on virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * @param operation a request.
+     * @return the latencies of its successful requests, in nanoseconds.
+     */
+    public LatencyHistogram getLatency(final LoadOperation operation) {
+        return this.latencies.get(operation);
+    }
+
+    /**
+     * @return the count of successful requests.
+     */
+    public long getOperations() {
+        return this.latencies.values().stream()
+            .mapToLong(LatencyHistogram::getCount).sum();
+    }
+
+    /**
+     * @return the successful requests per second.
+     */
+    public double getThroughput() {
+        return getOperations() * NANOS_PER_SECOND / this.elapsed.toNanos();
+    }
+
+    /**
+     * @param operation a request.
+     * @return the count of its failed requests.
+     */
+    public long getErrors(final LoadOperation operation) {
+        return this.errors.get(operation);
+    }
+
+    /**
+     * @return the count of failed requests.
+     */
+    public long getErrors() {
+        return this.errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return messages of the first failed requests.
+     */
+    public List<String> getErrorSamples() {
+        return this.errorSamples;
+    }
+
+    /**
+     * @return descriptions of the corruption found, empty if none was.
+     */
+    public List<String> getCorruptions() {
+        return this.corruptions;
+    }
+
+    /**
+     * @return the report as a table.
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(
+            "%d sessions on %s threads for %.1f s, %.1f requests/s%n",
+            this.sessions, this.virtualThreads ? "virtual" : "platform",
+            this.elapsed.toNanos() / NANOS_PER_SECOND, getThroughput()));
+        report.append(String.format("%-8s %8s %9s", "request", "count",
+            "req/s"));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(" %9s",
+                "p" + Double.toString(percentile).replace(".0", "") + " ms"));
+        }
+        report.append(String.format(" %9s %7s%n", "max ms", "errors"));
+
+        for (LoadOperation operation : LoadOperation.values()) {
+            LatencyHistogram latency = this.latencies.get(operation);
+            report.append(String.format("%-8s %8d %9.1f", operation,
+                latency.getCount(), latency.getCount() * NANOS_PER_SECOND
+                    / this.elapsed.toNanos()));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(" %9.2f",
+                    latency.getValueAtPercentile(percentile)
+                        / NANOS_PER_MILLI));
+            }
+            report.append(String.format(" %9.2f %7d%n",
+                latency.getMax() / NANOS_PER_MILLI,
+                this.errors.get(operation)));
+        }
+
+        this.errorSamples.forEach(sample ->
+            report.append("error: ").append(sample).append('\n'));
+        report.append("corruptions: ").append(this.corruptions.size());
+        this.corruptions.forEach(corruption ->
+            report.append('\n').append("  ").append(corruption));
+        return report.toString();
+    }
+}
@@ -9,6 +9,7 @@ module integration {
     requires client;
     requires rest;
     requires localpersistence;
+    requires workload;
 
     opens integration to spring.core;
     exports integration;
@@ -1,7 +1,12 @@
 package integration;
 
 import java.io.File;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -9,7 +14,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.json.JSONObject;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -429,4 +437,31 @@ public class GetFitIntegrationTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testReactiveListStreaming() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            ids.add(createEntry("Title " + i, "Comment", "2020-01-01", "5", "3600",
+                    "3.0", "150", "STRENGTH", "PULL"));
+        }
+
+        HttpClient http = HttpClient.newHttpClient();
+        String reactive = "http://localhost:" + port
+                + "/api/v1/reactive/entries/list";
+        HttpResponse<Stream<String>> listed = http.send(
+                HttpRequest.newBuilder(new URI(reactive + "?s=title")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        Assertions.assertEquals(200, listed.statusCode());
+        List<String> lines = listed.body().collect(Collectors.toList());
+        Assertions.assertEquals(ids.size(), lines.size());
+        for (String line : lines) {
+            Assertions.assertTrue(ids.contains(
+                    new JSONObject(line).getString("id")));
+        }
+
+        HttpResponse<String> refused = http.send(
+                HttpRequest.newBuilder(new URI(reactive + "?s=nonsense")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(400, refused.statusCode());
+    }
+}
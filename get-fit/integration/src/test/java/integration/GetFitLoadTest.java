@@ -0,0 +1,70 @@
+package integration;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ContextConfiguration;
+
+import localpersistence.EntrySaverJson;
+import restserver.GetFitController;
+import restserver.GetFitApplication;
+import restserver.GetFitService;
+
+/**
+ * Runs the load test harness against the server. Configured by the
+ * system properties read by LoadConfig.fromSystemProperties, so the same
+ * test runs as a short check by default and as a soak test when asked.
+ * Setting getfit.virtual-threads=true as well runs the server on virtual
+ * threads, to compare against the default platform threads. Tagged
+ * load, and so only run with the load profile, not by every build.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@ContextConfiguration(classes = {GetFitController.class, GetFitApplication.class, GetFitService.class})
+public class GetFitLoadTest {
+
+    private static final System.Logger LOGGER =
+            System.getLogger(GetFitLoadTest.class.getName());
+
+    @LocalServerPort
+    int port = 8080;
+
+    @Value("${getfit.virtual-threads:false}")
+    boolean virtualThreads;
+
+    @AfterEach
+    @BeforeEach
+    public void clearSaveData() {
+        File f = new File(EntrySaverJson.SYSTEM_SAVE_LOCATION);
+        f.delete();
+    }
+
+    @Test
+    public void testConcurrentSessions()
+            throws InterruptedException, ExecutionException {
+        LoadReport report = new LoadHarness("http://localhost", port,
+                LoadConfig.fromSystemProperties()).run();
+        String summary = "Server request threads: "
+                + (virtualThreads && Runtime.version().feature() >= 21
+                        ? "virtual" : "platform")
+                + "\n" + report;
+        LOGGER.log(System.Logger.Level.INFO, summary);
+
+        Assertions.assertEquals(0, report.getErrors(),
+                String.join("\n", report.getErrorSamples()) + "\n" + summary);
+        Assertions.assertEquals(0, report.getCorruptions().size(),
+                String.join("\n", report.getCorruptions()) + "\n" + summary);
+        Assertions.assertTrue(report.getLatency(LoadOperation.ADD).getCount() > 0,
+                summary);
+        Assertions.assertTrue(report.getLatency(LoadOperation.LIST).getCount() > 0,
+                summary);
+    }
+}
@@ -1,13 +1,20 @@
 package localpersistence;
 
 import core.EntryManager;
+import core.LogEntryJson;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Scanner;
@@ -48,8 +55,10 @@ public final class EntrySaverJson {
 
     /**
      * Iterates over every entry in the provided EntryManager
-     * and adds their data as a string to a hashmap.
-     * Saves the hashmap to the specified JSON file.
+     * and writes it straight to the specified JSON file,
+     * without representing the entries as hash maps first.
+     * The file is replaced whole once every entry is written, so a failed
+     * save leaves the previous save intact.
      *
      * @param entryManager the EntryManager instance to be saved.
      * @param saveFile     path to the file being written to.
@@ -63,11 +72,97 @@ public final class EntrySaverJson {
             throw new IllegalArgumentException("Arguments cannot be null");
         }
 
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        File file = createFile(saveFile);
+
+        writeAtomically(file,
+            writer -> LogEntryJson.writeAll(entryManager, writer));
+        event.finish("save", file, entryManager.entryCount());
+    }
+
+    /**
+     * Saves LogEntries represented as hash maps, by id, to the specified
+     * JSON file, in the same format as an EntryManager is saved.
+     *
+     * @param map      the LogEntries represented as hash maps, by id.
+     * @param saveFile path to the file being written to.
+     * @throws IOException              if there was an issue during write.
+     * @throws IllegalArgumentException if map or saveFile is null.
+     */
+    public static void saveHashMap(
+            final HashMap<String, HashMap<String, String>> map,
+            final String saveFile)
+            throws IOException, IllegalArgumentException {
+        if (map == null || saveFile == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+
         JSONObject json = new JSONObject();
 
-        HashMap<String, HashMap<String, String>> map = entryManager.toHashMap();
         map.entrySet().forEach(x -> json.put(x.getKey(), x.getValue()));
 
+        File file = createFile(saveFile);
+
+        writeAtomically(file, writer -> writer.write(json.toString()));
+    }
+
+    /**
+     * Writes a file whole or not at all. The content is written to a
+     * temporary file next to it, which then replaces the file, so a
+     * failure partway through leaves the last saved file as it was.
+     *
+     * @param file    the file to write.
+     * @param content writes the content.
+     * @throws IOException if the content could not be written, or the
+     *                     file could not be replaced.
+     */
+    private static void writeAtomically(final File file,
+                                        final Content content)
+            throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(),
+            target.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(
+                    temporary, StandardCharsets.UTF_8)) {
+                content.write(writer);
+            }
+            try {
+                Files.move(temporary, target,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target,
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Writes the content of a file.
+     */
+    @FunctionalInterface
+    private interface Content {
+        /**
+         * Writes the content.
+         *
+         * @param writer where to write.
+         * @throws IOException if writer could not be written to.
+         */
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Creates a file and its folders, unless they exist.
+     *
+     * @param saveFile path to the file.
+     * @return the file.
+     * @throws IOException if the file could not be created.
+     */
+    private static File createFile(final String saveFile) throws IOException {
         String[] split = saveFile.split(
                 System.getProperty("file.separator").replace("\\", "\\\\"));
         String folderPath = String.join(System.getProperty("file.separator"),
@@ -91,10 +186,7 @@ public final class EntrySaverJson {
         // Flip created to avoid unused variable warning.
         created = !created;
 
-        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
-            writer.write(json.toString());
-            writer.flush();
-        } catch (IOException ignored) { }
+        return file;
     }
 
     /**
@@ -112,17 +204,22 @@ public final class EntrySaverJson {
 
     /**
      * Loads a specified JSON file and constructs LogEntries,
-     * which it appends to the provided EntryManager.
+     * which it appends to the provided EntryManager. The entries are read
+     * straight from the file, without representing them as hash maps
+     * first. They were validated before they were saved, so they are not
+     * validated again.
      *
      * @param entryManager the EntryManager to load data into.
      * @param saveFile     the path of the JSON file to load from.
      * @throws IOException
-     * if the specified path could not be found.
+     * if the specified path could not be read.
      * @throws IllegalArgumentException if the entryManager or saveFile is null.
+     * @throws IllegalStateException    if the file content is malformed.
      */
     public static void load(final EntryManager entryManager,
                             final String saveFile)
-            throws IOException, IllegalArgumentException {
+            throws IOException, IllegalArgumentException,
+            IllegalStateException {
         if (entryManager == null || saveFile == null) {
             throw new IllegalArgumentException("Arguments cannot be null");
         }
@@ -131,6 +228,43 @@ public final class EntrySaverJson {
         if (!file.exists()) {
             return;
         }
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        int before = entryManager.entryCount();
+        try (BufferedReader reader = Files.newBufferedReader(
+                file.toPath(), StandardCharsets.UTF_8)) {
+            LogEntryJson.readAll(reader, entryManager);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Could not load data from file");
+        }
+        event.finish("load", file, entryManager.entryCount() - before);
+    }
+
+    /**
+     * Loads a specified JSON file as LogEntries represented as hash maps,
+     * by id, without constructing the LogEntries.
+     *
+     * @param saveFile the path of the JSON file to load from.
+     * @return the LogEntries represented as hash maps, by id.
+     * Empty if the file does not exist.
+     * @throws IOException
+     * if the specified path could not be read.
+     * @throws IllegalArgumentException if saveFile is null.
+     * @throws IllegalStateException    if the file content is malformed.
+     */
+    public static HashMap<String, HashMap<String, String>> loadHashMap(
+            final String saveFile)
+            throws IOException, IllegalArgumentException,
+            IllegalStateException {
+        if (saveFile == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+
+        HashMap<String, HashMap<String, String>> jsonHash = new HashMap<>();
+        File file = new File(saveFile);
+        if (!file.exists()) {
+            return jsonHash;
+        }
         Scanner reader = new Scanner(file, StandardCharsets.UTF_8);
         String dataString;
         StringBuilder buffer = new StringBuilder();
@@ -145,7 +279,6 @@ public final class EntrySaverJson {
 
         try {
             JSONObject jsonObject = new JSONObject(dataString);
-            HashMap<String, HashMap<String, String>> jsonHash = new HashMap<>();
 
             for (String key : jsonObject.keySet()) {
                 HashMap<String, String> entryHash = new HashMap<>();
@@ -174,10 +307,10 @@ public final class EntrySaverJson {
 
             }
 
-            EntryManager.fromHash(jsonHash, entryManager);
-
         } catch (JSONException pException) {
             throw new IllegalStateException("Could not load data from file");
         }
+
+        return jsonHash;
     }
 }
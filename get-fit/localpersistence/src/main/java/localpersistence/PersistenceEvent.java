@@ -0,0 +1,66 @@
+package localpersistence;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.File;
+
+/**
+ * Flight Recorder event for saving or loading entries, telling how much
+ * was written or read. Costs close to nothing unless a recording enables
+ * it.
+ */
+@Name("getfit.Persistence")
+@Label("Entry Persistence")
+@Category({"Get-Fit", "Persistence"})
+@Description("Saving or loading of entries")
+@StackTrace(false)
+final class PersistenceEvent extends jdk.jfr.Event {
+    /**
+     * Save or load.
+     */
+    @Label("Operation")
+    private String operation;
+
+    /**
+     * The path of the file.
+     */
+    @Label("File")
+    private String path;
+
+    /**
+     * Size of the file.
+     */
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * Entries saved or loaded.
+     */
+    @Label("Entries")
+    private int entries;
+
+    /**
+     * Ends the event, and commits it if it is enabled and took long
+     * enough.
+     *
+     * @param name  save or load.
+     * @param file  the file saved to or loaded from.
+     * @param count entries saved or loaded.
+     */
+    void finish(final String name, final File file, final int count) {
+        end();
+        if (shouldCommit()) {
+            this.operation = name;
+            this.path = file.getPath();
+            this.bytes = file.length();
+            this.entries = count;
+            commit();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 module localpersistence{
     requires transitive core;
     requires org.json;
+    requires jdk.jfr;
     
     exports localpersistence;
 }
\ No newline at end of file
@@ -6,6 +6,9 @@ import core.LogEntry;
 import core.LogEntry.EntryBuilder;
 import core.StrengthSubCategory;
 import core.Subcategory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,8 +17,12 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
 
 public class TestEntrySaverJson {
 
@@ -86,6 +93,26 @@ public class TestEntrySaverJson {
         }
     }
 
+    @Test
+    public void testSaveAndLoadHashMap() {
+        HashMap<String, HashMap<String, String>> map =
+                genValidManager().toHashMap();
+        try {
+            EntrySaverJson.saveHashMap(map, saveFile);
+            HashMap<String, HashMap<String, String>> loaded =
+                    EntrySaverJson.loadHashMap(saveFile);
+            Assertions.assertEquals(map.keySet(), loaded.keySet());
+            Assertions.assertEquals(map.get("2").get("title"),
+                    loaded.get("2").get("title"));
+            Assertions.assertTrue(EntrySaverJson
+                    .loadHashMap("DoesNotExist.json").isEmpty());
+        } catch (IOException e) {
+            Assertions.fail();
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> EntrySaverJson.saveHashMap(null, saveFile));
+    }
+
     @Test
     public void testAddAfterSaveAndLoad() {
         EntryManager manager = genValidManager();
@@ -124,6 +151,28 @@ public class TestEntrySaverJson {
                 () -> EntrySaverJson.load(manager, saveFile));
     }
 
+    @Test
+    public void testSaveReplacesWhole() throws IOException {
+        Path folder = Files.createTempDirectory("getfit");
+        String file = folder.resolve("SavedData.json").toString();
+        EntrySaverJson.save(genValidManager(), file);
+        EntrySaverJson.save(new EntryManager(), file);
+        try (var listing = Files.list(folder)) {
+            Assertions.assertEquals(1, listing.count());
+        }
+        EntryManager loaded = new EntryManager();
+        EntrySaverJson.load(loaded, file);
+        Assertions.assertEquals(0, loaded.entryCount());
+
+        Path blocked = folder.resolve("Blocked.json");
+        Files.createDirectories(blocked.resolve("child"));
+        Assertions.assertThrows(IOException.class, () -> EntrySaverJson
+                .save(genValidManager(), blocked.toString()));
+        try (var listing = Files.list(folder)) {
+            Assertions.assertEquals(2, listing.count());
+        }
+    }
+
     @Test
     public void testBadArgs() {
         EntryManager manager = genValidManager();
@@ -153,4 +202,33 @@ public class TestEntrySaverJson {
         File f = new File(EntrySaverJson.SYSTEM_SAVE_LOCATION);
         f.delete();
     }
+
+    @Test
+    public void testPersistenceEvents() throws IOException {
+        EntryManager manager = genValidManager();
+        Path file = Files.createTempFile("persistence", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("getfit.Persistence");
+            recording.start();
+            EntrySaverJson.save(manager, saveFile);
+            EntrySaverJson.load(new EntryManager(), saveFile);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Assertions.assertEquals(2, events.size());
+            for (RecordedEvent event : events) {
+                Assertions.assertEquals(manager.entryCount(),
+                        event.getInt("entries"));
+                Assertions.assertEquals(new File(saveFile).length(),
+                        event.getLong("bytes"));
+            }
+            Assertions.assertEquals("save",
+                    events.get(0).getString("operation"));
+            Assertions.assertEquals("load",
+                    events.get(1).getString("operation"));
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -3,6 +3,7 @@ open module rest {
 
     requires spring.boot;
     requires spring.web;
+    requires spring.webmvc;
     requires spring.boot.autoconfigure;
     requires spring.context;
     requires spring.beans;
@@ -10,6 +11,7 @@ open module rest {
     requires transitive core;
     requires localpersistence;
     requires transitive org.json;
+    requires org.apache.tomcat.embed.core;
 
     exports restserver;
     
@@ -0,0 +1,389 @@
+package restserver;
+
+import org.json.JSONObject;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams entry additions and removals to subscribed clients as
+ * server-sent events. Every change carries the EntryManager version it
+ * produced as its sequence number, and the most recent changes are kept
+ * so a reconnecting client can resume from the last sequence it saw.
+ * Publishing only queues a change for every subscriber; the events are
+ * sent by a few sender threads, in order per subscriber, so a slow or
+ * stalled client never holds up a change or another subscriber. A
+ * client falling more than the history behind is disconnected, and
+ * resumes from its last event when it reconnects.
+ */
+public final class ChangeFeed {
+    /**
+     * Event name of an added entry.
+     */
+    public static final String ADD = "add";
+    /**
+     * Event name of a removed entry.
+     */
+    public static final String REMOVE = "remove";
+    /**
+     * Event name telling a client it missed changes and must refetch.
+     */
+    public static final String RESET = "reset";
+    /**
+     * How long a subscription is kept open, in milliseconds.
+     */
+    private static final long SUBSCRIPTION_TIMEOUT = 30L * 60 * 1000;
+    /**
+     * Threads sending events to subscribers.
+     */
+    private static final int SENDERS = 4;
+    /**
+     * Marks the end of the events of a subscriber that fell behind.
+     */
+    private static final Change END = new Change(-1, RESET, null, null);
+    /**
+     * Maximum amount of changes kept for resuming, and queued for a
+     * subscriber.
+     */
+    private final int capacity;
+    /**
+     * The most recent changes, oldest first.
+     */
+    private final ArrayDeque<Change> history;
+    /**
+     * Open subscriptions.
+     */
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    /**
+     * Sends the queued events of the subscribers.
+     */
+    private final ExecutorService senders =
+        Executors.newFixedThreadPool(SENDERS, runnable -> {
+            Thread sender = new Thread(runnable, "change-feed-sender");
+            sender.setDaemon(true);
+            return sender;
+        });
+    /**
+     * Sequence number of the latest change.
+     */
+    private long sequence;
+    /**
+     * Whether the feed is closed, ending every subscription.
+     */
+    private boolean closed = false;
+    /**
+     * Guards the history, the subscribers and the sequence, and keeps
+     * events in order. Only held while queueing, never while sending.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates a feed without changes.
+     *
+     * @param maxChanges      the maximum amount of changes kept for resuming.
+     * @param currentSequence the sequence number to continue from.
+     * @throws IllegalArgumentException if maxChanges is not positive.
+     */
+    public ChangeFeed(final int maxChanges, final long currentSequence)
+            throws IllegalArgumentException {
+        if (maxChanges < 1) {
+            throw new IllegalArgumentException(
+                "Change feed needs a positive size");
+        }
+        this.capacity = maxChanges;
+        this.history = new ArrayDeque<>(maxChanges);
+        this.sequence = currentSequence;
+    }
+
+    /**
+     * Publishes a change to every subscriber. Returns once the change is
+     * queued, without waiting for it to be sent.
+     *
+     * @param changeSequence the EntryManager version after the change.
+     * @param type           ADD or REMOVE.
+     * @param id             the id of the changed entry.
+     * @param entry          the added entry as a hash, or null on removal.
+     */
+    public void publish(final long changeSequence, final String type,
+                        final String id,
+                        final HashMap<String, String> entry) {
+        Change change = new Change(changeSequence, type, id, entry);
+        this.lock.lock();
+        try {
+            this.sequence = changeSequence;
+            if (this.history.size() == this.capacity) {
+                this.history.removeFirst();
+            }
+            this.history.addLast(change);
+            this.subscribers.removeIf(subscriber -> !subscriber.offer(change));
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a subscription. Changes after the given sequence number are
+     * replayed first; if some of them are no longer kept, or the number
+     * is ahead of this server, a RESET event is sent instead.
+     *
+     * @param since the last sequence number the client has seen,
+     *              or a negative number to only receive new changes.
+     * @return the event stream.
+     */
+    public SseEmitter subscribe(final long since) {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                emitter.complete();
+                return emitter;
+            }
+            replay(subscriber, since);
+            this.subscribers.add(subscriber);
+        } finally {
+            this.lock.unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * Ends every subscription once its queued events are sent, and stops
+     * the senders. Changes published afterwards are kept, but not sent,
+     * and new subscriptions are completed at once.
+     */
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            for (Subscriber subscriber : this.subscribers) {
+                subscriber.open = false;
+                subscriber.enqueue(END);
+            }
+            this.subscribers.clear();
+        } finally {
+            this.lock.unlock();
+        }
+        this.senders.shutdown();
+    }
+
+    /**
+     * Queues the changes after a sequence number for a new subscriber.
+     * Called holding the lock.
+     *
+     * @param subscriber the new subscriber.
+     * @param since      the last sequence number the client has seen,
+     *                   or a negative number to only receive new changes.
+     */
+    private void replay(final Subscriber subscriber, final long since) {
+        if (since >= 0 && since < this.sequence) {
+            Change oldest = this.history.peekFirst();
+            if (oldest == null || oldest.sequence > since + 1) {
+                subscriber.offer(new Change(this.sequence, RESET, null, null));
+            } else {
+                for (Change change : this.history) {
+                    if (change.sequence > since) {
+                        subscriber.offer(change);
+                    }
+                }
+            }
+        } else if (since > this.sequence) {
+            subscriber.offer(new Change(this.sequence, RESET, null, null));
+        }
+    }
+
+    /**
+     * @return the number of open subscriptions.
+     */
+    public int subscriberCount() {
+        this.lock.lock();
+        try {
+            return this.subscribers.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets a closed subscription.
+     *
+     * @param subscriber the closed subscription.
+     */
+    private void unsubscribe(final Subscriber subscriber) {
+        this.lock.lock();
+        try {
+            subscriber.open = false;
+            this.subscribers.remove(subscriber);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Sends a change.
+     *
+     * @param emitter the event stream.
+     * @param change  the change to send.
+     * @return false if the client is gone.
+     */
+    private static boolean send(final SseEmitter emitter,
+                                final Change change) {
+        JSONObject data = new JSONObject();
+        data.put("seq", change.sequence);
+        if (change.id != null) {
+            data.put("id", change.id);
+        }
+        if (change.entry != null) {
+            data.put("entry", new JSONObject(change.entry));
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(change.sequence))
+                .name(change.type)
+                .data(data.toString()));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The container completes the stream of a failed send.
+            return false;
+        }
+    }
+
+    /**
+     * A subscription, with the changes queued for it. Changes are queued
+     * holding the lock of the feed, and sent by one sender at a time.
+     */
+    private final class Subscriber implements Runnable {
+        /**
+         * The event stream.
+         */
+        private final SseEmitter emitter;
+        /**
+         * Changes not yet sent, oldest first.
+         */
+        private final Queue<Change> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * Count of changes queued and not yet sent, so only one sender
+         * sends at a time.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * Whether changes are still queued.
+         */
+        private volatile boolean open = true;
+        /**
+         * Whether sending failed, as the client is gone. Only used by
+         * the sender sending.
+         */
+        private boolean failed = false;
+
+        /**
+         * Creates a subscription.
+         *
+         * @param target the event stream.
+         */
+        private Subscriber(final SseEmitter target) {
+            this.emitter = target;
+        }
+
+        /**
+         * Queues a change. Called holding the lock of the feed.
+         *
+         * @param change the change.
+         * @return false if the subscription is closed, or fell too far
+         * behind and is being closed.
+         */
+        private boolean offer(final Change change) {
+            if (!this.open) {
+                return false;
+            }
+            if (this.pending.get() >= capacity) {
+                this.open = false;
+                enqueue(END);
+                return false;
+            }
+            enqueue(change);
+            return true;
+        }
+
+        /**
+         * Queues a change, and starts sending if no sender is.
+         *
+         * @param change the change.
+         */
+        private void enqueue(final Change change) {
+            this.queue.add(change);
+            if (this.pending.getAndIncrement() == 0) {
+                senders.execute(this);
+            }
+        }
+
+        /**
+         * Sends the queued changes, until none are left.
+         */
+        @Override
+        public void run() {
+            do {
+                Change change = this.queue.poll();
+                if (change == END) {
+                    this.emitter.complete();
+                } else if (!this.failed && !send(this.emitter, change)) {
+                    this.failed = true;
+                    unsubscribe(this);
+                }
+            } while (this.pending.decrementAndGet() > 0);
+        }
+    }
+
+    /**
+     * A published change.
+     */
+    private static final class Change {
+        /**
+         * The EntryManager version after the change.
+         */
+        private final long sequence;
+        /**
+         * ADD or REMOVE.
+         */
+        private final String type;
+        /**
+         * The id of the changed entry.
+         */
+        private final String id;
+        /**
+         * The added entry as a hash, or null on removal.
+         */
+        private final HashMap<String, String> entry;
+
+        /**
+         * Describes a change.
+         *
+         * @param changeSequence the EntryManager version after the change.
+         * @param changeType     ADD or REMOVE.
+         * @param changeId       the id of the changed entry.
+         * @param changeEntry    the added entry, or null on removal.
+         */
+        private Change(final long changeSequence, final String changeType,
+                       final String changeId,
+                       final HashMap<String, String> changeEntry) {
+            this.sequence = changeSequence;
+            this.type = changeType;
+            this.id = changeId;
+            this.entry = changeEntry;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package restserver;
+
+import core.LogEntry;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes listed entries to a single subscriber, no faster than it
+ * asks for them. Entries are given to the subscriber on the thread that
+ * requests them, so a subscriber asking for more once it has written
+ * what it got never holds more than it asked for.
+ */
+public final class EntryPublisher implements Flow.Publisher<LogEntry> {
+    /**
+     * The entries to publish, in order.
+     */
+    private final List<LogEntry> entries;
+    /**
+     * Whether a subscriber has subscribed.
+     */
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Creates a publisher of listed entries.
+     *
+     * @param listed the entries, as listed by a SortedIteratorBuilder.
+     */
+    public EntryPublisher(final List<LogEntry> listed) {
+        this.entries = listed;
+    }
+
+    /**
+     * Subscribes the only subscriber of this publisher.
+     *
+     * @param subscriber the subscriber.
+     */
+    @Override
+    public void subscribe(final Flow.Subscriber<? super LogEntry> subscriber) {
+        if (!this.subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) { }
+
+                @Override
+                public void cancel() { }
+            });
+            subscriber.onError(new IllegalStateException(
+                "Entries can only be published once"));
+            return;
+        }
+        subscriber.onSubscribe(new EntrySubscription(subscriber));
+    }
+
+    /**
+     * The subscription of the subscriber, publishing entries as they are
+     * requested.
+     */
+    private final class EntrySubscription implements Flow.Subscription {
+        /**
+         * The subscriber.
+         */
+        private final Flow.Subscriber<? super LogEntry> subscriber;
+        /**
+         * Entries requested but not yet published.
+         */
+        private final AtomicLong demand = new AtomicLong();
+        /**
+         * Count of requests not yet served, so only one thread publishes
+         * at a time, and a request made while publishing is served by
+         * the publishing thread instead of recursing.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * Index of the next entry to publish.
+         */
+        private int next = 0;
+        /**
+         * Whether publishing is over, completed or cancelled.
+         */
+        private volatile boolean done = false;
+
+        /**
+         * Creates the subscription.
+         *
+         * @param target the subscriber.
+         */
+        private EntrySubscription(
+                final Flow.Subscriber<? super LogEntry> target) {
+            this.subscriber = target;
+        }
+
+        /**
+         * Publishes up to n more entries.
+         *
+         * @param n the amount of entries wanted.
+         */
+        @Override
+        public void request(final long n) {
+            if (this.done) {
+                return;
+            }
+            if (n <= 0) {
+                this.done = true;
+                this.subscriber.onError(new IllegalArgumentException(
+                    "Request must be positive"));
+                return;
+            }
+            this.demand.accumulateAndGet(n,
+                (current, added) -> current + added < 0
+                    ? Long.MAX_VALUE : current + added);
+            if (this.pending.getAndIncrement() == 0) {
+                publish();
+            }
+        }
+
+        /**
+         * Stops publishing.
+         */
+        @Override
+        public void cancel() {
+            this.done = true;
+        }
+
+        /**
+         * Publishes entries while there is demand, then completes if
+         * every entry is published.
+         */
+        private void publish() {
+            int missed = 1;
+            do {
+                while (!this.done && this.demand.get() > 0
+                        && this.next < entries.size()) {
+                    this.demand.decrementAndGet();
+                    this.subscriber.onNext(entries.get(this.next++));
+                }
+                if (!this.done && this.next == entries.size()) {
+                    this.done = true;
+                    this.subscriber.onComplete();
+                }
+                missed = this.pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
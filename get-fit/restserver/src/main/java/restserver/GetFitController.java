@@ -1,32 +1,27 @@
 package restserver;
 
-import core.CardioSubCategory;
 import core.EntryManager;
-import core.ExerciseCategory;
 import core.LogEntry;
-import core.SortConfiguration;
-import core.StrengthSubCategory;
-import core.Subcategory;
-import math.Statistics;
+import core.LogEntryJson;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -34,41 +29,86 @@ import java.util.NoSuchElementException;
 @RequestMapping("/api/v1/entries")
 public class GetFitController {
     /**
-     * Length of one piece of date format.
+     * The filters response, built once as the categories are constant.
      */
-    private static final int DATE_FORMAT_LENGTH = 10;
+    private static final String FILTERS = buildFilters();
     /**
-     * Core accessor.
+     * Entity tag of the filters response, the same across restarts.
      */
-    private final GetFitService getfitService = new GetFitService();
+    private static final String FILTERS_TAG =
+        "\"filters-" + Integer.toHexString(FILTERS.hashCode()) + "\"";
+    /**
+     * How long a client may reuse the filters response without asking.
+     */
+    private static final CacheControl FILTERS_CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+    /**
+     * Core accessor, shared with the controllers of other API versions.
+     */
+    private final GetFitService getfitService;
+    /**
+     * Log of slow list, statistics and chart requests.
+     */
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Creates the controller.
+     *
+     * @param service the core accessor, injected by Spring.
+     * @param log     the log of slow requests, injected by Spring.
+     */
+    public GetFitController(final GetFitService service,
+                            final SlowQueryLog log) {
+        this.getfitService = service;
+        this.slowQueryLog = log;
+    }
 
     /**
      * Gives an entry by its id.
      *
-     * @param id an integer.
-     * @return a HTTP request.
+     * @param id      an integer.
+     * @param request the request, used for conditional responses.
+     * @return a HTTP request, or null if the client copy is current.
      */
     @GetMapping(value = "/{entryId}", produces = "application/json")
-    public String getLogEntry(final @PathVariable("entryId") String id) {
-        JSONObject returnObject;
+    public String getLogEntry(final @PathVariable("entryId") String id,
+                              final WebRequest request) {
+        if (request.checkNotModified(getfitService.getDataTag())) {
+            return null;
+        }
+
+        LogEntry entry;
         try {
-            returnObject = new JSONObject(
-                getfitService.getEntryManager().getEntry(id).toHash());
+            entry = getfitService.read(
+                () -> getfitService.getEntryManager().getEntry(id));
         } catch (IllegalArgumentException e) {
             throw new NoSuchElementException(
                 HttpStatus.NOT_FOUND + "Entry not found" + e);
         }
-        return returnObject.toString();
+        return LogEntryJson.toJson(entry);
     }
 
     /**
-     * Gets all possible sortings/filters.
+     * Gets all possible sortings/filters. The response is constant, so it
+     * is sent with headers letting clients reuse it, and answered with
+     * 304 Not Modified when the client's entity tag matches.
      *
      * @return a HTTP request.
      */
     @GetMapping(value = "/filters", produces = "application/json")
-    public String getFilters() {
+    public ResponseEntity<String> getFilters() {
+        return ResponseEntity.ok()
+            .eTag(FILTERS_TAG)
+            .cacheControl(FILTERS_CACHE_CONTROL)
+            .body(FILTERS);
+    }
 
+    /**
+     * Builds the filters response from the exercise categories.
+     *
+     * @return the filters response.
+     */
+    private static String buildFilters() {
         JSONObject filters = new JSONObject();
         JSONObject categories = new JSONObject();
 
@@ -92,7 +132,9 @@ public class GetFitController {
      * @param category    the category to filter by.
      * @param subCategory the sub-category to filter by.
      * @param date        the date interval to filter by.
-     * @return a HTTP request.
+     * @param request     the request, used for conditional responses.
+     * @return a HTTP request, or null if the client copy is current.
+     * @throws IOException if the response could not be written.
      */
     @GetMapping(value = "/list", produces = "application/json")
     @ResponseBody
@@ -106,72 +148,27 @@ public class GetFitController {
             final @RequestParam(value = "sc", required = false)
                     String subCategory,
             final @RequestParam(value = "d", required = false)
-                    String date)
-            throws IllegalArgumentException {
-        SortConfiguration sortConfiguration = null;
-
-        sortConfiguration = SortConfiguration.valueOf(sortType.toUpperCase());
-
-        EntryManager.SortedIteratorBuilder iteratorBuilder =
-            new EntryManager.SortedIteratorBuilder(
-                getfitService.getEntryManager(),
-                sortConfiguration);
-
-        if (category != null) {
-            String categoryUpper = category.toUpperCase();
-            try {
-                ExerciseCategory categories =
-                    ExerciseCategory.valueOf(categoryUpper);
-                iteratorBuilder =
-                    iteratorBuilder.filterExerciseCategory(categories);
-
-                Subcategory subcategories;
-
-                if (subCategory != null) {
-                    subcategories = switch (categoryUpper) {
-                        case "STRENGTH" -> StrengthSubCategory.valueOf(
-                            subCategory.toUpperCase());
-                        case "SWIMMING", "CYCLING", "RUNNING" ->
-                            CardioSubCategory.valueOf(
-                            subCategory.toUpperCase());
-                        default -> null;
-                    };
-
-                    iteratorBuilder = iteratorBuilder
-                        .filterSubCategory(subcategories);
-                }
-            } catch (IllegalArgumentException ignored) { }
-
-        } else {
-            if (subCategory != null) {
-                throw new IllegalArgumentException();
-            }
+                    String date,
+            final WebRequest request)
+            throws IllegalArgumentException, IOException {
+        if (request.checkNotModified(getfitService.getDataTag())) {
+            return null;
         }
 
-        try {
-            if (date != null) {
-                iteratorBuilder = iteratorBuilder.filterTimeInterval(
-                    LocalDate.parse(date.substring(0,
-                        DATE_FORMAT_LENGTH)),
-                    LocalDate.parse(
-                        date.substring(DATE_FORMAT_LENGTH + 1)));
-            }
-        } catch (IllegalArgumentException ignored) { }
-
-        List<LogEntry> returnList = new ArrayList<>();
-        iteratorBuilder.iterator(Boolean.parseBoolean(reverse))
-            .forEachRemaining(returnList::add);
-
-        JSONObject returnJSON = new JSONObject();
-        JSONArray entryArray = new JSONArray();
-
-        for (LogEntry entry : returnList) {
-            entryArray.put(entry.toHash());
-        }
-
-        returnJSON.put("entries", entryArray);
-
-        return returnJSON.toString();
+        SlowQueryLog.Trace trace = slowQueryLog.start("/api/v1/entries/list",
+            SlowQueryLog.listParameters(sortType, reverse, category,
+                subCategory, date));
+        List<LogEntry> entries = getfitService.listEntries(
+            sortType, Boolean.parseBoolean(reverse), category, subCategory,
+            date, trace);
+        trace.query();
+
+        StringBuilder returnJSON = new StringBuilder("{\"entries\":");
+        LogEntryJson.writeArray(entries.iterator(), returnJSON);
+        String response = returnJSON.append('}').toString();
+        trace.serialization();
+        slowQueryLog.finish(trace);
+        return response;
     }
 
     /**
@@ -179,7 +176,8 @@ public class GetFitController {
      *
      * @param date      the date interval to filter by.
      * @param eCategory the category to filter by.
-     * @return a HTTP request.
+     * @param request   the request, used for conditional responses.
+     * @return a HTTP request, or null if the client copy is current.
      */
     @GetMapping(value = "/stats", produces = "application/json")
     @ResponseBody
@@ -187,87 +185,181 @@ public class GetFitController {
             final @RequestParam(value = "d")
                 String date,
             final @RequestParam(value = "c", required = false)
-                String eCategory) {
+                String eCategory,
+            final WebRequest request) {
+        if (request.checkNotModified(getfitService.getDataTag())) {
+            return null;
+        }
 
         String requestCategory = eCategory;
         if (requestCategory != null) {
             requestCategory = requestCategory.toUpperCase();
         }
 
-        HashMap<String, String> map = new HashMap<>();
+        SlowQueryLog.Trace trace = slowQueryLog.start("/api/v1/entries/stats",
+            SlowQueryLog.statisticsParameters(date, requestCategory));
+        String response =
+            getfitService.statistics(requestCategory, date, trace);
+        slowQueryLog.finish(trace);
+        return response;
+    }
 
-        if (getfitService.getEntryManager().entryCount() == 0) {
-            map.put("empty", "True");
-        } else {
-            map.put("empty", "False");
+    /**
+     * Gets chart data for statistics.
+     *
+     * @param date    the date interval to filter by.
+     * @param request the request, used for conditional responses.
+     * @return a HTTP request, or null if the client copy is current.
+     */
+    @GetMapping(value = "/chart", produces = "application/json")
+    @ResponseBody
+    public String getChartData(
+            final @RequestParam(value = "d") String date,
+            final WebRequest request) {
+        if (request.checkNotModified(getfitService.getDataTag())) {
+            return null;
         }
 
-        map.put("count", Integer.toString(
-            Statistics.getCount(
-                getfitService.getEntryManager(),
-                requestCategory,
-                date)));
-
-        map.put("totalDuration", GetFitService.convertFromSecondsToHours(
-            Statistics.getTotalDuration(
-                getfitService.getEntryManager(),
-                requestCategory,
-                date)));
-
-        map.put("averageDuration", GetFitService.convertFromSecondsToHours(
-            Statistics.getAverageDuration(
-                getfitService.getEntryManager(),
-                requestCategory,
-                date)));
+        SlowQueryLog.Trace trace = slowQueryLog.start("/api/v1/entries/chart",
+            SlowQueryLog.chartParameters(date));
+        String response = getfitService.chart(date, trace);
+        slowQueryLog.finish(trace);
+        return response;
+    }
 
+    /**
+     * Gets the statistics, the chart data and the list of entries of a
+     * screen in one request, computed in one pass over the entries.
+     *
+     * @param date      the date interval to filter by.
+     * @param eCategory the category to filter the statistics and entries
+     *                  by.
+     * @param sortType  the sorting configuration of the entries.
+     * @param reverse   whether to reverse the entries.
+     * @param entries   whether to give the entries, or only the
+     *                  statistics and chart data.
+     * @param request   the request, used for conditional responses.
+     * @return a HTTP request, or null if the client copy is current.
+     * @throws IllegalArgumentException if the query is invalid.
+     */
+    @GetMapping(value = "/dashboard", produces = "application/json")
+    @ResponseBody
+    public String getDashboardData(
+            final @RequestParam(value = "d") String date,
+            final @RequestParam(value = "c", required = false)
+                String eCategory,
+            final @RequestParam(value = "s", defaultValue = "date")
+                String sortType,
+            final @RequestParam(value = "r", defaultValue = "false")
+                String reverse,
+            final @RequestParam(value = "e", defaultValue = "true")
+                String entries,
+            final WebRequest request) throws IllegalArgumentException {
+        if (request.checkNotModified(getfitService.getDataTag())) {
+            return null;
+        }
 
-        map.put("averageFeeling", Double.toString(
-            Statistics.getAverageFeeling(
-                getfitService.getEntryManager(),
-                requestCategory,
-                date)));
+        String requestCategory = eCategory;
+        if (requestCategory != null) {
+            requestCategory = requestCategory.toUpperCase();
+        }
 
-        map.put("averageSpeed", Double.toString(
-            Statistics.getAverageSpeed(
-                getfitService.getEntryManager(),
-                requestCategory, date)
-        ));
+        boolean withEntries = Boolean.parseBoolean(entries);
+        SlowQueryLog.Trace trace = slowQueryLog.start(
+            "/api/v1/entries/dashboard", SlowQueryLog.listParameters(
+                sortType, reverse, requestCategory, null, date)
+                + "&e=" + withEntries);
+        String response = getfitService.dashboard(requestCategory, date,
+            sortType, Boolean.parseBoolean(reverse), withEntries, trace);
+        slowQueryLog.finish(trace);
+        return response;
+    }
 
-        map.put("maximumHr", Double.toString(
-            Statistics.getMaximumHr(
-                getfitService.getEntryManager(),
-                requestCategory,
-                date)));
+    /**
+     * Gets hit and miss counters of the statistics cache, and how many
+     * statistics requests shared a computation with another.
+     *
+     * @return a HTTP request.
+     */
+    @GetMapping(value = "/cache", produces = "application/json")
+    @ResponseBody
+    public String getCacheData() {
+        ResultCache cache = getfitService.getStatisticsCache();
+        JSONObject jsonReturn = new JSONObject();
 
-        JSONObject jsonReturn = new JSONObject(map);
+        jsonReturn.put("hits", cache.getHits());
+        jsonReturn.put("misses", cache.getMisses());
+        jsonReturn.put("size", cache.size());
+        jsonReturn.put("coalesced",
+            getfitService.getStatisticsFlights().getCoalesced());
 
         return jsonReturn.toString();
     }
 
     /**
-     * Gets chart data for statistics.
+     * Gets the entries added and removed after a version, so a client
+     * holding a copy of the entries only fetches what changed. If the
+     * epoch differs from the server's, every entry is given instead,
+     * marked as a reset.
      *
-     * @param date the date interval to filter by.
+     * @param version the version of the client's copy.
+     * @param epoch   the epoch of the client's copy.
      * @return a HTTP request.
+     * @throws IllegalArgumentException if the version is malformed.
+     * @throws IOException              if the response could not be written.
      */
-    @GetMapping(value = "/chart", produces = "application/json")
+    @GetMapping(value = "/since/{version}", produces = "application/json")
     @ResponseBody
-    public String getChartData(
-            final @RequestParam(value = "d") String date) {
-        List<String> categorylist = Arrays.asList(
-                "swimming", "running", "strength", "cycling");
-
-        HashMap<String, String> map = new HashMap<>();
-
-        categorylist.forEach(category -> map.put(category, Integer.toString(
-            Statistics.getCount(
-                getfitService.getEntryManager(),
-                category.toUpperCase(),
-                date))));
+    public String getChangesSince(
+            final @PathVariable("version") String version,
+            final @RequestParam(value = "epoch", defaultValue = "")
+                    String epoch)
+            throws IllegalArgumentException, IOException {
+        long since = Long.parseLong(version);
+        EntryManager.Delta delta = getfitService.read(
+            () -> getfitService.getEntryManager().changesSince(epoch, since));
+
+        StringBuilder jsonReturn = new StringBuilder("{\"epoch\":");
+        LogEntryJson.quote(delta.epoch(), jsonReturn);
+        jsonReturn.append(",\"version\":").append(delta.version())
+            .append(",\"reset\":").append(delta.reset())
+            .append(",\"added\":");
+        LogEntryJson.writeArray(delta.added().iterator(), jsonReturn);
+        jsonReturn.append(",\"removed\":[");
+        for (int i = 0; i < delta.removed().size(); i++) {
+            if (i > 0) {
+                jsonReturn.append(',');
+            }
+            LogEntryJson.quote(delta.removed().get(i), jsonReturn);
+        }
 
-        JSONObject jsonReturn = new JSONObject(map);
+        return jsonReturn.append("]}").toString();
+    }
 
-        return jsonReturn.toString();
+    /**
+     * Streams entry additions and removals as server-sent events.
+     * A reconnecting client resumes after the Last-Event-ID header,
+     * or after the since parameter if the header is missing.
+     *
+     * @param since       the last sequence number the client has seen.
+     * @param lastEventId the id of the last event the client received.
+     * @return the event stream.
+     * @throws IllegalArgumentException if a sequence number is malformed.
+     */
+    @GetMapping(value = "/changes", produces = "text/event-stream")
+    public SseEmitter getChanges(
+            final @RequestParam(value = "since", required = false)
+                    String since,
+            final @RequestHeader(value = "Last-Event-ID", required = false)
+                    String lastEventId)
+            throws IllegalArgumentException {
+        long from = -1;
+        if (lastEventId != null) {
+            from = Long.parseLong(lastEventId);
+        } else if (since != null) {
+            from = Long.parseLong(since);
+        }
+        return getfitService.getChangeFeed().subscribe(from);
     }
 
     /**
@@ -278,11 +370,7 @@ public class GetFitController {
      */
     @PostMapping(value = "/add", produces = "application/json")
     public String addLogEntry(final @RequestBody String logEntry) {
-        String id = getfitService
-            .getEntryManager()
-            .addEntry(stringToEntry(logEntry));
-
-        getfitService.save();
+        String id = getfitService.addEntry(stringToEntry(logEntry));
         return "{\"id\":\"" + id + "\" }";
     }
 
@@ -293,9 +381,7 @@ public class GetFitController {
      */
     @PostMapping(value = "remove/{entryId}", produces = "application/json")
     public void removeLogEntry(final @PathVariable("entryId") String id) {
-        if (getfitService.getEntryManager().removeEntry(id)) {
-            getfitService.save();
-        } else {
+        if (!getfitService.removeEntry(id)) {
             throw new NoSuchElementException(
                 HttpStatus.NOT_FOUND + "Entry not found");
         }
@@ -305,64 +391,10 @@ public class GetFitController {
      * Convert a log entry from a string to a LogEntry.
      * @param logEntry Log entry to convert.
      * @return LogEntry
+     * @throws IllegalArgumentException if the entry is malformed or invalid.
      */
-    private LogEntry stringToEntry(final String logEntry) {
-        JSONObject jsonObject = new JSONObject(logEntry);
-        HashMap<String, String> entryHash = new HashMap<>();
-
-        entryHash.put("title", jsonObject.getString("title"));
-        entryHash.put("comment", jsonObject.getString("comment"));
-        entryHash.put("date", jsonObject.getString("date"));
-        entryHash.put("feeling", jsonObject.getString("feeling"));
-        entryHash.put("distance", jsonObject.getString("distance"));
-        entryHash.put("duration", jsonObject.getString("duration"));
-        entryHash.put("maxHeartRate", jsonObject.getString("maxHeartRate"));
-        entryHash.put("exerciseCategory",
-                jsonObject.getString("exerciseCategory"));
-        entryHash.put("exerciseSubCategory",
-                jsonObject.getString("exerciseSubCategory"));
-
-        return LogEntry.fromHash(entryHash);
-    }
-
-    /**
-     * Handles IllegalArgumentException.
-     *
-     * @param ia the exception.
-     * @return the exception message.
-     */
-    @ExceptionHandler(IllegalArgumentException.class)
-    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
-    @ResponseBody
-    public String handleIllegalArgumentException(
-            final IllegalArgumentException ia) {
-        return ia.getMessage();
-    }
-
-    /**
-     * Handles IOExceptions.
-     *
-     * @param io the exception.
-     * @return the exception message.
-     */
-    @ExceptionHandler(IOException.class)
-    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
-    @ResponseBody
-    public String handleIOException(final IOException io) {
-        return io.getMessage();
-    }
-
-    /**
-     * Handles NoSuchElementException.
-     *
-     * @param rse the exception.
-     * @return the exception message.
-     */
-    @ExceptionHandler(NoSuchElementException.class)
-    @ResponseStatus(value = HttpStatus.NOT_FOUND)
-    @ResponseBody
-    public String handleNoSuchElementException(
-            final NoSuchElementException rse) {
-        return rse.getMessage();
+    private LogEntry stringToEntry(final String logEntry)
+            throws IllegalArgumentException {
+        return LogEntryJson.parse(logEntry);
     }
 }
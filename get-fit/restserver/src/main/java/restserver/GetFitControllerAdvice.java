@@ -0,0 +1,72 @@
+package restserver;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Turns the exceptions of the entry endpoints into responses, the same
+ * for every API version: malformed requests into 400 Bad Request and
+ * missing entries into 404 Not Found, and changes that could not be
+ * saved into 500 Internal Server Error, with the exception message as
+ * the body.
+ */
+@RestControllerAdvice(assignableTypes = {GetFitController.class,
+    GetFitControllerV2.class, GetFitReactiveController.class})
+public class GetFitControllerAdvice {
+    /**
+     * Handles IllegalArgumentException.
+     *
+     * @param ia the exception.
+     * @return the exception message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgumentException(
+            final IllegalArgumentException ia) {
+        return ia.getMessage();
+    }
+
+    /**
+     * Handles IOExceptions.
+     *
+     * @param io the exception.
+     * @return the exception message.
+     */
+    @ExceptionHandler(IOException.class)
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+    public String handleIOException(final IOException io) {
+        return io.getMessage();
+    }
+
+    /**
+     * Handles UncheckedIOExceptions, thrown when a change could not be
+     * saved.
+     *
+     * @param io the exception.
+     * @return the exception message.
+     */
+    @ExceptionHandler(UncheckedIOException.class)
+    @ResponseStatus(value = HttpStatus.INTERNAL_SERVER_ERROR)
+    public String handleUncheckedIOException(final UncheckedIOException io) {
+        return io.getMessage();
+    }
+
+    /**
+     * Handles NoSuchElementException.
+     *
+     * @param rse the exception.
+     * @return the exception message.
+     */
+    @ExceptionHandler(NoSuchElementException.class)
+    @ResponseStatus(value = HttpStatus.NOT_FOUND)
+    public String handleNoSuchElementException(
+            final NoSuchElementException rse) {
+        return rse.getMessage();
+    }
+}
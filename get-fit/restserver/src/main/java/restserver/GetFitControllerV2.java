@@ -0,0 +1,149 @@
+package restserver;
+
+import core.LogEntry;
+import core.LogEntryJson;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Version 2 of the entry endpoints. Entries are sent and received as
+ * typed JSON, with numbers as JSON numbers and absent optional fields as
+ * JSON null, instead of the strings of version 1. Shares its
+ * GetFitService with the version 1 controller, so both see the same
+ * entries.
+ */
+@RestController
+@RequestMapping("/api/v2/entries")
+public class GetFitControllerV2 {
+    /**
+     * Core accessor, shared with the version 1 controller.
+     */
+    private final GetFitService getfitService;
+    /**
+     * Log of slow list requests, shared with the version 1 controller.
+     */
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Creates the controller.
+     *
+     * @param service the core accessor, injected by Spring.
+     * @param log     the log of slow requests, injected by Spring.
+     */
+    public GetFitControllerV2(final GetFitService service,
+                              final SlowQueryLog log) {
+        this.getfitService = service;
+        this.slowQueryLog = log;
+    }
+
+    /**
+     * Gives an entry by its id.
+     *
+     * @param id      an integer.
+     * @param request the request, used for conditional responses.
+     * @return a HTTP request, or null if the client copy is current.
+     */
+    @GetMapping(value = "/{entryId}", produces = "application/json")
+    public String getLogEntry(final @PathVariable("entryId") String id,
+                              final WebRequest request) {
+        if (request.checkNotModified(getfitService.getDataTag())) {
+            return null;
+        }
+
+        LogEntry entry;
+        try {
+            entry = getfitService.read(
+                () -> getfitService.getEntryManager().getEntry(id));
+        } catch (IllegalArgumentException e) {
+            throw new NoSuchElementException(
+                HttpStatus.NOT_FOUND + "Entry not found" + e);
+        }
+        return LogEntryJson.toTypedJson(entry);
+    }
+
+    /**
+     * Gets a sorted list of entries.
+     *
+     * @param sortType    the sorting configuration.
+     * @param reverse     whether to reverse the list.
+     * @param category    the category to filter by.
+     * @param subCategory the sub-category to filter by.
+     * @param date        the date interval to filter by.
+     * @param request     the request, used for conditional responses.
+     * @return a HTTP request, or null if the client copy is current.
+     * @throws IOException if the response could not be written.
+     */
+    @GetMapping(value = "/list", produces = "application/json")
+    @ResponseBody
+    public String getListOfLogEntries(
+            final @RequestParam(value = "s", defaultValue = "date")
+                    String sortType,
+            final @RequestParam(value = "r", defaultValue = "false")
+                    String reverse,
+            final @RequestParam(value = "c", required = false)
+                    String category,
+            final @RequestParam(value = "sc", required = false)
+                    String subCategory,
+            final @RequestParam(value = "d", required = false)
+                    String date,
+            final WebRequest request)
+            throws IllegalArgumentException, IOException {
+        if (request.checkNotModified(getfitService.getDataTag())) {
+            return null;
+        }
+
+        SlowQueryLog.Trace trace = slowQueryLog.start("/api/v2/entries/list",
+            SlowQueryLog.listParameters(sortType, reverse, category,
+                subCategory, date));
+        List<LogEntry> entries = getfitService.listEntries(
+            sortType, Boolean.parseBoolean(reverse), category, subCategory,
+            date, trace);
+        trace.query();
+
+        StringBuilder returnJSON = new StringBuilder("{\"entries\":");
+        LogEntryJson.writeTypedArray(entries.iterator(), returnJSON);
+        String response = returnJSON.append('}').toString();
+        trace.serialization();
+        slowQueryLog.finish(trace);
+        return response;
+    }
+
+    /**
+     * Saves a logEntry to the server.
+     *
+     * @param logEntry the typed json represented logEntry.
+     * @return a HTTP request.
+     * @throws IllegalArgumentException if the entry is malformed or invalid.
+     */
+    @PostMapping(value = "/add", produces = "application/json")
+    public String addLogEntry(final @RequestBody String logEntry)
+            throws IllegalArgumentException {
+        String id = getfitService.addEntry(LogEntryJson.parseTyped(logEntry));
+        return "{\"id\":\"" + id + "\"}";
+    }
+
+    /**
+     * Deletes an entry by its id.
+     *
+     * @param id the entry id to delete by.
+     */
+    @PostMapping(value = "remove/{entryId}", produces = "application/json")
+    public void removeLogEntry(final @PathVariable("entryId") String id) {
+        if (!getfitService.removeEntry(id)) {
+            throw new NoSuchElementException(
+                HttpStatus.NOT_FOUND + "Entry not found");
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package restserver;
+
+import core.LogEntry;
+import core.LogEntryJson;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking variant of the version 1 entry endpoints. Every request
+ * is handed to a worker and the request thread returned to Tomcat at
+ * once. Lists are listed on a worker, then streamed as newline delimited
+ * JSON, one entry per line, with non-blocking servlet output: a batch is
+ * serialized and written only when the client can take it, so a slow
+ * client holds neither a worker nor a request thread while it reads,
+ * and only one batch of the list is ever serialized at a time. The
+ * listed entries themselves are a snapshot, taken at once under the
+ * read lock. Additions and removals are saved on a worker.
+ * Workers are a fixed pool of platform threads, or a virtual thread per
+ * request when getfit.virtual-threads is set and the Java runtime has
+ * them.
+ * Shares its GetFitService with the other controllers, so all see the
+ * same entries.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/entries")
+public class GetFitReactiveController implements DisposableBean {
+    /**
+     * Entries written to a list response at a time.
+     */
+    public static final int BATCH_SIZE = 64;
+    /**
+     * How long a list response may take, in milliseconds.
+     */
+    private static final long LIST_TIMEOUT = 5L * 60 * 1000;
+    /**
+     * Platform threads running requests, when not on virtual threads.
+     */
+    private static final int WORKERS = 32;
+
+    /**
+     * Core accessor, shared with the other controllers.
+     */
+    private final GetFitService getfitService;
+    /**
+     * Log of slow list, statistics and chart requests.
+     */
+    private final SlowQueryLog slowQueryLog;
+    /**
+     * Runs the requests after they leave their request thread.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Creates the controller.
+     *
+     * @param service        the core accessor, injected by Spring.
+     * @param log            the log of slow requests, injected by Spring.
+     * @param virtualThreads whether to run requests on virtual threads,
+     *                       the getfit.virtual-threads property.
+     */
+    public GetFitReactiveController(
+            final GetFitService service,
+            final SlowQueryLog log,
+            final @Value("${getfit.virtual-threads:false}")
+                boolean virtualThreads) {
+        this.getfitService = service;
+        this.slowQueryLog = log;
+        ExecutorService virtual = virtualThreads
+            ? VirtualThreadConfiguration.newVirtualThreadExecutor() : null;
+        this.workers = virtual != null ? virtual
+            : Executors.newFixedThreadPool(WORKERS, runnable -> {
+                Thread worker = new Thread(runnable, "reactive-worker");
+                worker.setDaemon(true);
+                return worker;
+            });
+    }
+
+    /**
+     * Streams a sorted list of entries, one JSON entry per line. The
+     * response is completed asynchronously, with a 400 Bad Request if
+     * the query is invalid.
+     *
+     * @param sortType    the sorting configuration.
+     * @param reverse     whether to reverse the list.
+     * @param category    the category to filter by.
+     * @param subCategory the sub-category to filter by.
+     * @param date        the date interval to filter by.
+     * @param request     the request, made asynchronous.
+     * @param response    the response streamed to.
+     */
+    @GetMapping(value = "/list", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void getListOfLogEntries(
+            final @RequestParam(value = "s", defaultValue = "date")
+                    String sortType,
+            final @RequestParam(value = "r", defaultValue = "false")
+                    String reverse,
+            final @RequestParam(value = "c", required = false)
+                    String category,
+            final @RequestParam(value = "sc", required = false)
+                    String subCategory,
+            final @RequestParam(value = "d", required = false)
+                    String date,
+            final HttpServletRequest request,
+            final HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        AsyncContext async = request.startAsync();
+        async.setTimeout(LIST_TIMEOUT);
+        this.workers.execute(() -> {
+            SlowQueryLog.Trace trace = slowQueryLog.start(
+                "/api/v1/reactive/entries/list",
+                SlowQueryLog.listParameters(sortType, reverse, category,
+                    subCategory, date));
+            List<LogEntry> entries;
+            try {
+                entries = getfitService.listEntries(sortType,
+                    Boolean.parseBoolean(reverse), category, subCategory,
+                    date, trace);
+            } catch (IllegalArgumentException e) {
+                refuse(async, response, e);
+                return;
+            }
+            trace.query();
+
+            OutputStreamSubscriber subscriber = new OutputStreamSubscriber(
+                async, BATCH_SIZE, () -> {
+                    trace.serialization();
+                    slowQueryLog.finish(trace);
+                });
+            async.addListener(subscriber);
+            new EntryPublisher(entries).subscribe(subscriber);
+        });
+    }
+
+    /**
+     * Gets statistic data about saved entries.
+     *
+     * @param date      the date interval to filter by.
+     * @param eCategory the category to filter by.
+     * @return the promise of the statistics.
+     */
+    @GetMapping(value = "/stats", produces = "application/json")
+    @ResponseBody
+    public CompletableFuture<String> getStatisticsData(
+            final @RequestParam(value = "d") String date,
+            final @RequestParam(value = "c", required = false)
+                String eCategory) {
+        String category = eCategory == null ? null : eCategory.toUpperCase();
+        return CompletableFuture.supplyAsync(() -> {
+            SlowQueryLog.Trace trace = slowQueryLog.start(
+                "/api/v1/reactive/entries/stats",
+                SlowQueryLog.statisticsParameters(date, category));
+            String response = getfitService.statistics(category, date, trace);
+            slowQueryLog.finish(trace);
+            return response;
+        }, this.workers);
+    }
+
+    /**
+     * Gets chart data for statistics.
+     *
+     * @param date the date interval to filter by.
+     * @return the promise of the entry count per category.
+     */
+    @GetMapping(value = "/chart", produces = "application/json")
+    @ResponseBody
+    public CompletableFuture<String> getChartData(
+            final @RequestParam(value = "d") String date) {
+        return CompletableFuture.supplyAsync(() -> {
+            SlowQueryLog.Trace trace = slowQueryLog.start(
+                "/api/v1/reactive/entries/chart",
+                SlowQueryLog.chartParameters(date));
+            String response = getfitService.chart(date, trace);
+            slowQueryLog.finish(trace);
+            return response;
+        }, this.workers);
+    }
+
+    /**
+     * Saves a logEntry to the server. The entry is parsed on the request
+     * thread, so a malformed entry is refused at once, then added and
+     * saved on a worker.
+     *
+     * @param logEntry the json represented logEntry.
+     * @return the promise of the id of the entry.
+     * @throws IllegalArgumentException if the entry is malformed or invalid.
+     */
+    @PostMapping(value = "/add", produces = "application/json")
+    public CompletableFuture<String> addLogEntry(
+            final @RequestBody String logEntry)
+            throws IllegalArgumentException {
+        LogEntry entry = LogEntryJson.parse(logEntry);
+        return CompletableFuture.supplyAsync(
+            () -> "{\"id\":\"" + getfitService.addEntry(entry) + "\"}",
+            this.workers);
+    }
+
+    /**
+     * Deletes an entry by its id, saving on a worker.
+     *
+     * @param id the entry id to delete by.
+     * @return the promise of the removal, completed exceptionally with
+     * NoSuchElementException if there was no entry with the id.
+     */
+    @PostMapping(value = "remove/{entryId}", produces = "application/json")
+    public CompletableFuture<Void> removeLogEntry(
+            final @PathVariable("entryId") String id) {
+        return CompletableFuture.runAsync(() -> {
+            if (!getfitService.removeEntry(id)) {
+                throw new NoSuchElementException(
+                    HttpStatus.NOT_FOUND + "Entry not found");
+            }
+        }, this.workers);
+    }
+
+    /**
+     * Answers an asynchronous list request with 400 Bad Request and the
+     * message of the exception, as GetFitControllerAdvice would. The
+     * message is short, so it is written blocking.
+     *
+     * @param async    the asynchronous request.
+     * @param response the response.
+     * @param error    why the request is refused.
+     */
+    private static void refuse(final AsyncContext async,
+                               final HttpServletResponse response,
+                               final IllegalArgumentException error) {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try {
+            if (error.getMessage() != null) {
+                response.getOutputStream().write(
+                    error.getMessage().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException ignored) {
+        } finally {
+            async.complete();
+        }
+    }
+
+    /**
+     * Stops the workers when the server stops.
+     */
+    @Override
+    public void destroy() {
+        this.workers.shutdown();
+    }
+}
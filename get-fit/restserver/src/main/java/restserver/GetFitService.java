@@ -1,21 +1,84 @@
 package restserver;
 
+import core.CardioSubCategory;
 import core.EntryManager;
+import core.ExerciseCategory;
+import core.LogEntry;
+import core.LogEntryJson;
+import core.SortConfiguration;
+import core.StrengthSubCategory;
+import core.Subcategory;
 import localpersistence.EntrySaverJson;
+import math.Statistics;
+import math.StatisticsSummary;
+import org.json.JSONObject;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * Gives the server access
  * to methods from core and local-persistence.
+ * A single instance is shared by the controllers of every API version.
+ * Requests are served concurrently, so the EntryManager is only read
+ * through {@link #read(Supplier)}, and only changed by the methods of
+ * this class, which hold the write lock.
  */
 @Service
-public class GetFitService {
+public class GetFitService implements DisposableBean {
+    /**
+     * Length of one piece of date format.
+     */
+    private static final int DATE_FORMAT_LENGTH = 10;
+    /**
+     * Maximum amount of cached statistics results.
+     */
+    private static final int CACHE_SIZE = 256;
+    /**
+     * How long a cached statistics result may be served.
+     */
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+    /**
+     * Maximum amount of changes kept for resuming change feeds.
+     */
+    private static final int CHANGE_HISTORY = 1024;
     /**
      * The session's entryManager.
      */
     private final EntryManager entryManager;
+    /**
+     * Cache for statistics and chart results.
+     */
+    private final ResultCache statisticsCache =
+        new ResultCache(CACHE_SIZE, CACHE_TTL);
+    /**
+     * Coalesces identical statistics and chart computations missing the
+     * cache at the same time.
+     */
+    private final SingleFlight statisticsFlights = new SingleFlight();
+    /**
+     * Feed of entry additions and removals.
+     */
+    private final ChangeFeed changeFeed;
+    /**
+     * Guards the entryManager. Many requests may read at once, while
+     * additions and removals change it alone.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Request and persistence metrics.
+     */
+    private final ServerMetrics metrics = new ServerMetrics();
+
     /**
      * Create a new EntryManager object on initialization
      * and loads data from local-persistence.
@@ -23,6 +86,16 @@ public class GetFitService {
     public GetFitService() {
         this.entryManager = new EntryManager();
         load();
+        this.changeFeed =
+            new ChangeFeed(CHANGE_HISTORY, this.entryManager.getVersion());
+    }
+
+    /**
+     * Closes the change feed when the server stops.
+     */
+    @Override
+    public void destroy() {
+        this.changeFeed.close();
     }
 
     /**
@@ -43,32 +116,520 @@ public class GetFitService {
      * the content of the save file to the entryManager.
      */
     public void load() {
+        long start = System.nanoTime();
         try {
             EntrySaverJson.load(this.entryManager);
         } catch (IllegalArgumentException | IOException e) {
             e.printStackTrace();
+        } finally {
+            this.metrics.recordLoad(System.nanoTime() - start);
         }
     }
 
     /**
      * Use EntrySaverJson from local-persistence to save
      * the state of the EntryManager to file.
+     *
+     * @throws UncheckedIOException if the entries could not be saved.
      */
-    public void save() {
+    public void save() throws UncheckedIOException {
+        long start = System.nanoTime();
         try {
             EntrySaverJson.save(this.entryManager);
-        } catch (IllegalArgumentException | IOException e) {
-            e.printStackTrace();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save the entries", e);
+        } finally {
+            this.metrics.recordSave(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Lists the entries sorted and filtered by the query parameters
+     * of a list request. Unknown categories and malformed dates are
+     * not filtered by. The entries are read, sorted and filtered under
+     * the read lock, so a list never mixes entries of two versions.
+     *
+     * @param sortType    the sorting configuration.
+     * @param reverse     whether to reverse the list.
+     * @param category    the category to filter by, or null.
+     * @param subCategory the sub-category to filter by, or null.
+     * @param date        the date interval to filter by, or null.
+     * @param trace       the timing of the request, given the entry counts.
+     * @return the listed entries, in order.
+     * @throws IllegalArgumentException if the sorting is unknown,
+     *                                  or a sub-category has no category.
+     */
+    protected List<LogEntry> listEntries(final String sortType,
+                                         final boolean reverse,
+                                         final String category,
+                                         final String subCategory,
+                                         final String date,
+                                         final SlowQueryLog.Trace trace)
+            throws IllegalArgumentException {
+        final SortConfiguration sortConfiguration =
+            SortConfiguration.valueOf(sortType.toUpperCase());
+
+        return read(() -> {
+            EntryManager.SortedIteratorBuilder iteratorBuilder =
+                new EntryManager.SortedIteratorBuilder(
+                    this.entryManager,
+                    sortConfiguration);
+
+            if (category != null) {
+                String categoryUpper = category.toUpperCase();
+                try {
+                    ExerciseCategory categories =
+                        ExerciseCategory.valueOf(categoryUpper);
+                    iteratorBuilder =
+                        iteratorBuilder.filterExerciseCategory(categories);
+
+                    Subcategory subcategories;
+
+                    if (subCategory != null) {
+                        subcategories = switch (categoryUpper) {
+                            case "STRENGTH" -> StrengthSubCategory.valueOf(
+                                subCategory.toUpperCase());
+                            case "SWIMMING", "CYCLING", "RUNNING" ->
+                                CardioSubCategory.valueOf(
+                                subCategory.toUpperCase());
+                            default -> null;
+                        };
+
+                        iteratorBuilder = iteratorBuilder
+                            .filterSubCategory(subcategories);
+                    }
+                } catch (IllegalArgumentException ignored) { }
+
+            } else {
+                if (subCategory != null) {
+                    throw new IllegalArgumentException();
+                }
+            }
+
+            try {
+                if (date != null) {
+                    iteratorBuilder = iteratorBuilder.filterTimeInterval(
+                        LocalDate.parse(date.substring(0,
+                            DATE_FORMAT_LENGTH)),
+                        LocalDate.parse(
+                            date.substring(DATE_FORMAT_LENGTH + 1)));
+                }
+            } catch (IllegalArgumentException ignored) { }
+
+            List<LogEntry> entries = iteratorBuilder.list(reverse);
+            trace.entries(this.entryManager.entryCount(), entries.size());
+            return entries;
+        });
+    }
+
+    /**
+     * Gives the statistics of the entries, from the cache if they were
+     * computed for the current entries. Identical requests missing the
+     * cache at the same time share one computation.
+     *
+     * @param category the upper case category to filter by, or null.
+     * @param date     the date interval to filter by.
+     * @param trace    the timing of the request.
+     * @return the statistics as a JSON string.
+     */
+    protected String statistics(final String category, final String date,
+                                final SlowQueryLog.Trace trace) {
+        String key = "stats?d=" + date + "&c=" + category;
+        return cached(key, trace, () -> computeStatisticsData(
+            this.entryManager, category, date, trace));
+    }
+
+    /**
+     * Gives a response from the statistics cache if it was computed for
+     * the current entries, else from an identical computation in
+     * progress, else computes it, all under the read lock. Where the
+     * response came from, and how long the request waited for it when
+     * it did not compute it, is recorded in the trace, so cache hits
+     * and coalesced requests are told apart in the SlowQueryLog.
+     *
+     * @param key     the normalized query.
+     * @param trace   the timing of the request.
+     * @param compute computes the response, bypassing the cache.
+     * @return the response.
+     */
+    private String cached(final String key, final SlowQueryLog.Trace trace,
+                          final Supplier<String> compute) {
+        return read(() -> {
+            long version = this.entryManager.getVersion();
+            trace.served(SlowQueryLog.Served.CACHE);
+            String response = this.statisticsCache.get(key, version, () -> {
+                trace.served(SlowQueryLog.Served.COALESCED);
+                return this.statisticsFlights.get(key, version, () -> {
+                    trace.served(SlowQueryLog.Served.COMPUTED);
+                    return compute.get();
+                });
+            });
+            trace.waited();
+            return response;
+        });
+    }
+
+    /**
+     * Computes the statistics response, bypassing the cache.
+     *
+     * @param entryManager the entries to compute statistics over.
+     * @param category     the upper case category to filter by, or null.
+     * @param date         the date interval to filter by.
+     * @param trace        the timing of the request.
+     * @return the statistics as a JSON string.
+     */
+    private static String computeStatisticsData(
+            final EntryManager entryManager,
+            final String category,
+            final String date,
+            final SlowQueryLog.Trace trace) {
+        HashMap<String, String> map = new HashMap<>();
+
+        if (entryManager.entryCount() == 0) {
+            map.put("empty", "True");
+        } else {
+            map.put("empty", "False");
+        }
+
+        int count = Statistics.getCount(entryManager, category, date);
+        map.put("count", Integer.toString(count));
+
+        map.put("totalDuration", convertFromSecondsToHours(
+            Statistics.getTotalDuration(entryManager, category, date)));
+
+        map.put("averageDuration", convertFromSecondsToHours(
+            Statistics.getAverageDuration(entryManager, category, date)));
+
+        map.put("averageFeeling", Double.toString(
+            Statistics.getAverageFeeling(entryManager, category, date)));
+
+        map.put("averageSpeed", Double.toString(
+            Statistics.getAverageSpeed(entryManager, category, date)));
+
+        map.put("maximumHr", Double.toString(
+            Statistics.getMaximumHr(entryManager, category, date)));
+        trace.entries(entryManager.entryCount(), count);
+        trace.statistics();
+
+        JSONObject jsonReturn = new JSONObject(map);
+
+        String response = jsonReturn.toString();
+        trace.serialization();
+        return response;
+    }
+
+    /**
+     * Gives the entry count per category for the statistics chart, from
+     * the cache if it was computed for the current entries. Identical
+     * requests missing the cache at the same time share one computation.
+     *
+     * @param date  the date interval to filter by.
+     * @param trace the timing of the request.
+     * @return the entry count per category as a JSON string.
+     */
+    protected String chart(final String date,
+                           final SlowQueryLog.Trace trace) {
+        String key = "chart?d=" + date;
+        return cached(key, trace,
+            () -> computeChartData(this.entryManager, date, trace));
+    }
+
+    /**
+     * Computes the chart response, bypassing the cache.
+     *
+     * @param entryManager the entries to count.
+     * @param date         the date interval to filter by.
+     * @param trace        the timing of the request.
+     * @return the entry count per category as a JSON string.
+     */
+    private static String computeChartData(
+            final EntryManager entryManager,
+            final String date,
+            final SlowQueryLog.Trace trace) {
+        List<String> categorylist = Arrays.asList(
+                "swimming", "running", "strength", "cycling");
+
+        HashMap<String, String> map = new HashMap<>();
+        int counted = 0;
+
+        for (String category : categorylist) {
+            int count = Statistics.getCount(entryManager,
+                category.toUpperCase(), date);
+            map.put(category, Integer.toString(count));
+            counted += count;
+        }
+        trace.entries(entryManager.entryCount(), counted);
+        trace.statistics();
+
+        JSONObject jsonReturn = new JSONObject(map);
+
+        String response = jsonReturn.toString();
+        trace.serialization();
+        return response;
+    }
+
+    /**
+     * Gives the statistics, the chart data and the entries of a category
+     * in a date interval together, gathered in one pass over the entries,
+     * from the cache if they were computed for the current entries.
+     * Identical requests missing the cache at the same time share one
+     * computation. Without the entries, they are summarized unsorted
+     * and not collected, and screens sorting differently share their
+     * cached response.
+     *
+     * @param category the upper case category to filter by, or null.
+     * @param date     the date interval to filter by.
+     * @param sortType the sorting configuration of the entries.
+     * @param reverse  whether to reverse the entries.
+     * @param entries  whether to give the entries, or only the
+     *                 statistics and chart data.
+     * @param trace    the timing of the request.
+     * @return the statistics, chart data and entries as a JSON string.
+     * @throws IllegalArgumentException if the sorting configuration is
+     *                                  invalid.
+     */
+    protected String dashboard(final String category, final String date,
+                               final String sortType, final boolean reverse,
+                               final boolean entries,
+                               final SlowQueryLog.Trace trace)
+            throws IllegalArgumentException {
+        SortConfiguration sort =
+            SortConfiguration.valueOf(sortType.toUpperCase());
+        String key = "dashboard?d=" + date + "&c=" + category
+            + (entries ? "&s=" + sort + "&r=" + reverse : "&e=false");
+        return cached(key, trace, () -> computeDashboardData(
+            this.entryManager, entries
+                ? Statistics.summarize(this.entryManager, category, date,
+                    sort, reverse)
+                : Statistics.summarize(this.entryManager, category, date),
+            entries, trace));
+    }
+
+    /**
+     * Writes the dashboard response, bypassing the cache. The statistics
+     * and chart data are those of the statistics and chart responses.
+     *
+     * @param entryManager the entries summarized.
+     * @param summary      the summary of the entries.
+     * @param entries      whether to write the entries.
+     * @param trace        the timing of the request.
+     * @return the statistics, chart data and entries as a JSON string.
+     */
+    private static String computeDashboardData(
+            final EntryManager entryManager,
+            final StatisticsSummary summary,
+            final boolean entries,
+            final SlowQueryLog.Trace trace) {
+        trace.entries(entryManager.entryCount(), summary.getCount());
+        trace.statistics();
+
+        HashMap<String, String> statistics = new HashMap<>();
+        statistics.put("empty",
+            entryManager.entryCount() == 0 ? "True" : "False");
+        statistics.put("count", Integer.toString(summary.getCount()));
+        statistics.put("totalDuration",
+            convertFromSecondsToHours(summary.getTotalDuration()));
+        statistics.put("averageDuration",
+            convertFromSecondsToHours(summary.getAverageDuration()));
+        statistics.put("averageFeeling",
+            Double.toString(summary.getAverageFeeling()));
+        statistics.put("averageSpeed",
+            Double.toString(summary.getAverageSpeed()));
+        statistics.put("maximumHr", Double.toString(summary.getMaximumHr()));
+
+        HashMap<String, String> chart = new HashMap<>();
+        for (ExerciseCategory category : ExerciseCategory.values()) {
+            chart.put(category.name().toLowerCase(),
+                Integer.toString(summary.getCategoryCount(category)));
+        }
+
+        StringBuilder response = new StringBuilder("{\"statistics\":")
+            .append(new JSONObject(statistics))
+            .append(",\"chart\":").append(new JSONObject(chart));
+        if (entries) {
+            response.append(",\"entries\":");
+            try {
+                LogEntryJson.writeArray(summary.getEntries().iterator(),
+                    response);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        trace.serialization();
+        return response.append('}').toString();
+    }
+
+    /**
+     * Adds an entry, saves, and publishes the addition. Publishing only
+     * queues the change for the subscribers of the change feed, so the
+     * read lock is held in the order of the changes without waiting on
+     * any client. If saving fails, the entry is removed again and
+     * nothing is published.
+     *
+     * @param entry the entry to add.
+     * @return the id of the added entry.
+     * @throws UncheckedIOException if the entry could not be saved.
+     */
+    protected String addEntry(final LogEntry entry)
+            throws UncheckedIOException {
+        this.lock.writeLock().lock();
+        String id;
+        try {
+            id = this.entryManager.addEntry(entry);
+        } finally {
+            downgrade();
+        }
+        boolean saved = false;
+        try {
+            save();
+            saved = true;
+            this.changeFeed.publish(this.entryManager.getVersion(),
+                ChangeFeed.ADD, id, entry.toHash());
+        } finally {
+            this.lock.readLock().unlock();
+            if (!saved) {
+                undo(() -> this.entryManager.removeEntry(id));
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Removes an entry, saves, and publishes the removal. If saving
+     * fails, the entry is added again and nothing is published.
+     *
+     * @param id the id of the entry to remove.
+     * @return false if there was no entry with the id.
+     * @throws UncheckedIOException if the removal could not be saved.
+     */
+    protected boolean removeEntry(final String id)
+            throws UncheckedIOException {
+        this.lock.writeLock().lock();
+        LogEntry entry;
+        try {
+            entry = this.entryManager.getEntry(id);
+            this.entryManager.removeEntry(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        } finally {
+            downgrade();
+        }
+        boolean saved = false;
+        try {
+            save();
+            saved = true;
+            this.changeFeed.publish(this.entryManager.getVersion(),
+                ChangeFeed.REMOVE, id, null);
+        } finally {
+            this.lock.readLock().unlock();
+            if (!saved) {
+                undo(() -> this.entryManager.addEntry(id,
+                    LogEntry.fromTrustedHash(entry.toHash())));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Undoes a change that could not be saved, under the write lock, so
+     * the entries match what was last saved. Requests reading between
+     * the failed save and the undo may have seen the change.
+     *
+     * @param change undoes the change.
+     */
+    private void undo(final Runnable change) {
+        this.lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Trades the write lock for the read lock, so the change is saved
+     * and published while other requests read, but before any other
+     * change is made.
+     */
+    private void downgrade() {
+        this.lock.readLock().lock();
+        this.lock.writeLock().unlock();
+    }
+
+    /**
+     * Reads the EntryManager while no entry is being added or removed.
+     *
+     * @param <T>    the type of what is read.
+     * @param reader reads the EntryManager.
+     * @return what was read.
+     */
+    protected <T> T read(final Supplier<T> reader) {
+        this.lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            this.lock.readLock().unlock();
         }
     }
 
     /**
      * Allows other classes to access the EntryManager
-     * of this GetFitService.
+     * of this GetFitService, to be read through {@link #read(Supplier)}.
      *
      * @return the EntryManager from this GetFitService
      */
     protected EntryManager getEntryManager() {
         return this.entryManager;
     }
+
+    /**
+     * Gives an entity tag for responses derived from the entries.
+     * The tag changes whenever an entry is added or removed, and is
+     * built from the epoch of the EntryManager, the same one the changes
+     * since a version are given in, so versions from an earlier run are
+     * never mistaken for current ones.
+     *
+     * @return the quoted entity tag for the current data version.
+     */
+    protected String getDataTag() {
+        return "\"" + this.entryManager.getEpoch() + "-"
+            + read(this.entryManager::getVersion) + "\"";
+    }
+
+    /**
+     * Gives access to the cache for statistics and chart results.
+     *
+     * @return the statistics cache of this GetFitService.
+     */
+    protected ResultCache getStatisticsCache() {
+        return this.statisticsCache;
+    }
+
+    /**
+     * Gives access to the coalescing of statistics and chart
+     * computations.
+     *
+     * @return the statistics computations in progress.
+     */
+    protected SingleFlight getStatisticsFlights() {
+        return this.statisticsFlights;
+    }
+
+    /**
+     * Gives access to the feed of entry additions and removals.
+     *
+     * @return the change feed of this GetFitService.
+     */
+    protected ChangeFeed getChangeFeed() {
+        return this.changeFeed;
+    }
+
+    /**
+     * Gives access to the request and persistence metrics.
+     *
+     * @return the metrics of this GetFitService.
+     */
+    protected ServerMetrics getMetrics() {
+        return this.metrics;
+    }
 }
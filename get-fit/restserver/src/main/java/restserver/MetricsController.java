@@ -0,0 +1,102 @@
+package restserver;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Gives the metrics of the server in the Prometheus text format, and its
+ * log of slow requests. Only answers requests from the same machine.
+ */
+@RestController
+public class MetricsController {
+    /**
+     * Path of the metrics endpoint.
+     */
+    public static final String PATH = "/api/v1/metrics";
+    /**
+     * Path of the slow request log endpoint.
+     */
+    public static final String SLOW_QUERIES_PATH = "/api/v1/slow-queries";
+
+    /**
+     * Core accessor, shared with the entry controllers.
+     */
+    private final GetFitService getfitService;
+    /**
+     * Log of slow requests.
+     */
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Creates the controller.
+     *
+     * @param service the core accessor, injected by Spring.
+     * @param log     the log of slow requests, injected by Spring.
+     */
+    public MetricsController(final GetFitService service,
+                             final SlowQueryLog log) {
+        this.getfitService = service;
+        this.slowQueryLog = log;
+    }
+
+    /**
+     * Gives the metrics of the server.
+     *
+     * @param request the request, used to check where it came from.
+     * @return the metrics, or not found if the request is not local.
+     * @throws IOException if the metrics could not be written.
+     */
+    @GetMapping(value = PATH,
+        produces = "text/plain; version=0.0.4; charset=utf-8")
+    public ResponseEntity<String> getMetrics(
+            final HttpServletRequest request) throws IOException {
+        if (!isLocal(request.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        StringBuilder metrics = new StringBuilder();
+        getfitService.getMetrics().writePrometheus(metrics,
+            getfitService.read(
+                () -> getfitService.getEntryManager().entryCount()),
+            getfitService.getStatisticsCache(),
+            getfitService.getStatisticsFlights());
+        return ResponseEntity.ok(metrics.toString());
+    }
+
+    /**
+     * Gives the latest requests slower than the threshold, newest first.
+     *
+     * @param request the request, used to check where it came from.
+     * @return the slow requests, or not found if the request is not local.
+     */
+    @GetMapping(value = SLOW_QUERIES_PATH, produces = "application/json")
+    public ResponseEntity<String> getSlowQueries(
+            final HttpServletRequest request) {
+        if (!isLocal(request.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        return ResponseEntity.ok(slowQueryLog.toJson());
+    }
+
+    /**
+     * Checks whether an address is of this machine.
+     *
+     * @param address the address.
+     * @return true if the address is a loopback address.
+     */
+    private static boolean isLocal(final String address) {
+        try {
+            return InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package restserver;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Times every request and records it in the ServerMetrics of the
+ * GetFitService, by the path pattern of the endpoint that handled it,
+ * so requests for different entries count towards the same endpoint.
+ * Response sizes are taken from the Content-Length header, so streamed
+ * responses without one count as empty.
+ */
+@Component
+public class MetricsFilter extends OncePerRequestFilter {
+    /**
+     * Endpoint recorded for requests no endpoint handled.
+     */
+    private static final String UNMATCHED = "unmatched";
+
+    /**
+     * Where the requests are recorded.
+     */
+    private final ServerMetrics metrics;
+
+    /**
+     * Creates the filter.
+     *
+     * @param service the core accessor, injected by Spring.
+     */
+    public MetricsFilter(final GetFitService service) {
+        this.metrics = service.getMetrics();
+    }
+
+    /**
+     * Handles the request, then records how long it took and how large
+     * its request and response bodies were. Asynchronous requests are
+     * recorded once their response is complete.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param chain    the rest of the filters and the endpoint.
+     * @throws ServletException if the request could not be handled.
+     * @throws IOException      if the response could not be written.
+     */
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean handled = false;
+        try {
+            chain.doFilter(request, response);
+            handled = true;
+        } finally {
+            if (handled && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncRecorder(
+                    request, response, start));
+            } else {
+                record(request, response, start, handled
+                    ? response.getStatus()
+                    : HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Records a request.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param start    when the request started, from System.nanoTime().
+     * @param status   the response status.
+     */
+    private void record(final HttpServletRequest request,
+                        final HttpServletResponse response,
+                        final long start, final int status) {
+        Object pattern = request.getAttribute(
+            HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        this.metrics.recordRequest(request.getMethod(),
+            pattern == null ? UNMATCHED : pattern.toString(), status,
+            System.nanoTime() - start,
+            Math.max(0, request.getContentLengthLong()),
+            contentLength(response));
+    }
+
+    /**
+     * Leaves the metrics endpoint out of the metrics.
+     *
+     * @param request the request.
+     * @return true if the request is for the metrics.
+     */
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return request.getRequestURI().equals(MetricsController.PATH);
+    }
+
+    /**
+     * Gives the size of a response body.
+     *
+     * @param response the response.
+     * @return its Content-Length, or 0 if it has none.
+     */
+    private static long contentLength(final HttpServletResponse response) {
+        String length = response.getHeader("Content-Length");
+        try {
+            return length == null ? 0 : Long.parseLong(length);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Records an asynchronous request once its response is complete.
+     */
+    private final class AsyncRecorder implements AsyncListener {
+        /**
+         * The request.
+         */
+        private final HttpServletRequest request;
+        /**
+         * The response.
+         */
+        private final HttpServletResponse response;
+        /**
+         * When the request started, from System.nanoTime().
+         */
+        private final long start;
+
+        /**
+         * Creates the recorder of a request.
+         *
+         * @param asyncRequest  the request.
+         * @param asyncResponse the response.
+         * @param startTime     when the request started.
+         */
+        private AsyncRecorder(final HttpServletRequest asyncRequest,
+                              final HttpServletResponse asyncResponse,
+                              final long startTime) {
+            this.request = asyncRequest;
+            this.response = asyncResponse;
+            this.start = startTime;
+        }
+
+        /**
+         * Records the request.
+         *
+         * @param event the completion.
+         */
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            record(this.request, this.response, this.start,
+                this.response.getStatus());
+        }
+
+        /**
+         * Does nothing, as completion follows.
+         *
+         * @param event the timeout.
+         */
+        @Override
+        public void onTimeout(final AsyncEvent event) { }
+
+        /**
+         * Does nothing, as completion follows.
+         *
+         * @param event the error.
+         */
+        @Override
+        public void onError(final AsyncEvent event) { }
+
+        /**
+         * Does nothing.
+         *
+         * @param event the restart.
+         */
+        @Override
+        public void onStartAsync(final AsyncEvent event) { }
+    }
+}
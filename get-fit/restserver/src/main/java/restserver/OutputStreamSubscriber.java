@@ -0,0 +1,254 @@
+package restserver;
+
+import core.LogEntry;
+import core.LogEntryJson;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+
+/**
+ * Writes published entries to an asynchronous response as newline
+ * delimited JSON, one entry per line, with non-blocking servlet output.
+ * A batch of entries is asked for only when the response can take more
+ * without blocking, so a slow client neither holds a thread while it
+ * reads nor makes entries pile up in memory. Writing happens on the
+ * container threads calling {@link #onWritePossible()}, which the
+ * container never calls for two threads at once.
+ */
+public final class OutputStreamSubscriber
+        implements Flow.Subscriber<LogEntry>, WriteListener, AsyncListener {
+    /**
+     * The asynchronous request written to.
+     */
+    private final AsyncContext async;
+    /**
+     * Entries asked for at a time.
+     */
+    private final int batchSize;
+    /**
+     * Called once the response is complete, or null.
+     */
+    private final Runnable onDone;
+    /**
+     * The batch being collected.
+     */
+    private final StringBuilder batch = new StringBuilder();
+    /**
+     * Entries in the batch being collected.
+     */
+    private int collected = 0;
+    /**
+     * A full batch waiting for the response to take it, or null.
+     */
+    private byte[] pending;
+    /**
+     * Entries in the pending batch.
+     */
+    private int pendingCount = 0;
+    /**
+     * Entries written.
+     */
+    private int written = 0;
+    /**
+     * Whether every entry is published.
+     */
+    private boolean published = false;
+    /**
+     * Whether the response is over, completed or failed.
+     */
+    private volatile boolean done = false;
+    /**
+     * The response output, set once subscribed.
+     */
+    private ServletOutputStream out;
+    /**
+     * The subscription, set once subscribed.
+     */
+    private volatile Flow.Subscription subscription;
+
+    /**
+     * Creates a subscriber.
+     *
+     * @param target   the asynchronous request written to.
+     * @param size     entries asked for and written at a time.
+     * @param callback called once the response is complete, or null.
+     * @throws IllegalArgumentException if size is below 1.
+     */
+    public OutputStreamSubscriber(final AsyncContext target,
+                                  final int size, final Runnable callback)
+            throws IllegalArgumentException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.async = target;
+        this.batchSize = size;
+        this.onDone = callback;
+    }
+
+    /**
+     * Starts writing once the response is writable. No entries are
+     * asked for until then.
+     *
+     * @param given the subscription.
+     */
+    @Override
+    public void onSubscribe(final Flow.Subscription given) {
+        this.subscription = given;
+        try {
+            this.out = this.async.getResponse().getOutputStream();
+            this.out.setWriteListener(this);
+        } catch (IOException | IllegalStateException e) {
+            onError(e);
+        }
+    }
+
+    /**
+     * Writes while the response takes more without blocking, asking for
+     * the next batch once the last is written, and completes the
+     * response after the last batch.
+     *
+     * @throws IOException if the client is gone.
+     */
+    @Override
+    public void onWritePossible() throws IOException {
+        while (!this.done && this.out.isReady()) {
+            if (this.pending != null) {
+                byte[] bytes = this.pending;
+                this.pending = null;
+                this.out.write(bytes);
+                this.written += this.pendingCount;
+            } else if (this.published) {
+                complete();
+            } else {
+                this.subscription.request(this.batchSize);
+            }
+        }
+    }
+
+    /**
+     * Adds an entry to the batch, and holds the batch for writing once
+     * it is full.
+     *
+     * @param entry the entry.
+     */
+    @Override
+    public void onNext(final LogEntry entry) {
+        try {
+            LogEntryJson.write(entry, this.batch);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        this.batch.append('\n');
+        this.collected++;
+        if (this.collected == this.batchSize) {
+            hold();
+        }
+    }
+
+    /**
+     * Holds the last batch for writing.
+     */
+    @Override
+    public void onComplete() {
+        hold();
+        this.published = true;
+    }
+
+    /**
+     * Ends the response when publishing or writing fails, answering
+     * with an error if nothing was written yet.
+     *
+     * @param error what went wrong.
+     */
+    @Override
+    public void onError(final Throwable error) {
+        if (this.done) {
+            return;
+        }
+        this.done = true;
+        Flow.Subscription given = this.subscription;
+        if (given != null) {
+            given.cancel();
+        }
+        HttpServletResponse response =
+            (HttpServletResponse) this.async.getResponse();
+        if (!response.isCommitted()) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+        this.async.complete();
+    }
+
+    /**
+     * Stops publishing if the response timed out.
+     *
+     * @param event the timeout.
+     */
+    @Override
+    public void onTimeout(final AsyncEvent event) {
+        onError(event.getThrowable());
+    }
+
+    /**
+     * Stops publishing if the response failed.
+     *
+     * @param event the failure.
+     */
+    @Override
+    public void onError(final AsyncEvent event) {
+        onError(event.getThrowable());
+    }
+
+    /**
+     * Does nothing, as the response is completed by this subscriber.
+     *
+     * @param event the completion.
+     */
+    @Override
+    public void onComplete(final AsyncEvent event) { }
+
+    /**
+     * Does nothing, as the request is not made asynchronous again.
+     *
+     * @param event the restart.
+     */
+    @Override
+    public void onStartAsync(final AsyncEvent event) { }
+
+    /**
+     * @return the amount of entries written.
+     */
+    public int getWritten() {
+        return this.written;
+    }
+
+    /**
+     * Moves the batch collected, if any, to the pending batch.
+     */
+    private void hold() {
+        if (this.collected == 0) {
+            return;
+        }
+        this.pending = this.batch.toString().getBytes(StandardCharsets.UTF_8);
+        this.pendingCount = this.collected;
+        this.batch.setLength(0);
+        this.collected = 0;
+    }
+
+    /**
+     * Completes the response once everything is written.
+     */
+    private void complete() {
+        this.done = true;
+        this.async.complete();
+        if (this.onDone != null) {
+            this.onDone.run();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package restserver;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded least recently used cache for computed responses.
+ * Every value is stored together with the EntryManager version it was
+ * computed from, and is only served while that version is still current
+ * and the value has not outlived its time to live.
+ * Guarded by a ReentrantLock rather than synchronized, so requests on
+ * virtual threads never pin their carrier thread waiting for it.
+ */
+public final class ResultCache {
+    /**
+     * Maximum amount of cached results.
+     */
+    private final int capacity;
+    /**
+     * How long a result may be served, in nanoseconds.
+     */
+    private final long timeToLive;
+    /**
+     * Cached results in access order, eldest first.
+     */
+    private final LinkedHashMap<String, CachedResult> results;
+    /**
+     * Guards the results.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Number of lookups served from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+    /**
+     * Number of lookups that had to be computed.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxEntries the maximum amount of results to keep.
+     * @param ttl        how long a result may be served after computation.
+     * @throws IllegalArgumentException if maxEntries is not positive
+     *                                  or ttl is null.
+     */
+    public ResultCache(final int maxEntries, final Duration ttl)
+            throws IllegalArgumentException {
+        if (maxEntries < 1 || ttl == null) {
+            throw new IllegalArgumentException(
+                "Cache needs a positive size and a time to live");
+        }
+        this.capacity = maxEntries;
+        this.timeToLive = ttl.toNanos();
+        this.results = new LinkedHashMap<>(maxEntries, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<String, CachedResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the result for a key, computing it if it is missing, stale
+     * or computed from another version of the data.
+     * The computation runs outside the cache lock, and exceptions
+     * thrown by it are passed on without caching anything.
+     *
+     * @param key     the normalized query the result belongs to.
+     * @param version the current EntryManager version.
+     * @param compute computes the result on a miss.
+     * @return the cached or freshly computed result.
+     */
+    public String get(final String key, final long version,
+                      final Supplier<String> compute) {
+        long now = System.nanoTime();
+
+        this.lock.lock();
+        try {
+            CachedResult cached = this.results.get(key);
+            if (cached != null && cached.version == version
+                    && now - cached.created < this.timeToLive) {
+                this.hits.incrementAndGet();
+                return cached.value;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        this.misses.incrementAndGet();
+        String value = compute.get();
+
+        this.lock.lock();
+        try {
+            this.results.put(key, new CachedResult(value, version, now));
+        } finally {
+            this.lock.unlock();
+        }
+
+        return value;
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void clear() {
+        this.lock.lock();
+        try {
+            this.results.clear();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of lookups served from the cache.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of lookups that had to be computed.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of results currently held.
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.results.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * A computed result and what it was computed from.
+     */
+    private static final class CachedResult {
+        /**
+         * The computed result.
+         */
+        private final String value;
+        /**
+         * The EntryManager version the result was computed from.
+         */
+        private final long version;
+        /**
+         * When the result was computed, from System.nanoTime().
+         */
+        private final long created;
+
+        /**
+         * Wraps a computed result.
+         *
+         * @param result        the computed result.
+         * @param resultVersion the version it was computed from.
+         * @param createdAt     when it was computed.
+         */
+        private CachedResult(final String result, final long resultVersion,
+                             final long createdAt) {
+            this.value = result;
+            this.version = resultVersion;
+            this.created = createdAt;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package restserver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request and persistence metrics of the server, written in the
+ * Prometheus text format. Recording is lock-free: metrics of an endpoint
+ * are created once, then only updated with atomic counters.
+ */
+public class ServerMetrics {
+    /**
+     * Quantiles written for every summary.
+     */
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1_000_000_000;
+    /**
+     * Lowest status code counted as an error.
+     */
+    private static final int ERROR_STATUS = 400;
+
+    /**
+     * Metrics per endpoint, by request method and path pattern.
+     */
+    private final ConcurrentMap<String, EndpointMetrics> endpoints =
+        new ConcurrentHashMap<>();
+    /**
+     * Durations of loading the entries, in nanoseconds.
+     */
+    private final MetricHistogram loads = new MetricHistogram();
+    /**
+     * Durations of saving the entries, in nanoseconds.
+     */
+    private final MetricHistogram saves = new MetricHistogram();
+
+    /**
+     * Records a handled request.
+     *
+     * @param method        the request method.
+     * @param endpoint      the path pattern of the endpoint.
+     * @param status        the response status.
+     * @param nanos         how long the request took.
+     * @param requestBytes  size of the request body.
+     * @param responseBytes size of the response body.
+     */
+    public void recordRequest(final String method, final String endpoint,
+                              final int status, final long nanos,
+                              final long requestBytes,
+                              final long responseBytes) {
+        String key = method + " " + endpoint;
+        EndpointMetrics metrics = this.endpoints.get(key);
+        if (metrics == null) {
+            metrics = this.endpoints.computeIfAbsent(key,
+                ignored -> new EndpointMetrics(method, endpoint));
+        }
+        metrics.latency.record(nanos);
+        metrics.requestBytes.add(requestBytes);
+        metrics.responseBytes.record(responseBytes);
+        if (status >= ERROR_STATUS) {
+            metrics.errors.increment();
+        }
+    }
+
+    /**
+     * Records loading the entries.
+     *
+     * @param nanos how long loading took.
+     */
+    public void recordLoad(final long nanos) {
+        this.loads.record(nanos);
+    }
+
+    /**
+     * Records saving the entries.
+     *
+     * @param nanos how long saving took.
+     */
+    public void recordSave(final long nanos) {
+        this.saves.record(nanos);
+    }
+
+    /**
+     * Writes every metric in the Prometheus text format.
+     *
+     * @param out     where to write.
+     * @param entries the current amount of entries.
+     * @param cache   the statistics cache.
+     * @param flights the coalescing of statistics computations.
+     * @throws IOException if out could not be written to.
+     */
+    public void writePrometheus(final Appendable out, final int entries,
+                                final ResultCache cache,
+                                final SingleFlight flights)
+            throws IOException {
+        Map<String, EndpointMetrics> sorted = new TreeMap<>(this.endpoints);
+        List<String> labels = new ArrayList<>();
+        List<MetricHistogram> latencies = new ArrayList<>();
+        List<MetricHistogram> responses = new ArrayList<>();
+        List<Number> requestBytes = new ArrayList<>();
+        List<Number> errors = new ArrayList<>();
+        for (EndpointMetrics metrics : sorted.values()) {
+            labels.add("method=\"" + escape(metrics.method)
+                + "\",endpoint=\"" + escape(metrics.endpoint) + "\"");
+            latencies.add(metrics.latency);
+            responses.add(metrics.responseBytes);
+            requestBytes.add(metrics.requestBytes.sum());
+            errors.add(metrics.errors.sum());
+        }
+
+        writeSummary(out, "getfit_http_request_duration_seconds",
+            "Time spent handling requests.", labels, latencies,
+            NANOS_PER_SECOND);
+        writeSimple(out, "getfit_http_request_errors_total", "counter",
+            "Requests answered with an error status.", labels, errors);
+        writeSimple(out, "getfit_http_request_size_bytes_total", "counter",
+            "Bytes received in request bodies.", labels, requestBytes);
+        writeSummary(out, "getfit_http_response_size_bytes",
+            "Bytes sent in response bodies.", labels, responses, 1);
+
+        writeSummary(out, "getfit_persistence_duration_seconds",
+            "Time spent loading and saving the entries.",
+            List.of("operation=\"load\"", "operation=\"save\""),
+            List.of(this.loads, this.saves), NANOS_PER_SECOND);
+
+        writeSimple(out, "getfit_entries", "gauge",
+            "Entries in the EntryManager.", List.of(""), List.of(entries));
+        writeSimple(out, "getfit_statistics_cache_hits_total", "counter",
+            "Statistics served from the cache.", List.of(""),
+            List.of(cache.getHits()));
+        writeSimple(out, "getfit_statistics_cache_misses_total", "counter",
+            "Statistics computed on a cache miss.", List.of(""),
+            List.of(cache.getMisses()));
+        writeSimple(out, "getfit_statistics_cache_size", "gauge",
+            "Statistics results in the cache.", List.of(""),
+            List.of(cache.size()));
+        writeSimple(out, "getfit_statistics_coalesced_total", "counter",
+            "Statistics requests sharing a computation with another.",
+            List.of(""), List.of(flights.getCoalesced()));
+    }
+
+    /**
+     * Writes histograms as a summary, with quantiles, sum and count,
+     * followed by a gauge of their largest values.
+     *
+     * @param out        where to write.
+     * @param name       the metric name.
+     * @param help       the metric description.
+     * @param labels     the labels of each histogram.
+     * @param histograms the histograms.
+     * @param scale      what the recorded values are divided by.
+     * @throws IOException if out could not be written to.
+     */
+    private static void writeSummary(final Appendable out, final String name,
+                                     final String help,
+                                     final List<String> labels,
+                                     final List<MetricHistogram> histograms,
+                                     final double scale)
+            throws IOException {
+        header(out, name, "summary", help);
+        for (int i = 0; i < histograms.size(); i++) {
+            MetricHistogram histogram = histograms.get(i);
+            String prefix = labels.get(i).isEmpty() ? "" : labels.get(i) + ",";
+            for (double quantile : QUANTILES) {
+                sample(out, name, prefix + "quantile=\"" + quantile + "\"",
+                    histogram.getValueAtQuantile(quantile) / scale);
+            }
+            sample(out, name + "_sum", labels.get(i),
+                histogram.getSum() / scale);
+            sample(out, name + "_count", labels.get(i), histogram.getCount());
+        }
+
+        header(out, name + "_max", "gauge", "Largest value of " + name + ".");
+        for (int i = 0; i < histograms.size(); i++) {
+            sample(out, name + "_max", labels.get(i),
+                histograms.get(i).getMax() / scale);
+        }
+    }
+
+    /**
+     * Writes a counter or gauge.
+     *
+     * @param out    where to write.
+     * @param name   the metric name.
+     * @param type   counter or gauge.
+     * @param help   the metric description.
+     * @param labels the labels of each value.
+     * @param values the values.
+     * @throws IOException if out could not be written to.
+     */
+    private static void writeSimple(final Appendable out, final String name,
+                                    final String type, final String help,
+                                    final List<String> labels,
+                                    final List<Number> values)
+            throws IOException {
+        header(out, name, type, help);
+        for (int i = 0; i < values.size(); i++) {
+            sample(out, name, labels.get(i), values.get(i));
+        }
+    }
+
+    /**
+     * Writes the help and type lines of a metric.
+     *
+     * @param out  where to write.
+     * @param name the metric name.
+     * @param type the metric type.
+     * @param help the metric description.
+     * @throws IOException if out could not be written to.
+     */
+    private static void header(final Appendable out, final String name,
+                               final String type, final String help)
+            throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help)
+            .append('\n')
+            .append("# TYPE ").append(name).append(' ').append(type)
+            .append('\n');
+    }
+
+    /**
+     * Writes a sample line.
+     *
+     * @param out    where to write.
+     * @param name   the metric name.
+     * @param labels the labels, or an empty string.
+     * @param value  the value.
+     * @throws IOException if out could not be written to.
+     */
+    private static void sample(final Appendable out, final String name,
+                               final String labels, final Number value)
+            throws IOException {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value.toString()).append('\n');
+    }
+
+    /**
+     * Escapes a label value.
+     *
+     * @param value the label value.
+     * @return the value, with backslashes, quotes and newlines escaped.
+     */
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"")
+            .replace("\n", "\\n");
+    }
+
+    /**
+     * Metrics of one endpoint.
+     */
+    private static final class EndpointMetrics {
+        /**
+         * The request method.
+         */
+        private final String method;
+        /**
+         * The path pattern of the endpoint.
+         */
+        private final String endpoint;
+        /**
+         * Durations of the requests, in nanoseconds.
+         */
+        private final MetricHistogram latency = new MetricHistogram();
+        /**
+         * Sizes of the response bodies, in bytes.
+         */
+        private final MetricHistogram responseBytes = new MetricHistogram();
+        /**
+         * Total size of the request bodies, in bytes.
+         */
+        private final LongAdder requestBytes = new LongAdder();
+        /**
+         * Count of requests answered with an error status.
+         */
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * Creates the metrics of an endpoint.
+         *
+         * @param requestMethod the request method.
+         * @param pattern       the path pattern of the endpoint.
+         */
+        private EndpointMetrics(final String requestMethod,
+                                final String pattern) {
+            this.method = requestMethod;
+            this.endpoint = pattern;
+        }
+    }
+}
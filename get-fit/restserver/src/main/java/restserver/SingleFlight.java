@@ -0,0 +1,91 @@
+package restserver;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical computations running at the same time. The first
+ * request for a key and EntryManager version computes the result, and
+ * requests for the same key and version arriving before it is done wait
+ * for that result instead of computing it again. Nothing is kept once a
+ * computation is done; keeping results is left to the ResultCache in
+ * front of it.
+ */
+public final class SingleFlight {
+    /**
+     * Computations in progress, by key and version.
+     */
+    private final ConcurrentHashMap<Flight, CompletableFuture<String>>
+        flights = new ConcurrentHashMap<>();
+    /**
+     * Number of requests served by a computation started by another.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Gets the result for a key and version, computing it unless an
+     * identical computation is already running, in which case its
+     * result is waited for. An exception thrown by the computation is
+     * thrown to every request waiting for it.
+     *
+     * @param key     the normalized query the result belongs to.
+     * @param version the current EntryManager version.
+     * @param compute computes the result.
+     * @return the result.
+     */
+    public String get(final String key, final long version,
+                      final Supplier<String> compute) {
+        Flight flight = new Flight(key, version);
+        CompletableFuture<String> started = new CompletableFuture<>();
+        CompletableFuture<String> running =
+            this.flights.putIfAbsent(flight, started);
+        if (running != null) {
+            this.coalesced.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            String value = compute.get();
+            started.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            started.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.flights.remove(flight, started);
+        }
+    }
+
+    /**
+     * @return the number of requests served by a computation started by
+     * another request.
+     */
+    public long getCoalesced() {
+        return this.coalesced.get();
+    }
+
+    /**
+     * @return the number of computations in progress.
+     */
+    public int inFlight() {
+        return this.flights.size();
+    }
+
+    /**
+     * The key of a computation.
+     *
+     * @param key     the normalized query.
+     * @param version the EntryManager version computed from.
+     */
+    private record Flight(String key, long version) { }
+}
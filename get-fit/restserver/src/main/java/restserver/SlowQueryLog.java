@@ -0,0 +1,431 @@
+package restserver;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Log of list, statistics and chart requests that took longer than a
+ * threshold, with their normalized parameters, entry counts and where
+ * the time went.
+ * The latest slow requests are kept in a ring buffer, oldest first out,
+ * and each is also logged as a warning.
+ * The threshold and the size of the buffer are set with the
+ * getfit.slow-query.threshold-ms and getfit.slow-query.capacity
+ * properties.
+ */
+@Component
+public class SlowQueryLog {
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1_000_000;
+
+    /**
+     * Where slow requests are logged.
+     */
+    private static final System.Logger LOGGER =
+        System.getLogger(SlowQueryLog.class.getName());
+
+    /**
+     * Requests taking at least this long are logged, in nanoseconds.
+     */
+    private final long threshold;
+
+    /**
+     * The latest slow requests, overwritten oldest first.
+     */
+    private final SlowQuery[] queries;
+
+    /**
+     * Guards the queries and the count. A ReentrantLock, so requests on
+     * virtual threads do not pin their carrier thread waiting for it.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Count of slow requests logged since start.
+     */
+    private long logged = 0;
+
+    /**
+     * Creates the log.
+     *
+     * @param thresholdMillis requests taking at least this many
+     *                        milliseconds are logged.
+     * @param capacity        how many slow requests are kept.
+     * @throws IllegalArgumentException if the threshold is negative,
+     *                                  or the capacity below 1.
+     */
+    public SlowQueryLog(
+            final @Value("${getfit.slow-query.threshold-ms:100}")
+                long thresholdMillis,
+            final @Value("${getfit.slow-query.capacity:128}")
+                int capacity)
+            throws IllegalArgumentException {
+        if (thresholdMillis < 0 || capacity < 1) {
+            throw new IllegalArgumentException(
+                "Threshold cannot be negative, and capacity must be positive");
+        }
+        this.threshold = Duration.ofMillis(thresholdMillis).toNanos();
+        this.queries = new SlowQuery[capacity];
+    }
+
+    /**
+     * Starts timing a request.
+     *
+     * @param endpoint   the path of the endpoint.
+     * @param parameters the normalized query parameters.
+     * @return the trace of the request, to be given to
+     * {@link #finish(Trace)} when the response is written.
+     */
+    public Trace start(final String endpoint, final String parameters) {
+        return new Trace(endpoint, parameters);
+    }
+
+    /**
+     * Ends timing a request, and logs it if it was slow.
+     *
+     * @param trace the trace of the request.
+     */
+    public void finish(final Trace trace) {
+        long total = System.nanoTime() - trace.start;
+        if (total < this.threshold) {
+            return;
+        }
+
+        SlowQuery query = new SlowQuery(Instant.now(), trace.endpoint,
+            trace.parameters, trace.served, total, trace.waiting, trace.query,
+            trace.statistics, trace.serialization, trace.scanned,
+            trace.returned);
+        this.lock.lock();
+        try {
+            this.queries[(int) (this.logged % this.queries.length)] = query;
+            this.logged++;
+        } finally {
+            this.lock.unlock();
+        }
+        LOGGER.log(System.Logger.Level.WARNING, () -> "Slow query: " + query);
+    }
+
+    /**
+     * Gives the slow requests kept, newest first.
+     *
+     * @return the slow requests.
+     */
+    public List<SlowQuery> getQueries() {
+        this.lock.lock();
+        try {
+            int kept = (int) Math.min(this.logged, this.queries.length);
+            List<SlowQuery> latest = new ArrayList<>(kept);
+            for (int i = 1; i <= kept; i++) {
+                latest.add(this.queries[
+                    (int) ((this.logged - i) % this.queries.length)]);
+            }
+            return latest;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Gives the slow requests kept, newest first, as JSON.
+     *
+     * @return the threshold, the count of slow requests since start
+     * and the slow requests kept, as a JSON string.
+     */
+    public String toJson() {
+        JSONArray array = new JSONArray();
+        getQueries().forEach(query -> array.put(query.toJson()));
+
+        JSONObject json = new JSONObject();
+        json.put("thresholdMs", this.threshold / NANOS_PER_MILLI);
+        this.lock.lock();
+        try {
+            json.put("logged", this.logged);
+        } finally {
+            this.lock.unlock();
+        }
+        json.put("queries", array);
+        return json.toString();
+    }
+
+    /**
+     * Normalizes the parameters of a list request, so equal queries
+     * are logged alike.
+     *
+     * @param sortType    the sorting configuration.
+     * @param reverse     whether to reverse the list.
+     * @param category    the category to filter by, or null.
+     * @param subCategory the sub-category to filter by, or null.
+     * @param date        the date interval to filter by, or null.
+     * @return the parameters, with names and letters in one case.
+     */
+    static String listParameters(final String sortType, final String reverse,
+                                 final String category,
+                                 final String subCategory,
+                                 final String date) {
+        return "s=" + upper(sortType) + "&r=" + Boolean.parseBoolean(reverse)
+            + "&c=" + upper(category) + "&sc=" + upper(subCategory)
+            + "&d=" + date;
+    }
+
+    /**
+     * Normalizes the parameters of a statistics request, so equal
+     * queries are logged alike.
+     *
+     * @param date     the date interval to filter by.
+     * @param category the category to filter by, or null.
+     * @return the parameters, with names and letters in one case.
+     */
+    static String statisticsParameters(final String date,
+                                       final String category) {
+        return "d=" + date + "&c=" + upper(category);
+    }
+
+    /**
+     * Normalizes the parameters of a chart request, so equal queries
+     * are logged alike.
+     *
+     * @param date the date interval to filter by.
+     * @return the parameters.
+     */
+    static String chartParameters(final String date) {
+        return "d=" + date;
+    }
+
+    /**
+     * Upper cases a parameter.
+     *
+     * @param value the parameter, or null.
+     * @return the parameter in upper case, or null.
+     */
+    private static String upper(final String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     *
+     * @param nanos nanoseconds.
+     * @return the milliseconds, with fractions.
+     */
+    private static double millis(final long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Where the response of a request came from.
+     */
+    public enum Served {
+        /**
+         * Computed by the request itself.
+         */
+        COMPUTED,
+        /**
+         * Taken from the cache, computed by an earlier request.
+         */
+        CACHE,
+        /**
+         * Computed by an identical request running at the same time,
+         * which the request waited for.
+         */
+        COALESCED
+    }
+
+    /**
+     * A slow request. The entries and the times of the phases are those
+     * of the request computing the response, so they are zero when it
+     * was served from the cache or by another request; the time spent
+     * waiting for the response is then the waiting time.
+     *
+     * @param time          when the request finished.
+     * @param endpoint      the path of the endpoint.
+     * @param parameters    the normalized query parameters.
+     * @param served        where the response came from.
+     * @param total         nanoseconds the request took.
+     * @param waiting       nanoseconds spent waiting for a response
+     *                      computed by another request, or looking it
+     *                      up in the cache.
+     * @param query         nanoseconds spent sorting and filtering.
+     * @param statistics    nanoseconds spent computing statistics.
+     * @param serialization nanoseconds spent writing the response.
+     * @param scanned       entries there were to query.
+     * @param returned      entries the query gave.
+     */
+    public record SlowQuery(Instant time, String endpoint, String parameters,
+                            Served served, long total, long waiting,
+                            long query, long statistics, long serialization,
+                            int scanned, int returned) {
+        /**
+         * @return the slow request as a JSON object, in milliseconds.
+         */
+        JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("time", this.time.toString());
+            json.put("endpoint", this.endpoint);
+            json.put("parameters", this.parameters);
+            json.put("served", this.served.name().toLowerCase(Locale.ROOT));
+            json.put("totalMs", millis(this.total));
+            json.put("waitingMs", millis(this.waiting));
+            json.put("queryMs", millis(this.query));
+            json.put("statisticsMs", millis(this.statistics));
+            json.put("serializationMs", millis(this.serialization));
+            json.put("scanned", this.scanned);
+            json.put("returned", this.returned);
+            return json;
+        }
+
+        /**
+         * @return the slow request as a line of the log.
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s?%s took %.1f ms, %s "
+                    + "(waiting %.1f ms, query %.1f ms, statistics %.1f ms, "
+                    + "serialization %.1f ms), scanned %d, returned %d",
+                this.endpoint, this.parameters, millis(this.total),
+                this.served.name().toLowerCase(Locale.ROOT),
+                millis(this.waiting), millis(this.query),
+                millis(this.statistics), millis(this.serialization),
+                this.scanned, this.returned);
+        }
+    }
+
+    /**
+     * Timing of a request in progress. Each phase is timed from the end
+     * of the one before it. Used by the thread handling the request only.
+     */
+    public static final class Trace {
+        /**
+         * The path of the endpoint.
+         */
+        private final String endpoint;
+        /**
+         * The normalized query parameters.
+         */
+        private final String parameters;
+        /**
+         * When the request started.
+         */
+        private final long start = System.nanoTime();
+        /**
+         * When the last phase ended.
+         */
+        private long lap = this.start;
+        /**
+         * Where the response came from.
+         */
+        private Served served = Served.COMPUTED;
+        /**
+         * Nanoseconds spent waiting for a response computed by another
+         * request, or looking it up in the cache.
+         */
+        private long waiting;
+        /**
+         * Nanoseconds spent sorting and filtering.
+         */
+        private long query;
+        /**
+         * Nanoseconds spent computing statistics.
+         */
+        private long statistics;
+        /**
+         * Nanoseconds spent writing the response.
+         */
+        private long serialization;
+        /**
+         * Entries there were to query.
+         */
+        private int scanned;
+        /**
+         * Entries the query gave.
+         */
+        private int returned;
+
+        /**
+         * Starts timing a request.
+         *
+         * @param path       the path of the endpoint.
+         * @param normalized the normalized query parameters.
+         */
+        private Trace(final String path, final String normalized) {
+            this.endpoint = path;
+            this.parameters = normalized;
+        }
+
+        /**
+         * Sets how many entries the request went through.
+         *
+         * @param scannedEntries  entries there were to query.
+         * @param returnedEntries entries the query gave.
+         */
+        public void entries(final int scannedEntries,
+                            final int returnedEntries) {
+            this.scanned = scannedEntries;
+            this.returned = returnedEntries;
+        }
+
+        /**
+         * Sets where the response came from.
+         *
+         * @param source where the response came from.
+         */
+        public void served(final Served source) {
+            this.served = source;
+        }
+
+        /**
+         * Ends waiting for the response, if it was not computed by the
+         * request itself. A request computing its response has no
+         * waiting phase.
+         */
+        public void waited() {
+            long elapsed = lap();
+            if (this.served != Served.COMPUTED) {
+                this.waiting += elapsed;
+            }
+        }
+
+        /**
+         * Ends the query phase.
+         */
+        public void query() {
+            this.query += lap();
+        }
+
+        /**
+         * Ends the statistics phase.
+         */
+        public void statistics() {
+            this.statistics += lap();
+        }
+
+        /**
+         * Ends the serialization phase.
+         */
+        public void serialization() {
+            this.serialization += lap();
+        }
+
+        /**
+         * Gives the time since the last phase ended, and starts the next.
+         *
+         * @return nanoseconds since the last phase ended.
+         */
+        private long lap() {
+            long now = System.nanoTime();
+            long elapsed = now - this.lap;
+            this.lap = now;
+            return elapsed;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package restserver;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in handling of requests on virtual threads, enabled by the
+ * getfit.virtual-threads property. Every request then gets a virtual
+ * thread of its own instead of waiting for one of the platform threads
+ * of Tomcat, so a request blocked on saving to disk no longer holds
+ * a thread others need, and concurrent requests are only bounded by the
+ * connections Tomcat accepts.
+ * Virtual threads are looked up reflectively, so the server still builds
+ * and runs on Java versions without them, keeping the platform threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "getfit.virtual-threads", havingValue = "true")
+public class VirtualThreadConfiguration {
+    /**
+     * Where falling back to platform threads is logged.
+     */
+    private static final System.Logger LOGGER =
+        System.getLogger(VirtualThreadConfiguration.class.getName());
+
+    /**
+     * Makes Tomcat run requests on virtual threads, if the Java runtime
+     * has them.
+     *
+     * @return the customizer giving Tomcat its executor.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler>
+            virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            LOGGER.log(System.Logger.Level.WARNING, "getfit.virtual-threads"
+                + " needs Java 21 or later, using platform threads");
+            return handler -> { };
+        }
+        return handler -> handler.setExecutor(executor);
+    }
+
+    /**
+     * Creates an executor running every task on a virtual thread of its
+     * own.
+     *
+     * @return the executor, or null if the Java runtime has no virtual
+     * threads.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod(
+                "newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
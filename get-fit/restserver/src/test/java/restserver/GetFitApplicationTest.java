@@ -1,6 +1,7 @@
 package restserver;
 
 import localpersistence.EntrySaverJson;
+import org.json.JSONObject;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,15 +16,28 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.io.File;
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(classes = GetFitController.class)
+@SpringBootTest(classes = {GetFitController.class,
+        GetFitControllerV2.class, GetFitControllerAdvice.class,
+        GetFitService.class,
+        GetFitReactiveController.class, MetricsController.class,
+        MetricsFilter.class, SlowQueryLog.class},
+        properties = "getfit.slow-query.threshold-ms=0")
 @AutoConfigureMockMvc
 public class GetFitApplicationTest {
 
@@ -75,6 +89,24 @@ public class GetFitApplicationTest {
         }
     }
 
+    @Test
+    public void testFiltersCacheHeaders() {
+        try {
+            MvcResult result = this.mMvc.perform(get(path + "/filters"))
+                    .andExpect(status().isOk()).andReturn();
+            String etag = result.getResponse().getHeader("ETag");
+            assertNotNull(etag);
+            Assertions.assertTrue(result.getResponse()
+                    .getHeader("Cache-Control").contains("max-age"));
+
+            this.mMvc.perform(get(path + "/filters")
+                            .header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
     @Test
     public void testAddEntry() {
         try {
@@ -173,6 +205,392 @@ public class GetFitApplicationTest {
         }
     }
 
+    @Test
+    public void testStatisticsCache() {
+        try {
+            String statsPath = path + "/stats?d=" + date + "&c=running";
+            this.mMvc.perform(get(statsPath)).andExpect(status().isOk());
+            long hits = cacheCounter("hits");
+            long misses = cacheCounter("misses");
+
+            this.mMvc.perform(get(statsPath)).andExpect(status().isOk());
+            Assertions.assertEquals(hits + 1, cacheCounter("hits"));
+            Assertions.assertEquals(misses, cacheCounter("misses"));
+
+            addEntryHelper();
+            this.mMvc.perform(get(statsPath)).andExpect(status().isOk());
+            Assertions.assertEquals(hits + 1, cacheCounter("hits"));
+            Assertions.assertEquals(misses + 1, cacheCounter("misses"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testConditionalList() {
+        try {
+            MvcResult result = this.mMvc.perform(get(path + "/list"))
+                    .andExpect(status().isOk()).andReturn();
+            String etag = result.getResponse().getHeader("ETag");
+            assertNotNull(etag);
+
+            this.mMvc.perform(get(path + "/list").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+
+            addEntryHelper();
+            this.mMvc.perform(get(path + "/list").header("If-None-Match", etag))
+                    .andExpect(status().isOk());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testChangeFeed() {
+        try {
+            MvcResult stream = this.mMvc.perform(get(path + "/changes"))
+                    .andExpect(request().asyncStarted()).andReturn();
+            String id = addEntryHelper();
+            this.mMvc.perform(post(path + "/remove/" + id))
+                    .andExpect(status().isOk());
+
+            String events = awaitEvents(stream, "event:remove");
+            Assertions.assertTrue(events.contains("event:add"));
+            Assertions.assertTrue(events.contains("event:remove"));
+
+            int start = events.indexOf("id:") + 3;
+            String added = events.substring(start, events.indexOf('\n', start));
+            MvcResult resumed = this.mMvc.perform(get(path + "/changes")
+                            .param("since", added))
+                    .andExpect(request().asyncStarted()).andReturn();
+            String replayed = awaitEvents(resumed, "event:remove");
+            Assertions.assertFalse(replayed.contains("event:add"));
+            Assertions.assertTrue(replayed.contains("event:remove"));
+
+            MvcResult ahead = this.mMvc.perform(get(path + "/changes")
+                            .param("since", "999999"))
+                    .andExpect(request().asyncStarted()).andReturn();
+            Assertions.assertTrue(awaitEvents(ahead, "event:reset")
+                    .contains("event:reset"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    private String awaitEvents(MvcResult stream, String expected)
+            throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String events = stream.getResponse().getContentAsString();
+        while (!events.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            events = stream.getResponse().getContentAsString();
+        }
+        return events;
+    }
+
+    @Test
+    public void testChangesSince() {
+        try {
+            MvcResult full = this.mMvc.perform(get(path + "/since/0"))
+                    .andExpect(status().isOk()).andReturn();
+            JSONObject reset =
+                    new JSONObject(full.getResponse().getContentAsString());
+            Assertions.assertTrue(reset.getBoolean("reset"));
+            String epoch = reset.getString("epoch");
+            long version = reset.getLong("version");
+
+            String added = addEntryHelper();
+            String removed = addEntryHelper();
+            this.mMvc.perform(post(path + "/remove/" + removed))
+                    .andExpect(status().isOk());
+
+            MvcResult result = this.mMvc.perform(
+                            get(path + "/since/" + version)
+                                    .param("epoch", epoch))
+                    .andExpect(status().isOk()).andReturn();
+            JSONObject delta =
+                    new JSONObject(result.getResponse().getContentAsString());
+            Assertions.assertFalse(delta.getBoolean("reset"));
+            Assertions.assertEquals(1, delta.getJSONArray("added").length());
+            Assertions.assertEquals(added, delta.getJSONArray("added")
+                    .getJSONObject(0).getString("id"));
+            Assertions.assertEquals(removed,
+                    delta.getJSONArray("removed").getString(0));
+
+            this.mMvc.perform(get(path + "/since/x"))
+                    .andExpect(status().is(400));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    private long cacheCounter(String counter) throws Exception {
+        MvcResult result = this.mMvc.perform(get(path + "/cache"))
+                .andExpect(status().isOk()).andReturn();
+        return new JSONObject(result.getResponse().getContentAsString())
+                .getLong(counter);
+    }
+
+    @Test
+    public void testTypedEntries() {
+        String typed = """
+                {"title":"Typed title","date":"2021-10-25","duration":3600,"feeling":7,"exerciseCategory":"RUNNING","distance":5.5}
+                """.strip();
+        try {
+            MvcResult added = this.mMvc.perform(post("/api/v2/entries/add")
+                            .content(typed))
+                    .andExpect(status().isOk()).andReturn();
+            String id = new JSONObject(added.getResponse()
+                    .getContentAsString()).getString("id");
+
+            MvcResult result = this.mMvc.perform(get("/api/v2/entries/" + id))
+                    .andExpect(status().isOk()).andReturn();
+            JSONObject entry =
+                    new JSONObject(result.getResponse().getContentAsString());
+            Assertions.assertEquals(3600, entry.getInt("duration"));
+            Assertions.assertEquals(5.5, entry.getDouble("distance"));
+            Assertions.assertTrue(entry.isNull("maxHeartRate"));
+            Assertions.assertTrue(entry.isNull("comment"));
+
+            result = this.mMvc.perform(get(path + "/" + id))
+                    .andExpect(status().isOk()).andReturn();
+            Assertions.assertEquals("3600", new JSONObject(result.getResponse()
+                    .getContentAsString()).getString("duration"));
+
+            result = this.mMvc.perform(get("/api/v2/entries/list"))
+                    .andExpect(status().isOk()).andReturn();
+            Assertions.assertEquals(7, new JSONObject(result.getResponse()
+                    .getContentAsString()).getJSONArray("entries")
+                    .getJSONObject(0).getInt("feeling"));
+
+            this.mMvc.perform(post("/api/v2/entries/add")
+                            .content(typed.replace("3600", "\"3600\"")))
+                    .andExpect(status().is(400));
+            this.mMvc.perform(post("/api/v2/entries/remove/" + id))
+                    .andExpect(status().isOk());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        try {
+            this.mMvc.perform(get(path + "/list"))
+                    .andExpect(status().isOk());
+
+            String metrics = this.mMvc.perform(get("/api/v1/metrics"))
+                    .andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString();
+            Assertions.assertTrue(metrics.contains(
+                    "getfit_http_request_duration_seconds_count{method=\"GET\",endpoint=\"/api/v1/entries/list\"}"));
+            Assertions.assertTrue(metrics.contains("getfit_entries "));
+            Assertions.assertFalse(metrics.contains("/api/v1/metrics"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSlowQueries() {
+        try {
+            this.mMvc.perform(get(path + "/list").param("s", "title")
+                            .param("c", "running"))
+                    .andExpect(status().isOk());
+
+            JSONObject log = new JSONObject(this.mMvc.perform(
+                            get("/api/v1/slow-queries"))
+                    .andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString());
+            JSONObject latest = log.getJSONArray("queries").getJSONObject(0);
+            Assertions.assertEquals("/api/v1/entries/list",
+                    latest.getString("endpoint"));
+            Assertions.assertEquals("s=TITLE&r=false&c=RUNNING&sc=null&d=null",
+                    latest.getString("parameters"));
+            Assertions.assertTrue(latest.getDouble("totalMs")
+                    >= latest.getDouble("queryMs"));
+            Assertions.assertEquals("computed", latest.getString("served"));
+
+            for (int i = 0; i < 2; i++) {
+                this.mMvc.perform(get(path + "/stats").param("d", date)
+                                .param("c", "cycling"))
+                        .andExpect(status().isOk());
+            }
+            JSONObject cached = new JSONObject(this.mMvc.perform(
+                            get("/api/v1/slow-queries"))
+                    .andReturn().getResponse().getContentAsString())
+                    .getJSONArray("queries").getJSONObject(0);
+            Assertions.assertEquals("cache", cached.getString("served"));
+            Assertions.assertTrue(cached.getDouble("totalMs")
+                    >= cached.getDouble("waitingMs"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReactiveEntries() {
+        String reactivePath = "/api/v1/reactive/entries";
+        try {
+            MvcResult added = this.mMvc.perform(post(reactivePath + "/add")
+                            .content(String.format(mockEntryAsString, "")))
+                    .andExpect(request().asyncStarted()).andReturn();
+            String id = new JSONObject(this.mMvc.perform(asyncDispatch(added))
+                    .andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString()).getString("id");
+
+            MvcResult stats = this.mMvc.perform(get(reactivePath + "/stats")
+                            .param("d", date))
+                    .andExpect(request().asyncStarted()).andReturn();
+            this.mMvc.perform(asyncDispatch(stats))
+                    .andExpect(status().isOk());
+
+            MvcResult chart = this.mMvc.perform(get(reactivePath + "/chart")
+                            .param("d", date))
+                    .andExpect(request().asyncStarted()).andReturn();
+            this.mMvc.perform(asyncDispatch(chart))
+                    .andExpect(status().isOk());
+            JSONObject traced = new JSONObject(this.mMvc.perform(
+                            get("/api/v1/slow-queries"))
+                    .andReturn().getResponse().getContentAsString())
+                    .getJSONArray("queries").getJSONObject(0);
+            Assertions.assertEquals(reactivePath + "/chart",
+                    traced.getString("endpoint"));
+            Assertions.assertEquals("d=" + date,
+                    traced.getString("parameters"));
+
+            MvcResult removed = this.mMvc.perform(
+                            post(reactivePath + "/remove/" + id))
+                    .andExpect(request().asyncStarted()).andReturn();
+            this.mMvc.perform(asyncDispatch(removed))
+                    .andExpect(status().isOk());
+
+            MvcResult missing = this.mMvc.perform(
+                            post(reactivePath + "/remove/" + id))
+                    .andExpect(request().asyncStarted()).andReturn();
+            this.mMvc.perform(asyncDispatch(missing))
+                    .andExpect(status().isNotFound());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testDashboard() {
+        String id = addEntryHelper();
+        try {
+            String statistics = this.mMvc.perform(get(path + "/stats")
+                            .param("d", "2021-01-01-2021-12-31")
+                            .param("c", "strength"))
+                    .andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString();
+            String chart = this.mMvc.perform(get(path + "/chart")
+                            .param("d", "2021-01-01-2021-12-31"))
+                    .andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString();
+
+            JSONObject dashboard = new JSONObject(this.mMvc.perform(
+                            get(path + "/dashboard")
+                                    .param("d", "2021-01-01-2021-12-31")
+                                    .param("c", "strength")
+                                    .param("s", "title"))
+                    .andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString());
+            Assertions.assertTrue(new JSONObject(statistics).similar(
+                    dashboard.getJSONObject("statistics")));
+            Assertions.assertTrue(new JSONObject(chart).similar(
+                    dashboard.getJSONObject("chart")));
+            Assertions.assertTrue(dashboard.getJSONArray("entries").toList()
+                    .stream().anyMatch(entry -> id.equals(
+                            ((Map<?, ?>) entry).get("id"))));
+
+            JSONObject withoutEntries = new JSONObject(this.mMvc.perform(
+                            get(path + "/dashboard")
+                                    .param("d", "2021-01-01-2021-12-31")
+                                    .param("c", "strength")
+                                    .param("e", "false"))
+                    .andExpect(status().isOk()).andReturn()
+                    .getResponse().getContentAsString());
+            Assertions.assertFalse(withoutEntries.has("entries"));
+            Assertions.assertTrue(withoutEntries.getJSONObject("chart")
+                    .similar(dashboard.getJSONObject("chart")));
+
+            this.mMvc.perform(get(path + "/dashboard")
+                            .param("d", "2021-01-01-2021-12-31")
+                            .param("s", "nonsense"))
+                    .andExpect(status().isBadRequest());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        SingleFlight flights = new SingleFlight();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() ->
+                    flights.get("stats?d=" + date, 1, () -> {
+                        computations.incrementAndGet();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        return "result";
+                    }));
+            while (flights.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<String> follower = executor.submit(() ->
+                    flights.get("stats?d=" + date, 1, () -> {
+                        computations.incrementAndGet();
+                        return "other";
+                    }));
+            while (flights.getCoalesced() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            Assertions.assertEquals("result", leader.get());
+            Assertions.assertEquals("result", follower.get());
+            Assertions.assertEquals(1, computations.get());
+            Assertions.assertEquals(0, flights.inFlight());
+
+            Assertions.assertEquals("next",
+                    flights.get("stats?d=" + date, 2, () -> "next"));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> flights.get("chart", 2, () -> {
+                        throw new IllegalArgumentException();
+                    }));
+            Assertions.assertEquals(0, flights.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadExecutor() {
+        ExecutorService executor =
+                VirtualThreadConfiguration.newVirtualThreadExecutor();
+        Assertions.assertEquals(Runtime.version().feature() >= 21,
+                executor != null);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testRemoveEntry() {
         String id = addEntryHelper();
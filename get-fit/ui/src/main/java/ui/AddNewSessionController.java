@@ -18,13 +18,13 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -134,26 +134,51 @@ public class AddNewSessionController {
      */
     @FXML
     private ComboBox<String> tags;
+    /**
+     * Shown while data is loaded from the server.
+     */
+    @FXML
+    private ProgressIndicator loadingIndicator;
     //endregion
 
     /**
      * Session log client.
      */
-    private final LogClient client = new LogClient("http://localhost", 8080);
+    private final LogClient client = App.getClient();
     /**
      * Exercise categories and subcategories.
      */
     private HashMap<String, List<String>> categories;
+    /**
+     * Loads the exercise categories.
+     */
+    private final RequestService<HashMap<String, List<String>>>
+            categoryService = new RequestService<>();
+    /**
+     * Saves the new session, giving its id, or null if it was queued
+     * while the server is unreachable.
+     */
+    private final RequestService<String> saveService = new RequestService<>();
+    /**
+     * The session being saved, kept to retry saving it.
+     */
+    private HashMap<String, String> unsaved;
 
     /**
-     * Adds an entry to the app EntryManager and switches the view to StartPage.
+     * Saves the session in the background, then inserts it into the
+     * listed entries and switches the view to StartPage.
      *
      * @param event an ActionEvent from the observed change.
-     * @throws IOException if .FXML file could not be found.
      */
     @FXML
-    public void createSessionButtonPushed(final ActionEvent event)
-            throws IOException {
+    public void createSessionButtonPushed(final ActionEvent event) {
+        if (exerciseType.getValue() == null) {
+            errorLabel.setText("Exercise types are still loading.");
+            return;
+        }
+        if (saveService.isRunning()) {
+            return;
+        }
         String title = titleField.getText();
         String date = sessionDatePicker.getValue().toString();
         String duration;
@@ -228,37 +253,7 @@ public class AddNewSessionController {
             entryMap.put("distance", distanceString);
             entryMap.put("comment", comment);
 
-            // add and save newly created LogEntry.
-            try {
-                this.client.addLogEntry(entryMap);
-                goToStartPage(event);
-            } catch (URISyntaxException
-                    | InterruptedException
-                    | ExecutionException e) {
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Connection error");
-                alert.setHeaderText("Could not connect to server");
-                alert.setContentText(
-                    """
-                        Could not establish a connection to the server.
-                        Press OK to retry.
-                        Press Cancel to quit
-                    """
-                );
-                errorLabel.setText("Could not connect to server");
-                Optional<ButtonType> result = alert.showAndWait();
-                if (result.isPresent() && (result.get() == ButtonType.OK)) {
-                    this.createSessionButtonPushed(null);
-                    errorLabel.setText("");
-                } else {
-                    Platform.exit();
-                }
-            } catch (ServerResponseException e) {
-                errorLabel.setText(
-                    "Oh no, there was an issue with your request.");
-            }
-
-
+            save(entryMap);
         } catch (IllegalArgumentException e) {
             if (title.isEmpty()) {
                 // case 1, title is empty.
@@ -278,7 +273,7 @@ public class AddNewSessionController {
      */
     @FXML
     public void backButtonPushed(final ActionEvent event) throws IOException {
-        goToStartPage(event);
+        goToStartPage((Node) event.getSource());
     }
 
     /**
@@ -301,43 +296,53 @@ public class AddNewSessionController {
 
     /**
      * Initializes the controller.
+     * The exercise categories are loaded in the background.
      *
      * @throws NumberFormatException if the input is too large
      */
     @FXML
     private void initialize() throws NumberFormatException {
-        try {
-            this.categories = client.getExerciseCategories();
-        } catch (ExecutionException e) {
-            errorLabel.setText("Could not connect to server.");
-            return;
-        } catch (URISyntaxException | InterruptedException e) {
-            // Can't really happen
-            e.printStackTrace();
-        } catch (ServerResponseException e) {
-            // Rare or impossible error as the UI
-            // validates the user input before sending.
-            // However, it may occur if for example the
-            // server shuts down after the app has started.
-            errorLabel.setText(
-                    "Uh oh, there was an issue with your request.");
+        categoryService.setOnSucceeded(event -> {
+            if (!categoryService.getValue().equals(this.categories)) {
+                showCategories(categoryService.getValue());
+            }
+        });
+        categoryService.setOnFailed(event -> {
+            Throwable e = categoryService.getException();
+            if (e instanceof ServerResponseException) {
+                // Rare or impossible error as the UI
+                // validates the user input before sending.
+                // However, it may occur if for example the
+                // server shuts down after the app has started.
+                errorLabel.setText(
+                        "Uh oh, there was an issue with your request.");
+            } else {
+                errorLabel.setText("Could not connect to server.");
+                e.printStackTrace();
+            }
+        });
+        saveService.setOnSucceeded(event -> {
+            insertEntry(saveService.getValue());
+            try {
+                goToStartPage(errorLabel);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        saveService.setOnFailed(
+                event -> onSaveFailed(saveService.getException()));
+        loadingIndicator.visibleProperty().bind(
+                categoryService.runningProperty()
+                        .or(saveService.runningProperty()));
+        HashMap<String, List<String>> cached = client.getCachedCategories();
+        if (cached != null) {
+            showCategories(cached);
         }
-
-        // generate an ObservableList of exercise category names.
-        ObservableList<String> exerciseCategoryNames = this.categories
-                .keySet()
-                .stream()
-                .map(this::capitalize)
-                .collect(Collectors
-                    .toCollection(FXCollections::observableArrayList));
+        categoryService.submit(client::getExerciseCategories);
 
         // set initial values.
-        exerciseType.setItems(exerciseCategoryNames);
-        exerciseType.getSelectionModel().selectFirst();
-        tags.setItems(exerciseCategoryNames);
         setCardio(false);
         sessionDatePicker.setValue(LocalDate.now());
-        handleTagsSelector();
 
         // Validation setup
         validateIntegerInput(hour, MAX_HOURS);
@@ -412,6 +417,73 @@ public class AddNewSessionController {
     }
 
     //region Helper functions
+    /**
+     * Saves a session in the background, adding it on the server.
+     * @param entryMap The session, as the version 1 API represents it.
+     */
+    private void save(final HashMap<String, String> entryMap) {
+        this.unsaved = entryMap;
+        saveService.submit(
+                () -> this.client.addLogEntryAsync(entryMap).get());
+    }
+
+    /**
+     * Tells why a session could not be saved, offering to retry saving
+     * it if the server could not be reached.
+     * @param exception The exception the save failed with.
+     */
+    private void onSaveFailed(final Throwable exception) {
+        Throwable cause = exception;
+        if (cause instanceof ExecutionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ServerResponseException) {
+            errorLabel.setText(
+                "Oh no, there was an issue with your request.");
+            return;
+        }
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Connection error");
+        alert.setHeaderText("Could not connect to server");
+        alert.setContentText(
+            """
+                Could not establish a connection to the server.
+                Press OK to retry.
+                Press Cancel to quit
+            """
+        );
+        errorLabel.setText("Could not connect to server");
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && (result.get() == ButtonType.OK)) {
+            errorLabel.setText("");
+            save(this.unsaved);
+        } else {
+            Platform.exit();
+        }
+    }
+
+    /**
+     * Fills the exercise selectors with loaded categories.
+     * @param loaded The categories mapped to their subcategories.
+     */
+    private void showCategories(final HashMap<String, List<String>> loaded) {
+        this.categories = loaded;
+
+        // generate an ObservableList of exercise category names.
+        ObservableList<String> exerciseCategoryNames = this.categories
+                .keySet()
+                .stream()
+                .map(this::capitalize)
+                .collect(Collectors
+                    .toCollection(FXCollections::observableArrayList));
+
+        exerciseType.setItems(exerciseCategoryNames);
+        exerciseType.getSelectionModel().selectFirst();
+        tags.setItems(exerciseCategoryNames);
+        handleTagsSelector();
+    }
+
     /**
      * Hides and shows the distance information.
      * @param isCardio Wether the distance should be shown.
@@ -478,18 +550,40 @@ public class AddNewSessionController {
         });
     }
 
+    /**
+     * Fetches an added entry in the background and inserts it into the
+     * listed entries, instead of fetching the whole list again.
+     * If the entry can not be fetched the list is fetched on the next
+     * visit to the start page. Nothing is inserted for an entry queued
+     * while the server is unreachable, as it has no id yet.
+     * @param id The id of the added entry, or null if queued.
+     */
+    private void insertEntry(final String id) {
+        if (id == null) {
+            return;
+        }
+        EntryListModel entries = App.getEntries();
+        this.client.getLogEntryAsync(id)
+                .whenComplete((entry, exception) -> Platform.runLater(() -> {
+                    if (exception == null) {
+                        entries.insert(entry);
+                    } else {
+                        entries.invalidate();
+                    }
+                }));
+    }
+
     /**
      * Navigates to the application starting page.
-     * @param event
-     * @throws IOException
+     * @param source A node in the window to show the page in.
+     * @throws IOException if StartPage could not be found.
      */
-    private void goToStartPage(final ActionEvent event) throws IOException {
+    private void goToStartPage(final Node source) throws IOException {
         FXMLLoader loader = new FXMLLoader();
         loader.setLocation(getClass().getResource("StartPage.fxml"));
         Parent p = loader.load();
         Scene s = new Scene(p);
-        Stage window =
-                (Stage) ((Node) event.getSource()).getScene().getWindow();
+        Stage window = (Stage) source.getScene().getWindow();
         window.setTitle("Get fit");
         window.setScene(s);
         window.show();
@@ -1,6 +1,9 @@
 package ui;
 
+import client.ChangeSubscription;
+import client.LogClient;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -8,12 +11,55 @@ import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Objects;
 
 /**
  * JavaFX App.
  */
 public class App extends Application {
+    /**
+     * Connection to the get-fit server, shared by every view
+     * so that its connections are reused between screens.
+     */
+    private static final LogClient CLIENT =
+        new LogClient("http://localhost", 8080);
+    /**
+     * The listed log entries, kept between visits to the start page.
+     */
+    private static final EntryListModel ENTRIES = new EntryListModel();
+    /**
+     * Directory the last known server data is cached in.
+     */
+    private static final Path CACHE_DIRECTORY = Path.of(
+        System.getProperty("user.home"), "getfit", "cache");
+    /**
+     * Subscription to the server's changes, applied to the entries.
+     */
+    private ChangeSubscription changes;
+    /**
+     * Whether the app is closing.
+     */
+    private volatile boolean stopping = false;
+
+    /**
+     * Gives the connection to the get-fit server.
+     *
+     * @return the shared LogClient.
+     */
+    public static LogClient getClient() {
+        return CLIENT;
+    }
+
+    /**
+     * Gives the listed log entries, shared by every view so that
+     * changes made on one screen show up on the start page.
+     *
+     * @return the shared EntryListModel.
+     */
+    public static EntryListModel getEntries() {
+        return ENTRIES;
+    }
 
     /**
      * Starts the app.
@@ -31,6 +77,7 @@ public class App extends Application {
      */
     @Override
     public void start(final Stage stage) {
+        CLIENT.useCache(CACHE_DIRECTORY);
         try {
             Parent parent =
                 FXMLLoader.load(Objects.requireNonNull(
@@ -43,9 +90,63 @@ public class App extends Application {
                     App.class.getResourceAsStream("images/icon.png"))
             ));
             stage.show();
+            watchChanges(-1);
+            revalidateCache();
         } catch (IOException e) {
             e.printStackTrace();
             System.out.println("Missing StartPage.fxml file.");
         }
     }
+
+    /**
+     * Subscribes to the server's changes, so entries added or removed
+     * through other clients show up without fetching the list again.
+     * The subscription is renewed when the server ends it. If the server
+     * can not be reached the entries are fetched on the next query instead.
+     *
+     * @param since the last sequence number already seen.
+     */
+    private void watchChanges(final long since) {
+        ChangeSubscription subscription = CLIENT.subscribeChanges(since,
+            change -> Platform.runLater(() -> ENTRIES.apply(change)));
+        this.changes = subscription;
+        subscription.getCompletion().whenComplete((done, exception) -> {
+            if (this.stopping) {
+                return;
+            }
+            if (exception == null) {
+                watchChanges(subscription.getLastSequence());
+            } else {
+                Platform.runLater(ENTRIES::invalidate);
+            }
+        });
+    }
+
+    /**
+     * Sends the writes queued while the server was unreachable, then
+     * brings the cached entries up to date in the background.
+     * If writes were sent the entries are fetched on the next query.
+     */
+    private void revalidateCache() {
+        CLIENT.replayPendingAsync()
+            .thenCompose(sent -> {
+                if (sent > 0) {
+                    Platform.runLater(ENTRIES::invalidate);
+                }
+                return CLIENT.syncEntriesAsync();
+            })
+            .exceptionally(exception -> null);
+    }
+
+    /**
+     * Releases the connection to the server when the app closes.
+     */
+    @Override
+    public void stop() {
+        this.stopping = true;
+        if (this.changes != null) {
+            this.changes.close();
+        }
+        CLIENT.close();
+    }
 }
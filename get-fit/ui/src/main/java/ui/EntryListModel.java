@@ -0,0 +1,195 @@
+package ui;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import client.EntryChange;
+import client.LogClient.SortArgWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Client side copy of the listed log entries.
+ * It outlives the start page, so returning to the start page does not
+ * fetch the list again, and adding or deleting an entry, here or through
+ * another client, only inserts or removes that single row, keeping the
+ * order the server sorted it in.
+ * All methods must be called on the JavaFX application thread.
+ */
+public final class EntryListModel {
+    /**
+     * The listed log entries, in the order of the query.
+     */
+    private final ObservableList<HashMap<String, String>> entries =
+            FXCollections.observableArrayList();
+    /**
+     * The query the entries were listed with, or null if not loaded.
+     */
+    private Query query;
+
+    /**
+     * @return the listed log entries, in the order of the query.
+     */
+    public ObservableList<HashMap<String, String>> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Checks whether the entries are up to date for a query.
+     *
+     * @param listQuery the query to check.
+     * @return true if the entries were loaded with the query.
+     */
+    public boolean isLoaded(final Query listQuery) {
+        return listQuery.equals(this.query);
+    }
+
+    /**
+     * Replaces the listed entries with a list from the server.
+     *
+     * @param listQuery  the query the list was fetched with.
+     * @param newEntries the listed entries, sorted by the server.
+     */
+    public void load(final Query listQuery,
+                     final List<HashMap<String, String>> newEntries) {
+        this.query = Objects.requireNonNull(listQuery);
+        this.entries.setAll(newEntries);
+    }
+
+    /**
+     * Shows cached entries for a query until the server answers,
+     * filtered and sorted the way the server would list them.
+     * The entries are not marked as loaded.
+     *
+     * @param listQuery the query to show the entries for.
+     * @param cached    the cached entries, in any order.
+     */
+    public void preview(final Query listQuery,
+                        final Collection<HashMap<String, String>> cached) {
+        this.query = null;
+        this.entries.setAll(cached.stream()
+                .filter(listQuery::matches)
+                .sorted(listQuery.comparator())
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Inserts a newly added entry at its sorted position.
+     * Entries outside the current filter, or already listed, are ignored.
+     *
+     * @param entry the added entry.
+     */
+    public void insert(final HashMap<String, String> entry) {
+        if (this.query == null || !this.query.matches(entry)) {
+            return;
+        }
+        String id = entry.get("id");
+        if (this.entries.stream().anyMatch(
+                listed -> listed.get("id").equals(id))) {
+            return;
+        }
+        Comparator<HashMap<String, String>> comparator =
+                this.query.comparator();
+        int index = 0;
+        while (index < this.entries.size()
+                && comparator.compare(this.entries.get(index), entry) <= 0) {
+            index++;
+        }
+        this.entries.add(index, entry);
+    }
+
+    /**
+     * Removes a deleted entry.
+     *
+     * @param id the id of the deleted entry.
+     */
+    public void remove(final String id) {
+        this.entries.removeIf(entry -> id.equals(entry.get("id")));
+    }
+
+    /**
+     * Applies a change from the server's change feed.
+     *
+     * @param change the change.
+     */
+    public void apply(final EntryChange change) {
+        switch (change.getType()) {
+            case ADD -> this.insert(change.getEntry());
+            case REMOVE -> this.remove(change.getId());
+            default -> this.invalidate();
+        }
+    }
+
+    /**
+     * Marks the listed entries as outdated, so the next query fetches
+     * them again. The entries stay listed until then.
+     */
+    public void invalidate() {
+        this.query = null;
+    }
+
+    /**
+     * Sorting and filtering of the entry list, as sent to the server.
+     *
+     * @param sort        what to sort by, title, date or duration.
+     * @param reverse     whether the order is reversed.
+     * @param category    the exercise category, or "any".
+     * @param subCategory the exercise subcategory, "any" or null.
+     */
+    public record Query(String sort, boolean reverse, String category,
+                        String subCategory) {
+        /**
+         * @return the query arguments for the server.
+         */
+        public SortArgWrapper toSortArgs() {
+            SortArgWrapper builder = new SortArgWrapper()
+                    .sort(this.sort)
+                    .category(this.category)
+                    .subCategory(this.subCategory);
+            if (this.reverse) {
+                builder.reverse();
+            }
+            return builder;
+        }
+
+        /**
+         * Checks whether the server would list an entry for this query.
+         *
+         * @param entry the entry to check.
+         * @return true if the entry passes the category filters.
+         */
+        public boolean matches(final HashMap<String, String> entry) {
+            if (this.category == null || this.category.equals("any")) {
+                return true;
+            }
+            if (!this.category.equalsIgnoreCase(
+                    entry.get("exerciseCategory"))) {
+                return false;
+            }
+            return this.subCategory == null
+                    || this.subCategory.equals("any")
+                    || this.subCategory.equalsIgnoreCase(
+                            entry.get("exerciseSubCategory"));
+        }
+
+        /**
+         * @return the order the server lists entries in for this query.
+         */
+        public Comparator<HashMap<String, String>> comparator() {
+            Comparator<HashMap<String, String>> comparator =
+                    switch (this.sort) {
+                        case "date" -> Comparator.comparing(
+                                entry -> entry.get("date"));
+                        case "duration" -> Comparator.comparingLong(
+                                entry -> Long.parseLong(entry.get("duration")));
+                        default -> Comparator.comparing(
+                                entry -> entry.get("title"));
+                    };
+            return this.reverse ? comparator.reversed() : comparator;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ui;
+
+import java.util.concurrent.Callable;
+
+import javafx.concurrent.Service;
+import javafx.concurrent.Task;
+
+/**
+ * Runs server requests on a background thread, one at a time.
+ * Submitting a new request cancels the one in progress, so only the
+ * result of the latest request reaches the succeeded and failed handlers,
+ * which JavaFX runs on the application thread.
+ *
+ * @param <T> the type of the request result.
+ */
+public final class RequestService<T> extends Service<T> {
+    /**
+     * The request the next task runs.
+     */
+    private Callable<T> request;
+
+    /**
+     * Runs a request in the background,
+     * cancelling the request in progress if there is one.
+     * Must be called on the JavaFX application thread.
+     *
+     * @param newRequest the request to run.
+     */
+    public void submit(final Callable<T> newRequest) {
+        this.request = newRequest;
+        this.restart();
+    }
+
+    /**
+     * Creates a task running the latest submitted request.
+     *
+     * @return the task.
+     */
+    @Override
+    protected Task<T> createTask() {
+        final Callable<T> current = this.request;
+        return new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return current.call();
+            }
+        };
+    }
+}
@@ -1,7 +1,6 @@
 package ui;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
@@ -28,12 +27,13 @@ import javafx.scene.control.ButtonType;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
-import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
@@ -41,7 +41,11 @@ public class StartPageController {
     /**
      * Session log client.
      */
-    private final LogClient client = new LogClient("http://localhost", 8080);
+    private final LogClient client = App.getClient();
+    /**
+     * The listed log entries, kept between visits to the start page.
+     */
+    private final EntryListModel entries = App.getEntries();
     /**
      * Column width percentage.
      */
@@ -137,14 +141,38 @@ public class StartPageController {
      * Entry list viewport.
      */
     @FXML
-    private ListView<VBox> listOfEntries;
+    private ListView<HashMap<String, String>> listOfEntries;
     /**
      * Error message field.
      */
     @FXML
     private Label errorLabel;
+    /**
+     * Shown while data is loaded from the server.
+     */
+    @FXML
+    private ProgressIndicator loadingIndicator;
     // endregion
 
+    /**
+     * Loads the exercise categories for the filter dropdowns.
+     */
+    private final RequestService<HashMap<String, List<String>>> filterService =
+            new RequestService<>();
+    /**
+     * Loads the log entry list.
+     */
+    private final RequestService<List<HashMap<String, String>>> listService =
+            new RequestService<>();
+    /**
+     * The query of the latest list request.
+     */
+    private EntryListModel.Query listQuery;
+    /**
+     * The exercise categories shown in the filter dropdowns.
+     */
+    private HashMap<String, List<String>> shownFilters;
+
     /**
      * String-names of strength-subcategories.
      */
@@ -158,9 +186,8 @@ public class StartPageController {
      * Retry a method if they failed.
      * Typically because the server could not be reached.
      * @param func The name of the method to retry.
-     * @param args Necessary arguments for the method to retry.
      */
-    private void retry(final String func, final String... args) {
+    private void retry(final String func) {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Connection error");
         alert.setHeaderText("Could not connect to server");
@@ -175,13 +202,8 @@ public class StartPageController {
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && (result.get() == ButtonType.OK)) {
             switch (func) {
-                case "initialize" -> this.initialize();
+                case "loadFilters" -> this.loadFilters();
                 case "updateList" -> this.updateList();
-                case "createListEntry" -> {
-                    HashMap<String, String> entry = new HashMap<>();
-                    entry.put(args[0], args[1]);
-                    this.createListEntry(entry);
-                }
                 default -> {
                 }
             }
@@ -250,10 +272,12 @@ public class StartPageController {
     /**
      * Updates the log entry list by querying the server
      * using selected params from the dropdown menus.
+     * The request runs in the background and replaces any
+     * list request still in progress. Nothing is fetched if the
+     * entries are already listed for the selected params.
      */
     public void updateList() {
         errorLabel.setText("");
-        listOfEntries.getItems().clear();
         // Gather query information
         String sort = sortConfig.getValue().toLowerCase();
         String categoryFilter = sortCategory.getValue().toLowerCase();
@@ -262,126 +286,223 @@ public class StartPageController {
             subFilter = subFilter.toLowerCase();
         }
 
-        SortArgWrapper builder =
-            new SortArgWrapper()
-                .sort(sort)
-                .category(categoryFilter)
-                .subCategory(subFilter);
+        EntryListModel.Query query = new EntryListModel.Query(
+                sort, reverseBox.isSelected(), categoryFilter, subFilter);
 
-        if (reverseBox.isSelected()) {
-            builder.reverse();
+        if (this.entries.isLoaded(query)) {
+            this.listService.cancel();
+            return;
         }
 
-        List<HashMap<String, String>> entries;
-        try {
-            entries = this.client.getLogEntryList(builder);
-            for (HashMap<String, String> entry : entries) {
-                this.listOfEntries.getItems().add(createListEntry(entry));
-            }
-        } catch (URISyntaxException
-                | InterruptedException
-                | ExecutionException e) {
-            retry("updateList");
-            errorLabel.setText("Could not connect to server");
-            e.printStackTrace();
-        } catch (ServerResponseException e) {
-            errorLabel.setText(
-                    "Uh oh, there was an issue with your request.");
+        if (this.client.getCache() != null) {
+            this.entries.preview(query,
+                    this.client.getReplica().getEntries().values());
         }
+
+        SortArgWrapper builder = query.toSortArgs();
+        this.listQuery = query;
+        this.listService.submit(() -> this.client.getLogEntryList(builder));
     }
 
     /**
-     * Creates a VBox with information regarding the log entry.
-     * Including a button to show details of the entry,
-     * as well as a button to delete the entry.
-     * @param entry A hasmap representing the log entry to list.
-     * @return The VBox representing the log entry.
+     * Fetches the log entry list again, even if it is already listed.
      */
-    private VBox createListEntry(final HashMap<String, String> entry) {
-        VBox vBox = new VBox();
-        GridPane grid = new GridPane();
-        ColumnConstraints colConstraint = new ColumnConstraints();
+    private void reloadList() {
+        this.entries.invalidate();
+        this.updateList();
+    }
 
-        colConstraint.setPercentWidth(PERCENT_WIDTH);
-        errorLabel.setText("");
-        grid.getColumnConstraints()
-                .addAll(colConstraint, colConstraint, colConstraint,
-                        colConstraint);
-
-        Text title = new Text(entry.get("title"));
-        Text date = new Text(entry.get("date"));
-        Text category = new Text(entry.get("ExerciseCategory"));
-
-        Button open = new Button();
-        open.setText("Show");
-
-        open.setOnAction(event -> {
-            titleView.setText(entry.get("title"));
-            dateView.setText(entry.get("date"));
-            categoryView.setText(
-                    capitalize(entry.get("exerciseCategory")));
-            String subCategory = entry.get("exerciseSubCategory");
-            if (!subCategory.equals("null")) {
-                subCategory = capitalize(subCategory);
-            }
-            setOptionalField(subCategory, subcategoryView, subcategoryLabel);
+    /**
+     * Loads the exercise categories for the filter dropdowns
+     * in the background, showing the cached ones meanwhile.
+     */
+    private void loadFilters() {
+        HashMap<String, List<String>> cached =
+                this.client.getCachedCategories();
+        if (cached != null) {
+            showFilters(cached);
+        }
+        this.filterService.submit(this.client::getExerciseCategories);
+    }
 
-            durationView.setText(durationToHours(
-                    Duration.ofSeconds(Long.parseLong(entry.get("duration")))));
-            feelingView.setText(String.valueOf(entry.get("feeling")));
+    /**
+     * Adds the exercise categories to the filter dropdowns,
+     * unless they are already shown.
+     * @param filters The categories mapped to their subcategories.
+     */
+    private void showFilters(final HashMap<String, List<String>> filters) {
+        if (filters.equals(this.shownFilters)) {
+            return;
+        }
+        this.shownFilters = filters;
+        sortCategory.getItems().retainAll(List.of("Any"));
+        sortStrengthSubcategories.retainAll(List.of("Any"));
+        sortCardioSubcategories.retainAll(List.of("Any"));
+        sortCategory.getItems().addAll(
+                filters.keySet().stream().map(this::capitalize)
+                        .collect(Collectors.toList()));
+        sortStrengthSubcategories.addAll(
+                filters.get("strength").stream().map(this::capitalize)
+                        .collect(Collectors.toList()));
+        sortCardioSubcategories.addAll(
+                filters.get("running").stream().map(this::capitalize)
+                        .collect(Collectors.toList()));
+    }
 
-            String distance = entry.get("distance");
-            if (!distance.equals("null")) {
-                distance = distance.concat("km");
-            }
-            setOptionalField(distance, distanceView,
-                    distanceLabel);
+    /**
+     * Reports a failed background request.
+     * @param exception What the request failed with.
+     * @param func The name of the method to retry
+     *             if the server could not be reached.
+     */
+    private void onRequestFailed(final Throwable exception,
+                                 final String func) {
+        if (exception instanceof ServerResponseException) {
+            errorLabel.setText(
+                    "Uh oh, there was an issue with your request.");
+        } else if (exception instanceof ExecutionException) {
+            errorLabel.setText("Could not connect to server");
+            exception.printStackTrace();
+            retry(func);
+        } else {
+            exception.printStackTrace();
+        }
+    }
 
-            setOptionalField(entry.get("maxHeartRate"), heartRateView,
-                    heartRateLabel);
+    /**
+     * Shows the details of a log entry in the entry view.
+     * @param entry A hashmap representing the log entry to show.
+     */
+    private void showEntry(final HashMap<String, String> entry) {
+        titleView.setText(entry.get("title"));
+        dateView.setText(entry.get("date"));
+        categoryView.setText(
+                capitalize(entry.get("exerciseCategory")));
+        String subCategory = entry.get("exerciseSubCategory");
+        if (!subCategory.equals("null")) {
+            subCategory = capitalize(subCategory);
+        }
+        setOptionalField(subCategory, subcategoryView, subcategoryLabel);
 
-            String comment = entry.get("comment");
-            if (!comment.equals("null")) {
-                commentView.setText(comment);
-            } else {
-                commentView.clear();
-            }
-            entryView.setVisible(true);
-        });
-
-        Button delete = new Button();
-        delete.setText("Delete");
-
-        delete.setOnAction(e -> {
-            try {
-                this.client.deleteLogEntry(entry.get("id"));
-            } catch (URISyntaxException
-                    | InterruptedException
-                    | ExecutionException e1) {
-                errorLabel.setText("Could not connect to server");
-                e1.printStackTrace();
-            } catch (ServerResponseException e1) {
-                errorLabel.setText("");
-            }
-            this.updateList();
-        });
+        durationView.setText(durationToHours(
+                Duration.ofSeconds(Long.parseLong(entry.get("duration")))));
+        feelingView.setText(String.valueOf(entry.get("feeling")));
 
-        GridPane.setHalignment(title, HPos.LEFT);
-        GridPane.setHalignment(date, HPos.LEFT);
-        GridPane.setHalignment(category, HPos.LEFT);
-        GridPane.setHalignment(open, HPos.RIGHT);
-        GridPane.setHalignment(delete, HPos.LEFT);
+        String distance = entry.get("distance");
+        if (!distance.equals("null")) {
+            distance = distance.concat("km");
+        }
+        setOptionalField(distance, distanceView,
+                distanceLabel);
 
-        grid.add(title, 0, 0);
-        grid.add(date, 1, 0);
-        grid.add(category, 2, 0);
-        grid.add(open, 2 + 1, 0);
-        grid.add(delete, 2 + 1, 0);
+        setOptionalField(entry.get("maxHeartRate"), heartRateView,
+                heartRateLabel);
 
-        vBox.getChildren().add(grid);
-        vBox.setId(entry.get("id"));
+        String comment = entry.get("comment");
+        if (!comment.equals("null")) {
+            commentView.setText(comment);
+        } else {
+            commentView.clear();
+        }
+        entryView.setVisible(true);
+    }
+
+    /**
+     * Deletes a log entry in the background and removes its row.
+     * If the server rejects the deletion the list is fetched again,
+     * as it no longer matches the server.
+     * @param entry A hashmap representing the log entry to delete.
+     */
+    private void deleteEntry(final HashMap<String, String> entry) {
+        String id = entry.get("id");
+        this.client.deleteLogEntryAsync(id)
+                .whenComplete((result, exception) -> Platform.runLater(() -> {
+                    if (exception == null) {
+                        this.entries.remove(id);
+                    } else if (exception.getCause()
+                            instanceof ServerResponseException) {
+                        this.reloadList();
+                    } else {
+                        errorLabel.setText("Could not connect to server");
+                        exception.printStackTrace();
+                    }
+                }));
+    }
+
+    /**
+     * List cell showing a log entry's title, date and category,
+     * with a button to show details of the entry,
+     * as well as a button to delete the entry.
+     * The nodes are built once per cell, and the ListView reuses its
+     * cells for whichever entries are scrolled into view.
+     */
+    private final class EntryCell extends ListCell<HashMap<String, String>> {
+        /**
+         * Row layout.
+         */
+        private final GridPane grid = new GridPane();
+        /**
+         * Title column.
+         */
+        private final Text title = new Text();
+        /**
+         * Date column.
+         */
+        private final Text date = new Text();
+        /**
+         * Category column.
+         */
+        private final Text category = new Text();
+
+        /**
+         * Builds the nodes of the cell.
+         */
+        private EntryCell() {
+            ColumnConstraints colConstraint = new ColumnConstraints();
+            colConstraint.setPercentWidth(PERCENT_WIDTH);
+            grid.getColumnConstraints()
+                    .addAll(colConstraint, colConstraint, colConstraint,
+                            colConstraint);
+
+            Button open = new Button();
+            open.setText("Show");
+            open.setOnAction(event -> showEntry(getItem()));
+
+            Button delete = new Button();
+            delete.setText("Delete");
+            delete.setOnAction(event -> deleteEntry(getItem()));
+
+            GridPane.setHalignment(title, HPos.LEFT);
+            GridPane.setHalignment(date, HPos.LEFT);
+            GridPane.setHalignment(category, HPos.LEFT);
+            GridPane.setHalignment(open, HPos.RIGHT);
+            GridPane.setHalignment(delete, HPos.LEFT);
+
+            grid.add(title, 0, 0);
+            grid.add(date, 1, 0);
+            grid.add(category, 2, 0);
+            grid.add(open, 2 + 1, 0);
+            grid.add(delete, 2 + 1, 0);
+        }
 
-        return vBox;
+        /**
+         * Shows a log entry in the cell, or nothing if the cell is empty.
+         * @param entry The log entry to show.
+         * @param empty Whether the cell is empty.
+         */
+        @Override
+        protected void updateItem(final HashMap<String, String> entry,
+                                  final boolean empty) {
+            super.updateItem(entry, empty);
+            if (empty || entry == null) {
+                setGraphic(null);
+            } else {
+                title.setText(entry.get("title"));
+                date.setText(entry.get("date"));
+                category.setText(capitalize(entry.get("exerciseCategory")));
+                setGraphic(grid);
+            }
+        }
     }
 
     /**
@@ -469,7 +590,9 @@ public class StartPageController {
     }
 
     /**
-     * Initializes the controller.
+     * Initializes the controller. The exercise categories and the log
+     * entry list are loaded in the background, so the sorting selectors
+     * start out with only their "Any" options.
      *
      * @throws SecurityException if security is violated.
      */
@@ -492,34 +615,25 @@ public class StartPageController {
         sortConfigs.add("Date");
         sortConfigs.add("Duration");
 
-        HashMap<String, List<String>> filters;
-        try {
-            filters = this.client.getExerciseCategories();
-            sortCategories.addAll(
-                    filters.keySet().stream().map(this::capitalize)
-                            .collect(Collectors.toList()));
-            sortStrengthSubcategories.addAll(
-                    filters.get("strength").stream().map(this::capitalize)
-                            .collect(Collectors.toList()));
-            sortCardioSubcategories.addAll(
-                    filters.get("running").stream().map(this::capitalize)
-                            .collect(Collectors.toList()));
-
-            sortConfig.setItems(sortConfigs);
-            sortConfig.getSelectionModel().selectFirst();
-            sortCategory.setItems(sortCategories);
-            sortCategory.getSelectionModel().selectFirst();
-            sortSubcategory.setVisible(false);
-
-        } catch (ExecutionException e) {
-            this.retry("initialize");
-
-        } catch (URISyntaxException | InterruptedException e) {
-            e.printStackTrace();
-        } catch (ServerResponseException e) {
-            this.errorLabel.setText(
-                    "Uh oh, there was an issue with your request.");
-        }
+        sortConfig.setItems(sortConfigs);
+        sortConfig.getSelectionModel().selectFirst();
+        sortCategory.setItems(sortCategories);
+        sortCategory.getSelectionModel().selectFirst();
+        sortSubcategory.setVisible(false);
+        listOfEntries.setCellFactory(list -> new EntryCell());
+        listOfEntries.setItems(this.entries.getEntries());
+
+        filterService.setOnSucceeded(
+                event -> showFilters(filterService.getValue()));
+        filterService.setOnFailed(event -> onRequestFailed(
+                filterService.getException(), "loadFilters"));
+        listService.setOnSucceeded(event -> this.entries.load(
+                this.listQuery, listService.getValue()));
+        listService.setOnFailed(event -> onRequestFailed(
+                listService.getException(), "updateList"));
+        loadingIndicator.visibleProperty().bind(
+                filterService.runningProperty()
+                        .or(listService.runningProperty()));
 
         bindVisibility(heartRateLabel);
         bindVisibility(heartRateView);
@@ -528,6 +642,7 @@ public class StartPageController {
         bindVisibility(subcategoryLabel);
         bindVisibility(subcategoryView);
 
+        this.loadFilters();
         this.updateList();
     }
 }
@@ -1,12 +1,11 @@
 package ui;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map.Entry;
-import java.util.concurrent.ExecutionException;
 
+import client.Dashboard;
 import client.LogClient;
 import client.LogClient.SortArgWrapper;
 import client.ServerResponseException;
@@ -24,13 +23,14 @@ import javafx.scene.chart.XYChart.Series;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.stage.Stage;
 
 public class StatisticsController {
     /**
      * x-axis for the bar chart.
      */
-    private final LogClient client = new LogClient("http://localhost", 8080);
+    private final LogClient client = App.getClient();
     /**
      * Selector values.
      */
@@ -97,6 +97,17 @@ public class StatisticsController {
      */
     @FXML
     private DatePicker end;
+    /**
+     * Shown while data is loaded from the server.
+     */
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
+    /**
+     * Loads the statistics and the bar chart data in one request.
+     */
+    private final RequestService<Dashboard> dashboardService =
+            new RequestService<>();
 
     /**
      * Sets starting values for necessary fields.
@@ -110,6 +121,15 @@ public class StatisticsController {
         end.setValue(LocalDate.now());
         speedLabel.setVisible(false);
         averageSpeed.setVisible(false);
+
+        dashboardService.setOnSucceeded(event -> {
+            showData(dashboardService.getValue().statistics());
+            showBarChart(dashboardService.getValue().chart());
+        });
+        dashboardService.setOnFailed(
+                event -> onRequestFailed(dashboardService.getException()));
+        loadingIndicator.visibleProperty().bind(
+                dashboardService.runningProperty());
     }
 
     /**
@@ -138,11 +158,11 @@ public class StatisticsController {
     @FXML
     public void onHandleData() {
         this.getData();
-        this.createBarChart();
     }
 
     /**
-     * Updates the view using options from the UI elements.
+     * Loads the statistics and the bar chart data in the background,
+     * using options from the UI elements.
      */
     private void getData() {
         speedLabel.setVisible(false);
@@ -165,11 +185,17 @@ public class StatisticsController {
 
         sortArgWrapper.date(
                 start.getValue().toString() + "-" + end.getValue().toString());
-        HashMap<String, String> dataEntries;
+        this.dashboardService.submit(
+                () -> this.client.getDashboard(sortArgWrapper, false));
+    }
 
+    /**
+     * Updates the view with loaded statistics.
+     *
+     * @param dataEntries the statistics.
+     */
+    private void showData(final HashMap<String, String> dataEntries) {
         try {
-            dataEntries = this.client.getStatistics(sortArgWrapper);
-
             if (dataEntries.containsKey("empty")) {
                 if (dataEntries.get("empty").equals("True")) {
                     throw new IllegalStateException("There are no entries");
@@ -192,67 +218,57 @@ public class StatisticsController {
                     }
                 }
             });
-        } catch (URISyntaxException
-                | InterruptedException
-                | ExecutionException e) {
-            errorLabel.setText("Could not connect to server");
-            e.printStackTrace();
-        } catch (ServerResponseException e) {
-            errorLabel.setText("Uh oh, there was an issue with your request.");
         } catch (IllegalStateException eae) {
             errorLabel.setText("There are no sessions saved");
         }
+    }
 
-        this.createBarChart();
+    /**
+     * Reports a failed background request.
+     *
+     * @param exception what the request failed with.
+     */
+    private void onRequestFailed(final Throwable exception) {
+        if (exception instanceof ServerResponseException) {
+            errorLabel.setText("Uh oh, there was an issue with your request.");
+        } else {
+            errorLabel.setText("Could not connect to server");
+            exception.printStackTrace();
+        }
     }
 
     /**
-     * Creates and displays a bar chart.
+     * Displays a bar chart of loaded chart data.
+     *
+     * @param dataEntries the session count of each category.
      */
-    private void createBarChart() {
-        SortArgWrapper sortArgWrapper = new SortArgWrapper();
-        HashMap<String, String> dataEntries;
+    private void showBarChart(final HashMap<String, String> dataEntries) {
         int swimming = 0;
         int running = 0;
         int strength = 0;
         int cycling = 0;
 
-        sortArgWrapper.date(
-                start.getValue().toString() + "-" + end.getValue().toString());
-
-        try {
-            dataEntries = this.client.getChartData(sortArgWrapper);
-            for (Entry<String, String> dataEntry : dataEntries.entrySet()) {
-                switch (dataEntry.getKey()) {
-                    case "swimming" -> {
-                        swimming =
-                                Integer.parseInt(dataEntry.getValue());
-                    }
-                    case "running" -> {
-                        running =
-                                Integer.parseInt(dataEntry.getValue());
-                    }
-                    case "strength" -> {
-                        strength =
-                                Integer.parseInt(dataEntry.getValue());
-                    }
-                    case "cycling" -> {
-                        cycling =
-                                Integer.parseInt(dataEntry.getValue());
-                    }
-                    default -> {
-                    }
+        for (Entry<String, String> dataEntry : dataEntries.entrySet()) {
+            switch (dataEntry.getKey()) {
+                case "swimming" -> {
+                    swimming =
+                            Integer.parseInt(dataEntry.getValue());
+                }
+                case "running" -> {
+                    running =
+                            Integer.parseInt(dataEntry.getValue());
+                }
+                case "strength" -> {
+                    strength =
+                            Integer.parseInt(dataEntry.getValue());
+                }
+                case "cycling" -> {
+                    cycling =
+                            Integer.parseInt(dataEntry.getValue());
+                }
+                default -> {
                 }
             }
-        } catch (URISyntaxException
-                | InterruptedException
-                | ExecutionException e) {
-            errorLabel.setText("Could not connect to server");
-            e.printStackTrace();
-        } catch (ServerResponseException e) {
-            errorLabel.setText("Uh oh, there was an issue with your request.");
-        } catch (IllegalStateException eae) {
-            errorLabel.setText("There are no sessions saved");
         }
 
         Series<String, Number> chart = new XYChart.Series<>();
@@ -0,0 +1,39 @@
+package ui;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javafx.scene.Node;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.testfx.framework.junit5.ApplicationTest;
+import org.testfx.util.WaitForAsyncUtils;
+
+/**
+ * Base of the ui tests, waiting for the data a page loads in the
+ * background before each test goes on.
+ */
+abstract class AsyncApplicationTest extends ApplicationTest {
+
+    /**
+     * Waits for the start page to load its data.
+     */
+    @BeforeEach
+    public void waitForStartPage() {
+        waitForLoading();
+    }
+
+    /**
+     * Waits until no loading indicator is shown.
+     */
+    protected void waitForLoading() {
+        try {
+            WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> lookup("#loadingIndicator")
+                    .queryAll().stream().noneMatch(Node::isVisible));
+        } catch (TimeoutException e) {
+            Assertions.fail("Data was not loaded in time");
+        }
+        WaitForAsyncUtils.waitForFxEvents();
+    }
+}
@@ -1,6 +1,5 @@
 package ui;
 
-import org.testfx.framework.junit5.ApplicationTest;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
@@ -13,8 +12,6 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 
-
-
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -30,7 +27,7 @@ import java.net.URISyntaxException;
 import java.util.UUID;
 
 
-public class TestAddNewSessionController extends ApplicationTest{
+public class TestAddNewSessionController extends AsyncApplicationTest {
     private Parent root;
     private Stage stageRef;
 
@@ -58,6 +55,7 @@ public class TestAddNewSessionController extends ApplicationTest{
     @Override
     public void start(Stage stage) throws IOException, URISyntaxException {
         startWireMockServer();
+        App.getEntries().invalidate();
         this.stageRef = stage;
         FXMLLoader Loader = new FXMLLoader();
         Loader.setLocation(getClass().getResource("StartPage.fxml"));
@@ -94,6 +92,7 @@ public class TestAddNewSessionController extends ApplicationTest{
                                   String sub, String distance) throws IOException {
         updateRoot();                  
         clickOn("#addSession");
+        waitForLoading();
         clickOn("#titleField");
         write(title);
         clickOn("#hour");
@@ -122,6 +121,7 @@ public class TestAddNewSessionController extends ApplicationTest{
         updateRoot();
 
         clickOn("#addSession");
+        waitForLoading();
         clickOn("#titleField");
         write("New new Session");
         clickOn("#sessionDatePicker");
@@ -146,6 +146,7 @@ public class TestAddNewSessionController extends ApplicationTest{
 
         click("Create session");
 
+        waitForLoading();
         mockServer.verify(1, postRequestedFor(urlEqualTo("/api/v1/entries/add")));
     }
 
@@ -160,6 +161,7 @@ public class TestAddNewSessionController extends ApplicationTest{
         addEntryClicking("Gainzz", "I did bench presses as well as some push-ups",
         "1", "45", "Strength", "90", "Push", null);
         
+        waitForLoading();
         mockServer.verify(1, postRequestedFor(urlEqualTo("/api/v1/entries/add")));
     }
 
@@ -173,6 +175,7 @@ public class TestAddNewSessionController extends ApplicationTest{
         addEntryClicking("Cardio", "I ran a while",
         "3", "30", "Running", "200", "Long", "6");
         
+        waitForLoading();
         mockServer.verify(1, postRequestedFor(urlEqualTo("/api/v1/entries/add")));
     }
 
@@ -186,6 +189,7 @@ public class TestAddNewSessionController extends ApplicationTest{
         addEntryClicking("Laps", "Did a couple of laps",
         "1", "00", "Swimming", "220", "Highintensity", "10");
 
+        waitForLoading();
         mockServer.verify(1, postRequestedFor(urlEqualTo("/api/v1/entries/add")));
     }
 
@@ -194,6 +198,7 @@ public class TestAddNewSessionController extends ApplicationTest{
     @Test
     public void testReturn() {
         click("Add workout");
+        waitForLoading();
         Assertions.assertEquals("Add new session", this.stageRef.getTitle());
         clickOn("#titleField");
         write("New Test");
@@ -213,13 +218,15 @@ public class TestAddNewSessionController extends ApplicationTest{
                 .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "aplication/json").withBody(body)));
 
         click("Create session");
+        waitForLoading();
         mockServer.verify(1, postRequestedFor(urlEqualTo("/api/v1/entries/add")));
-        
+        Assertions.assertEquals("Get fit", this.stageRef.getTitle());
     }
 
     @Test
     public void testValidation(){
         click("Add workout");
+        waitForLoading();
         Assertions.assertEquals("Add new session", this.stageRef.getTitle());
         click("Create session");
         clickOn("#titleField");
@@ -240,6 +247,7 @@ public class TestAddNewSessionController extends ApplicationTest{
                 .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "aplication/json").withBody(body)));
 
         click("Create session");
+        waitForLoading();
         mockServer.verify(1, postRequestedFor(urlEqualTo("/api/v1/entries/add")));
 
        
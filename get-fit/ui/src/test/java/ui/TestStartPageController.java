@@ -15,24 +15,27 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
-
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.ListView;
 import javafx.stage.Stage;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
-import org.testfx.framework.junit5.ApplicationTest;
 import org.testfx.matcher.control.LabeledMatchers;
+import org.testfx.util.WaitForAsyncUtils;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class TestStartPageController extends ApplicationTest{
+public class TestStartPageController extends AsyncApplicationTest {
 
     private Parent root;
     private Stage stageRef;
@@ -60,6 +63,7 @@ public class TestStartPageController extends ApplicationTest{
     @Override
     public void start(Stage stage) throws IOException, URISyntaxException {
         startWireMockServer();
+        App.getEntries().invalidate();
         this.stageRef = stage;
         FXMLLoader Loader = new FXMLLoader();
         Loader.setLocation(getClass().getResource("StartPage.fxml"));
@@ -95,17 +99,20 @@ public class TestStartPageController extends ApplicationTest{
     public void testSwitchPage(){
         Assertions.assertEquals("Get fit", this.stageRef.getTitle());
         click("Add workout");
+        waitForLoading();
         Assertions.assertEquals("Add new session", this.stageRef.getTitle());
         click("Return");
+        waitForLoading();
         Assertions.assertEquals("Get fit", this.stageRef.getTitle());
         click("Statistics");
         Assertions.assertEquals("Statistics", this.stageRef.getTitle());
         click("Return");
+        waitForLoading();
         Assertions.assertEquals("Get fit", this.stageRef.getTitle());
     }
 
     @Test
-    public void testDelete() {
+    public void testDelete() throws TimeoutException {
 
         UrlPattern externalUrl = urlPathMatching("/api/v1/entries/remove/0");
         stubFor(post(externalUrl));
@@ -118,7 +125,10 @@ public class TestStartPageController extends ApplicationTest{
                 .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "aplication/json").withBody(body2)));
 
         click("Delete");
-        mockServer.verify(2, getRequestedFor(urlEqualTo("/api/v1/entries/list?r=false&s=title&c=any"))); 
+        WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS,
+                () -> lookup("#listOfEntries").<ListView<?>>query().getItems().size() == 2);
+        mockServer.verify(1, postRequestedFor(externalUrl));
+        mockServer.verify(1, getRequestedFor(urlEqualTo("/api/v1/entries/list?r=false&s=title&c=any")));
 
     }
 
@@ -132,6 +142,7 @@ public class TestStartPageController extends ApplicationTest{
                 .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "aplication/json").withBody(body2)));
         
         clickOn("#reverseBox");
+        waitForLoading();
         mockServer.verify(1, getRequestedFor(urlEqualTo("/api/v1/entries/list?r=true&s=title&c=any"))); 
 
     }
@@ -149,6 +160,7 @@ public class TestStartPageController extends ApplicationTest{
 
         clickOn("#sortConfig");
         click("Date");
+        waitForLoading();
 
         mockServer.verify(1, getRequestedFor(urlEqualTo("/api/v1/entries/list?r=false&s=date&c=any")));
 
@@ -168,6 +180,7 @@ public class TestStartPageController extends ApplicationTest{
 
         clickOn("#sortConfig");
         click("Duration");
+        waitForLoading();
 
         String body2 = "{\"entries\": [{\"id\": \"0\",\"title\": \"Example title1\",\"comment\": \"Example comment\",\"date\": \"2021-09-01\",\"feeling\": \"6\",\"duration\": \"3600\",\"distance\": \"10\",\"maxHeartRate\": \"120\",\"exerciseCategory\": \"Running\",\"exerciseSubCategory\": \"short\"},"+
                 "{\"id\": \"2\",\"title\": \"Example title3\",\"comment\": \"Example comment\",\"date\": \"2021-06-06\",\"feeling\": \"4\",\"duration\": \"5400\",\"distance\": \"12\",\"maxHeartRate\": \"220\",\"exerciseCategory\": \"Running\",\"exerciseSubCategory\": \"Long\"}]}";
@@ -179,6 +192,7 @@ public class TestStartPageController extends ApplicationTest{
         
         clickOn("#sortCategory");
         click("Running");
+        waitForLoading();
 
         mockServer.verify(1, getRequestedFor(urlEqualTo("/api/v1/entries/list?r=false&s=duration&c=running&sc=any")));
 
@@ -189,6 +203,7 @@ public class TestStartPageController extends ApplicationTest{
 
         clickOn("#sortSubcategory");
         click("Short");
+        waitForLoading();
 
         mockServer.verify(1, getRequestedFor(urlEqualTo("/api/v1/entries/list?r=false&s=duration&c=running&sc=short")));
 
@@ -201,6 +216,7 @@ public class TestStartPageController extends ApplicationTest{
        
         clickOn("#sortCategory");
         click("Strength");
+        waitForLoading();
 
         mockServer.verify(1, getRequestedFor(urlEqualTo("/api/v1/entries/list?r=false&s=duration&c=strength&sc=any")));
     
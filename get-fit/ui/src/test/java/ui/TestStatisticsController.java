@@ -4,6 +4,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -16,7 +17,6 @@ import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
-import org.testfx.framework.junit5.ApplicationTest;
 import org.testfx.matcher.control.LabeledMatchers;
 
 import javafx.fxml.FXMLLoader;
@@ -25,8 +25,7 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 
-
-public class TestStatisticsController extends ApplicationTest{
+public class TestStatisticsController extends AsyncApplicationTest {
 
 
     private WireMockConfiguration mockConfig;
@@ -53,6 +52,7 @@ public class TestStatisticsController extends ApplicationTest{
     @Override
     public void start(Stage stage) throws IOException, URISyntaxException {
         startWireMockServer();
+        App.getEntries().invalidate();
         FXMLLoader Loader = new FXMLLoader();
         Loader.setLocation(getClass().getResource("StartPage.fxml"));
         Parent root = Loader.load();
@@ -74,36 +74,34 @@ public class TestStatisticsController extends ApplicationTest{
     public void testStatisticsData(){
         click("Statistics");
 
-        String body = "{\"empty\": \"False\",\"count\": \"5\",\"totalDuration\": \"20h:10min\",\"averageDuration\":\"2h:10min\",\"averageSpeed\": \"7.0\",\"averageFeeling\": \"3.3\", \"maximumHr\": \"180\" }";
-        stubFor(get(urlEqualTo("/api/v1/entries/stats?d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()+"&c=RUNNING"))
+        String body = "{\"statistics\": {\"empty\": \"False\",\"count\": \"5\",\"totalDuration\": \"20h:10min\",\"averageDuration\":\"2h:10min\",\"averageSpeed\": \"7.0\",\"averageFeeling\": \"3.3\", \"maximumHr\": \"180\" }, \"chart\": {\"swimming\": \"2\",\"running\": \"3\",\"strength\": \"0\",\"cycling\": \"2\"}, \"entries\": []}";
+        stubFor(get(urlEqualTo("/api/v1/entries/dashboard?r=false&c=RUNNING&d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()+"&e=false"))
         .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "aplication/json").withBody(body)));
 
-
-        String body2 = "{\"swimming\": \"2\",\"running\": \"3\",\"strength\": \"0\",\"cycling\": \"2\"}";
-        stubFor(get(urlEqualTo("/api/v1/entries/chart?d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()))
-        .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "aplication/json").withBody(body2)));
-
         clickOn("#exerciseType");
         clickOn("Running");
         clickOn("#start");
         clickOn("#end");
 
         click("Enter");
+        waitForLoading();
 
-        mockServer.verify(1, getRequestedFor((urlEqualTo("/api/v1/entries/stats?d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()+"&c=RUNNING")))); 
-        mockServer.verify(2, getRequestedFor((urlEqualTo("/api/v1/entries/chart?d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString())))); 
+        mockServer.verify(1, getRequestedFor((urlEqualTo("/api/v1/entries/dashboard?r=false&c=RUNNING&d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()+"&e=false"))));
+        mockServer.verify(0, getRequestedFor((urlPathEqualTo("/api/v1/entries/stats"))));
+        mockServer.verify(0, getRequestedFor((urlPathEqualTo("/api/v1/entries/chart"))));
     }
 
     @Test
     public void testEmptyStatistics(){
         click("Statistics");
 
-        String body3 = "{\"empty\": \"True\",\"count\": \"0\",\"totalDuration\": \"0h:0min\",\"averageDuration\":\"0h:0min\",\"averageSpeed\": \"0.0\",\"averageFeeling\": \"0.0\", \"maximumHr\": \"0.0\" }";
-        stubFor(get(urlEqualTo("/api/v1/entries/stats?d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()))
+        String body3 = "{\"statistics\": {\"empty\": \"True\",\"count\": \"0\",\"totalDuration\": \"0h:0min\",\"averageDuration\":\"0h:0min\",\"averageSpeed\": \"0.0\",\"averageFeeling\": \"0.0\", \"maximumHr\": \"0.0\" }, \"chart\": {\"swimming\": \"0\",\"running\": \"0\",\"strength\": \"0\",\"cycling\": \"0\"}, \"entries\": []}";
+        stubFor(get(urlEqualTo("/api/v1/entries/dashboard?r=false&d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()+"&e=false"))
         .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "aplication/json").withBody(body3)));
 
         click("Enter");
-        mockServer.verify(1, getRequestedFor((urlEqualTo("/api/v1/entries/stats?d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString())))); 
+        waitForLoading();
+        mockServer.verify(1, getRequestedFor((urlEqualTo("/api/v1/entries/dashboard?r=false&d="+(LocalDate.now().minusYears(1)).toString()+"-"+LocalDate.now().toString()+"&e=false"))));
         
         click("Return");
 
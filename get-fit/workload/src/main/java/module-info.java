@@ -0,0 +1,6 @@
+module workload {
+    requires transitive core;
+    requires localpersistence;
+
+    exports workload;
+}
@@ -0,0 +1,415 @@
+package workload;
+
+import core.CardioSubCategory;
+import core.EntryManager;
+import core.ExerciseCategory;
+import core.LogEntry;
+import core.LogEntryJson;
+import core.Subcategory;
+import localpersistence.EntrySaverJson;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Generates realistic, valid LogEntries for benchmarks, load tests and
+ * capacity planning. The entries are generated from a seed, so the same
+ * seed, mix, years and date always give the same entries.
+ *
+ * <p>Every category has its own typical duration, speed and heart rate,
+ * which the entries are spread normally around. Distances follow from the
+ * duration and speed, cardio subcategories from the heart rate and
+ * duration, and the dates are spread evenly over the years before the
+ * given date.
+ */
+public final class WorkloadGenerator {
+    /**
+     * The seed used when none is given.
+     */
+    public static final long DEFAULT_SEED = 2123;
+    /**
+     * The number of years of entries generated when none is given.
+     */
+    public static final int DEFAULT_YEARS = 3;
+    /**
+     * Days in a year.
+     */
+    private static final int DAYS_PER_YEAR = 365;
+    /**
+     * Seconds in a minute.
+     */
+    private static final int SECONDS_PER_MINUTE = 60;
+    /**
+     * Minutes in an hour.
+     */
+    private static final double MINUTES_PER_HOUR = 60;
+    /**
+     * Shortest duration, in minutes.
+     */
+    private static final double MIN_MINUTES = 5;
+    /**
+     * Longest duration, in minutes.
+     */
+    private static final double MAX_MINUTES = 360;
+    /**
+     * Highest maximum heart rate.
+     */
+    private static final double MAX_HEART_RATE = 210;
+    /**
+     * The mean feeling.
+     */
+    private static final double MEAN_FEELING = 6.5;
+    /**
+     * The standard deviation of the feeling.
+     */
+    private static final double FEELING_DEVIATION = 2;
+    /**
+     * Distances are rounded to this fraction of a kilometer.
+     */
+    private static final double DISTANCE_PRECISION = 100;
+    /**
+     * Share of the entries with a subcategory.
+     */
+    private static final double SUBCATEGORY_SHARE = 0.9;
+    /**
+     * Share of the entries with a maximum heart rate.
+     */
+    private static final double HEART_RATE_SHARE = 0.8;
+    /**
+     * Share of the entries with a comment.
+     */
+    private static final double COMMENT_SHARE = 0.3;
+    /**
+     * The comments given.
+     */
+    private static final List<String> COMMENTS = List.of(
+        "Felt good today", "Tired legs", "New personal best",
+        "Took it easy", "Bad weather", "Great session with friends");
+    /**
+     * How each category is typically exercised.
+     */
+    private static final Map<ExerciseCategory, Profile> PROFILES = Map.of(
+        ExerciseCategory.STRENGTH, new Profile(60, 15, 0, 0, 145, 12,
+            List.of("Gym session", "Upper body", "Leg day", "Full body")),
+        ExerciseCategory.RUNNING, new Profile(45, 15, 10.5, 1.5, 172, 10,
+            List.of("Morning run", "Easy run", "Intervals", "Long run")),
+        ExerciseCategory.CYCLING, new Profile(90, 35, 25, 4, 162, 12,
+            List.of("Commute", "Road ride", "Spinning", "Hill climbs")),
+        ExerciseCategory.SWIMMING, new Profile(40, 10, 2.5, 0.5, 155, 10,
+            List.of("Pool session", "Open water", "Technique drills")));
+
+    /**
+     * The source of randomness.
+     */
+    private final Random random;
+    /**
+     * The distribution of categories.
+     */
+    private final WorkloadMix mix;
+    /**
+     * The number of days the dates are spread over.
+     */
+    private final int days;
+    /**
+     * The date of the latest entries.
+     */
+    private final LocalDate lastDate;
+
+    /**
+     * Creates a generator of the typical mix, over the default number of
+     * years up to today.
+     *
+     * @param seed the seed.
+     */
+    public WorkloadGenerator(final long seed) {
+        this(seed, WorkloadMix.TYPICAL, DEFAULT_YEARS, LocalDate.now());
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed     the seed.
+     * @param mix      the distribution of categories.
+     * @param years    the number of years the dates are spread over.
+     * @param lastDate the date of the latest entries, at most today.
+     * @throws IllegalArgumentException if mix or lastDate is null, years
+     *                                  is not positive or lastDate is
+     *                                  after today.
+     */
+    public WorkloadGenerator(final long seed, final WorkloadMix mix,
+                             final int years, final LocalDate lastDate)
+            throws IllegalArgumentException {
+        if (mix == null || lastDate == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        if (years < 1) {
+            throw new IllegalArgumentException("Years must be positive");
+        }
+        if (lastDate.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException(
+                "Last date cannot be after now");
+        }
+        this.random = new Random(seed);
+        this.mix = mix;
+        this.days = years * DAYS_PER_YEAR;
+        this.lastDate = lastDate;
+    }
+
+    /**
+     * Generates the next entry.
+     *
+     * @return a valid entry, without an id.
+     */
+    public LogEntry next() {
+        ExerciseCategory category = this.mix.pick(this.random);
+        Profile profile = PROFILES.get(category);
+
+        double minutes = clamp(gaussian(profile.minutes(),
+            profile.minutesDeviation()), MIN_MINUTES, MAX_MINUTES);
+        double heartRate = clamp(gaussian(profile.heartRate(),
+            profile.heartRateDeviation()), LogEntry.MINHEARTRATEHUMAN,
+            MAX_HEART_RATE);
+        int feeling = (int) Math.round(clamp(
+            gaussian(MEAN_FEELING, FEELING_DEVIATION),
+            LogEntry.MINFEELING, LogEntry.MAXFEELING));
+
+        LogEntry.EntryBuilder builder = new LogEntry.EntryBuilder(
+                pickOf(profile.titles()),
+                this.lastDate.minusDays(this.random.nextInt(this.days)),
+                Duration.ofSeconds(Math.round(minutes * SECONDS_PER_MINUTE)),
+                category, feeling);
+
+        if (this.random.nextDouble() < SUBCATEGORY_SHARE) {
+            builder.exerciseSubCategory(
+                subcategory(category, profile, minutes, heartRate));
+        }
+        if (profile.speed() > 0) {
+            double speed = Math.max(profile.speed() / 2,
+                gaussian(profile.speed(), profile.speedDeviation()));
+            builder.distance(Math.round(speed * minutes / MINUTES_PER_HOUR
+                * DISTANCE_PRECISION) / DISTANCE_PRECISION);
+        }
+        if (this.random.nextDouble() < HEART_RATE_SHARE) {
+            builder.maxHeartRate((int) Math.round(heartRate));
+        }
+        if (this.random.nextDouble() < COMMENT_SHARE) {
+            builder.comment(pickOf(COMMENTS));
+        }
+        return builder.build(this.lastDate);
+    }
+
+    /**
+     * Lazily generates entries, so they need not all be held at once.
+     *
+     * @param count the number of entries.
+     * @return an iterator over the next count entries.
+     */
+    public Iterator<LogEntry> iterator(final int count) {
+        return new Iterator<>() {
+            private int remaining = count;
+
+            @Override
+            public boolean hasNext() {
+                return this.remaining > 0;
+            }
+
+            @Override
+            public LogEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                this.remaining--;
+                return WorkloadGenerator.this.next();
+            }
+        };
+    }
+
+    /**
+     * Generates entries.
+     *
+     * @param count the number of entries.
+     * @return the next count entries, without ids.
+     */
+    public List<LogEntry> generate(final int count) {
+        List<LogEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(next());
+        }
+        return entries;
+    }
+
+    /**
+     * Generates entries straight into an EntryManager, which gives them
+     * their ids.
+     *
+     * @param entryManager the EntryManager to add to.
+     * @param count        the number of entries.
+     * @throws IllegalArgumentException if entryManager is null.
+     */
+    public void fill(final EntryManager entryManager, final int count)
+            throws IllegalArgumentException {
+        if (entryManager == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        for (int i = 0; i < count; i++) {
+            entryManager.addEntry(next());
+        }
+    }
+
+    /**
+     * Generates entries into a save file, in the format EntrySaverJson
+     * loads and the server starts from.
+     *
+     * @param saveFile path to the file being written to.
+     * @param count    the number of entries.
+     * @throws IOException              if there was an issue during write.
+     * @throws IllegalArgumentException if saveFile is null.
+     */
+    public void save(final String saveFile, final int count)
+            throws IOException, IllegalArgumentException {
+        EntryManager entryManager = new EntryManager();
+        fill(entryManager, count);
+        EntrySaverJson.save(entryManager, saveFile);
+    }
+
+    /**
+     * Streams entries as a JSON array of the version 1 API, without
+     * holding them all at once.
+     *
+     * @param out   where to write.
+     * @param count the number of entries.
+     * @throws IOException if out could not be written to.
+     */
+    public void writeJson(final Appendable out, final int count)
+            throws IOException {
+        LogEntryJson.writeArray(iterator(count), out);
+    }
+
+    /**
+     * Streams entries as a JSON array of the typed version 2 API, without
+     * holding them all at once.
+     *
+     * @param out   where to write.
+     * @param count the number of entries.
+     * @throws IOException if out could not be written to.
+     */
+    public void writeTypedJson(final Appendable out, final int count)
+            throws IOException {
+        LogEntryJson.writeTypedArray(iterator(count), out);
+    }
+
+    /**
+     * @return the date of the earliest entries.
+     */
+    public LocalDate getFirstDate() {
+        return this.lastDate.minusDays(this.days - 1);
+    }
+
+    /**
+     * @return the date of the latest entries.
+     */
+    public LocalDate getLastDate() {
+        return this.lastDate;
+    }
+
+    /**
+     * Picks a subcategory. Cardio exercise with a high or low heart rate
+     * is high or low intensity, otherwise short or long by its duration.
+     *
+     * @param category  the category.
+     * @param profile   how the category is typically exercised.
+     * @param minutes   the duration, in minutes.
+     * @param heartRate the maximum heart rate.
+     * @return the subcategory.
+     */
+    private Subcategory subcategory(final ExerciseCategory category,
+                                    final Profile profile,
+                                    final double minutes,
+                                    final double heartRate) {
+        if (category == ExerciseCategory.STRENGTH) {
+            Subcategory[] subcategories = category.getSubcategories();
+            return subcategories[this.random.nextInt(subcategories.length)];
+        }
+        if (heartRate > profile.heartRate() + profile.heartRateDeviation()) {
+            return CardioSubCategory.HIGHINTENSITY;
+        }
+        if (heartRate < profile.heartRate() - profile.heartRateDeviation()) {
+            return CardioSubCategory.LOWINTENSITY;
+        }
+        return minutes > profile.minutes()
+            ? CardioSubCategory.LONG : CardioSubCategory.SHORT;
+    }
+
+    /**
+     * @param mean      the mean.
+     * @param deviation the standard deviation.
+     * @return a normally distributed value.
+     */
+    private double gaussian(final double mean, final double deviation) {
+        return mean + this.random.nextGaussian() * deviation;
+    }
+
+    /**
+     * @param values the values to pick from.
+     * @return a value picked evenly.
+     */
+    private String pickOf(final List<String> values) {
+        return values.get(this.random.nextInt(values.size()));
+    }
+
+    /**
+     * @param value the value.
+     * @param min   the lowest value.
+     * @param max   the highest value.
+     * @return the value, within min and max.
+     */
+    private static double clamp(final double value, final double min,
+                                final double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Writes a save file of generated entries, for starting the server
+     * with a large history.
+     *
+     * @param args the number of entries and the save file, optionally
+     *             followed by the seed and the mix.
+     * @throws IOException if the file could not be written.
+     */
+    public static void main(final String... args) throws IOException {
+        if (args.length < 2) {
+            System.err.println(
+                "Usage: WorkloadGenerator <count> <saveFile> [seed] [mix]");
+            return;
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        WorkloadMix mix = args.length > 3
+            ? WorkloadMix.valueOf(args[3].toUpperCase()) : WorkloadMix.TYPICAL;
+        new WorkloadGenerator(seed, mix, DEFAULT_YEARS, LocalDate.now())
+            .save(args[1], Integer.parseInt(args[0]));
+    }
+
+    /**
+     * How a category is typically exercised.
+     *
+     * @param minutes            the mean duration, in minutes.
+     * @param minutesDeviation   the standard deviation of the duration.
+     * @param speed              the mean speed in km/h, or 0 if the
+     *                           category has no distance.
+     * @param speedDeviation     the standard deviation of the speed.
+     * @param heartRate          the mean maximum heart rate.
+     * @param heartRateDeviation the standard deviation of the heart rate.
+     * @param titles             the titles given.
+     */
+    private record Profile(double minutes, double minutesDeviation,
+                           double speed, double speedDeviation,
+                           double heartRate, double heartRateDeviation,
+                           List<String> titles) { }
+}
@@ -0,0 +1,77 @@
+package workload;
+
+import core.ExerciseCategory;
+
+import java.util.Random;
+
+/**
+ * How the exercise categories of a generated workload are distributed.
+ * Every mix weighs the categories strength, running, cycling and
+ * swimming.
+ */
+public enum WorkloadMix {
+    /**
+     * The typical user, mostly strength and running.
+     */
+    TYPICAL(4, 3, 2, 1),
+    /**
+     * An equal share of every category.
+     */
+    BALANCED(1, 1, 1, 1),
+    /**
+     * Mostly strength.
+     */
+    STRENGTH(7, 1, 1, 1),
+    /**
+     * Only running, cycling and swimming.
+     */
+    CARDIO(0, 5, 3, 2);
+
+    /**
+     * The categories weighed, in order.
+     */
+    private static final ExerciseCategory[] CATEGORIES = {
+        ExerciseCategory.STRENGTH, ExerciseCategory.RUNNING,
+        ExerciseCategory.CYCLING, ExerciseCategory.SWIMMING};
+
+    /**
+     * The cumulative share of each category, ending at 1.
+     */
+    private final double[] cumulative;
+
+    /**
+     * Creates a mix from the weights of the categories.
+     *
+     * @param strength the weight of strength.
+     * @param running  the weight of running.
+     * @param cycling  the weight of cycling.
+     * @param swimming the weight of swimming.
+     */
+    WorkloadMix(final double strength, final double running,
+                final double cycling, final double swimming) {
+        double[] weights = {strength, running, cycling, swimming};
+        double total = strength + running + cycling + swimming;
+        this.cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            this.cumulative[i] = sum / total;
+        }
+    }
+
+    /**
+     * Picks a category according to the mix.
+     *
+     * @param random the source of randomness.
+     * @return the category.
+     */
+    ExerciseCategory pick(final Random random) {
+        double roll = random.nextDouble();
+        for (int i = 0; i < this.cumulative.length - 1; i++) {
+            if (roll < this.cumulative[i]) {
+                return CATEGORIES[i];
+            }
+        }
+        return CATEGORIES[CATEGORIES.length - 1];
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Package for generating synthetic workout histories.
+ */
+package workload;
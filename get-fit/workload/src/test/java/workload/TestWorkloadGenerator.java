@@ -0,0 +1,90 @@
+package workload;
+
+import core.EntryManager;
+import core.ExerciseCategory;
+import core.LogEntry;
+import localpersistence.EntrySaverJson;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+public class TestWorkloadGenerator {
+
+    private static final String saveFile = "SavedWorkloadData.json";
+    private static final LocalDate today = LocalDate.now();
+
+    @AfterAll
+    public static void teardown() {
+        File f = new File(saveFile);
+        f.delete();
+    }
+
+    @Test
+    public void testSameSeedSameEntries() {
+        List<LogEntry> first = new WorkloadGenerator(1,
+                WorkloadMix.TYPICAL, 1, today).generate(100);
+        List<LogEntry> second = new WorkloadGenerator(1,
+                WorkloadMix.TYPICAL, 1, today).generate(100);
+        for (int i = 0; i < first.size(); i++) {
+            Assertions.assertEquals(first.get(i).toHash(),
+                    second.get(i).toHash());
+        }
+    }
+
+    @Test
+    public void testEntriesAreValid() {
+        WorkloadGenerator generator =
+                new WorkloadGenerator(2, WorkloadMix.BALANCED, 2, today);
+        for (LogEntry entry : generator.generate(10000)) {
+            Assertions.assertDoesNotThrow(
+                    () -> LogEntry.fromHash(entry.toHash(), today));
+            Assertions.assertFalse(
+                    entry.getDate().isBefore(generator.getFirstDate()));
+            Assertions.assertFalse(entry.getDate().isAfter(today));
+            Assertions.assertEquals(
+                    entry.getExerciseCategory() != ExerciseCategory.STRENGTH,
+                    entry.getDistance() != null);
+        }
+    }
+
+    @Test
+    public void testMix() {
+        for (LogEntry entry : new WorkloadGenerator(3, WorkloadMix.CARDIO,
+                1, today).generate(1000)) {
+            Assertions.assertNotEquals(ExerciseCategory.STRENGTH,
+                    entry.getExerciseCategory());
+        }
+    }
+
+    @Test
+    public void testFillAndSave() {
+        EntryManager manager = new EntryManager();
+        new WorkloadGenerator(4).fill(manager, 500);
+        Assertions.assertEquals(500, manager.entryCount());
+
+        EntryManager loaded = new EntryManager();
+        try {
+            new WorkloadGenerator(4).save(saveFile, 500);
+            EntrySaverJson.load(loaded, saveFile);
+        } catch (IOException e) {
+            Assertions.fail();
+        }
+        Assertions.assertEquals(manager.toHashMap(), loaded.toHashMap());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new WorkloadGenerator(1, null, 1, today));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new WorkloadGenerator(1, WorkloadMix.TYPICAL, 0, today));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new WorkloadGenerator(1, WorkloadMix.TYPICAL, 1,
+                        today.plusDays(1)));
+    }
+}